@@ -0,0 +1,36 @@
+package com.example.supermarketbillingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// BillingController.addProductToCart: from the typed or scanned code to the line in the cart
+@Name("com.example.supermarketbillingsystem.AddToCart")
+@Label("Add to Cart")
+@Category({"Supermarket Billing", "Billing"})
+@Description("A product code entered on the billing screen, including a database lookup on a catalog miss")
+@StackTrace(false)
+final class AddToCartEvent extends Event {
+
+    @Label("Cashier")
+    String cashier;
+
+    @Label("Product Code")
+    String productCode;
+
+    @Label("Quantity")
+    int quantity;
+
+    @Label("Database Lookup")
+    boolean databaseLookup;
+
+    @Label("Outcome")
+    @Description("ADDED, NOT_FOUND, INSUFFICIENT_STOCK or ERROR")
+    String outcome;
+
+    @Label("Cart Lines")
+    int cartLines;
+}
@@ -1,10 +1,13 @@
 package com.example.supermarketbillingsystem;
 
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Side;
+import javafx.scene.Cursor;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -17,10 +20,11 @@ import javafx.stage.Stage;
 import javafx.util.converter.IntegerStringConverter;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class BillingController {
     private String currentUsername;
@@ -41,7 +45,7 @@ public class BillingController {
     private TableColumn<Product, Integer> qtyCol;
 
     @FXML
-    private TableColumn<Product, Double> priceCol;
+    private TableColumn<Product, String> priceCol;
 
     @FXML
     private Label totalLabel;
@@ -58,77 +62,153 @@ public class BillingController {
     @FXML
     private TextField searchField;
 
-    private ObservableList<Product> cart = FXCollections.observableArrayList();
+    @FXML
+    private Label offlineLabel;
+
+    // The billing session owns the cart, its lines and totals; the table rows mirror it one row per product code.
+    // A new screen starts a new session unless the payment screen hands its basket back (resumeSession).
+    private BillingSession session = new BillingSession();
+    private Cart.Listener cartListener;
+    private final ObservableList<Product> cartRows = FXCollections.observableArrayList();
+    private final Map<String, Product> rowsByCode = new HashMap<>();
+
+    // As-you-type suggestions from the in-memory product search index
+    private static final int SUGGESTION_LIMIT = 8;
+    private final ContextMenu suggestionMenu = new ContextMenu();
 
     @FXML
     private void initialize() {
+        offlineLabel.visibleProperty().bind(ConnectivityMonitor.onlineProperty().not());
+        offlineLabel.managedProperty().bind(offlineLabel.visibleProperty());
+
         // Bind the table columns to the Product properties
         itemCol.setCellValueFactory(cellData -> cellData.getValue().nameProperty());
         qtyCol.setCellValueFactory(cellData -> cellData.getValue().quantityProperty().asObject());
-        priceCol.setCellValueFactory(cellData -> cellData.getValue().priceProperty().asObject());
+        priceCol.setCellValueFactory(cellData -> new SimpleStringProperty(Money.format(cellData.getValue().getPriceCents())));
 
         // Set the quantity column to be editable
         qtyCol.setCellFactory(TextFieldTableCell.forTableColumn(new IntegerStringConverter()));
 
         // Listen for changes in the quantity and update the product's quantity
         qtyCol.setOnEditCommit(event -> {
-            Product product = event.getRowValue();
-            int newQuantity = event.getNewValue();  // New quantity entered by the user
+            String productCode = event.getRowValue().getProductCode();
+            int newQuantity = event.getNewValue();  // New quantity entered by the user (0 removes the line)
+
+            // Look up the current stock (served from the product catalog)
+            lookUpProduct(productCode, item -> {
+                if (item == null) {
+                    cartTable.refresh();
+                    showError("Product not found.");
+                    return;
+                }
 
-            // Re-fetch the stock from the database to make sure it's up to date
-            int availableStock = getProductStockFromDatabase(product.getProductCode());
+                // The reservation is checked and taken in one atomic step
+                BillingSession.ScanResult result = session.setQuantity(item, newQuantity);
+                if (!result.isAdded()) {
+                    cartTable.refresh();  // Put the old quantity back in the cell
+                    showError("Not enough stock available. Only " + result.getAvailableUnits() + " units available.");
+                }
+            }, this::showLoadError);
+        });
 
-            // Check if the new quantity is within available stock
-            if (newQuantity <= availableStock) {
-                product.setQuantity(newQuantity);  // Update the product's quantity in the cart
-                updateTotal();  // Recalculate the total
-                updateProductStockInDatabase(product, newQuantity); // Update the stock in the database
-            } else {
-                showError("Not enough stock available. Only " + availableStock + " units available.");
+        // Keep the table rows and the total label in step with the cart, one row at a time
+        cartListener = new Cart.Listener() {
+            @Override
+            public void lineAdded(CartLine line) {
+                Product row = new Product(line.getName(), line.getCategory(), line.getProductCode(),
+                        line.getQuantity(), line.getUnitPriceCents());
+                rowsByCode.put(line.getProductCode(), row);
+                cartRows.add(row);
             }
-        });
+
+            @Override
+            public void lineUpdated(CartLine line) {
+                rowsByCode.get(line.getProductCode()).setQuantity(line.getQuantity());
+            }
+
+            @Override
+            public void lineRemoved(CartLine line) {
+                cartRows.remove(rowsByCode.remove(line.getProductCode()));
+            }
+
+            @Override
+            public void totalsChanged(Cart changedCart) {
+                updateTotal();
+            }
+        };
+        session.getCart().addListener(cartListener);
 
         // Set the TableView items to the cart
-        cartTable.setItems(cart);
+        cartTable.setItems(cartRows);
         cartTable.setEditable(true);  // Ensure the TableView is editable
 
+        // Suggest products by code or name while the cashier types
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> showSuggestions(newValue));
+
         // Add listener to discount field to update total when discount changes
         discountField.textProperty().addListener((observable, oldValue, newValue) -> {
-            updateTotal();
+            updateDiscount(newValue);
         });
     }
 
     @FXML
     private void searchProductByCode(ActionEvent event) {
+        suggestionMenu.hide();
         String searchCode = searchField.getText().trim();
 
         if (!searchCode.isEmpty()) {
-            Product product = getProductFromDatabase(searchCode);
-            if (product != null) {
-                int quantityRequested = 1;  // Default quantity to 1
-                addProductToCart(searchCode, quantityRequested);
-            } else {
-                showError("Product not found.");
-            }
+            int quantityRequested = 1;  // Default quantity to 1
+            addProductToCart(searchCode, quantityRequested);
         }
     }
 
 
+    // Show ranked matches under the search field; picking one adds it to the cart
+    private void showSuggestions(String text) {
+        if (text == null || text.trim().isEmpty() || !ProductCatalog.isLoaded()) {
+            suggestionMenu.hide();
+            return;
+        }
+
+        List<CatalogItem> matches = ProductCatalog.search(text, SUGGESTION_LIMIT);
+        if (matches.isEmpty()) {
+            suggestionMenu.hide();
+            return;
+        }
+
+        List<MenuItem> menuItems = new ArrayList<>(matches.size());
+        for (CatalogItem item : matches) {
+            MenuItem menuItem = new MenuItem(item.getName() + "  (" + item.getProductCode() + ")  "
+                    + Money.formatWithSymbol(item.getPriceCents()));
+            menuItem.setOnAction(e -> {
+                suggestionMenu.hide();
+                searchField.clear();
+                addProductToCart(item, 1);
+            });
+            menuItems.add(menuItem);
+        }
+        suggestionMenu.getItems().setAll(menuItems);
+        if (!suggestionMenu.isShowing()) {
+            suggestionMenu.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
+
     @FXML
     private void proceedToPayment(ActionEvent event) {
-        if (cart == null || cart.isEmpty()) {
+        if (session.getCart().isEmpty()) {
             showError("Cart is empty. Please add items to the cart.");
             return;
         }
 
         try {
             // Load Payment screen (payment.fxml)
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/supermarketbillingsystem/payment.fxml"));
-            Parent paymentView = loader.load();
+            FXMLLoader loader = ScreenLoader.load("payment.fxml");
+            Parent paymentView = loader.getRoot();
 
-            // Pass the cart to PaymentController
+            // Pass the billing session to PaymentController
             PaymentController paymentController = loader.getController();
-            paymentController.setCart(cart);  // Pass the cart
+            paymentController.setSession(session);  // Its cart carries the discount too
+            session.getCart().removeListener(cartListener);  // This screen is left behind; stop mirroring the cart
 
             // Switch to the Payment screen
             Scene paymentScene = new Scene(paymentView);
@@ -145,60 +225,115 @@ public class BillingController {
 
 
 
+    // Continue the basket the payment screen was paying, with its lines, reservations and discount
+    public void resumeSession(BillingSession resumed) {
+        session.getCart().removeListener(cartListener);  // The new, empty session reserved nothing
+        session = resumed;
+        for (CartLine line : session.getCart().getLines()) {
+            cartListener.lineAdded(line);
+        }
+        session.getCart().addListener(cartListener);
+        int discountBasisPoints = session.getCart().getDiscountBasisPoints();
+        discountField.setText(discountBasisPoints == 0 ? "" : Money.formatPercent(discountBasisPoints));
+        updateTotal();
+    }
+
     // Add product to the cart with a default quantity of 1
     public void addProductToCart(String productCode, int quantityToAdd) {
-        Product product = getProductFromDatabase(productCode);
-
-        if (product != null) {
-            int availableStock = product.getQuantity();
-
-            // If no quantity is specified, set the default quantity to 1
-            if (quantityToAdd == 0) {
-                quantityToAdd = 1;
-            }
-
-            // Check if the quantity is within available stock
-            if (quantityToAdd <= availableStock) {
-                product.setQuantity(quantityToAdd);  // Set the quantity in the product
-                cart.add(product);  // Add product to the cart
-                updateTotal();  // Update the total
-                updateProductStockInDatabase(product, quantityToAdd);  // Update stock in database
+        // Recorded in flight recordings from the code entered until the line is in the cart
+        AddToCartEvent event = startAddToCartEvent(productCode);
+        event.databaseLookup = event.isEnabled() && BillingSession.needsDatabaseLookup(productCode);
+        lookUpProduct(productCode, item -> {
+            if (item != null) {
+                addProductToCart(item, quantityToAdd, event);
             } else {
-                showError("Not enough stock available. Only " + availableStock + " units available.");
+                finishAddToCartEvent(event, "NOT_FOUND", quantityToAdd);
+                showError("Product not found.");
             }
+        }, error -> {
+            finishAddToCartEvent(event, "ERROR", quantityToAdd);
+            showLoadError(error);
+        });
+    }
+
+    // Catalog hits and unknown codes are answered immediately; other misses are looked up off the FX thread.
+    // Mis-scans and typos are rejected locally by the product code filter; offline, the catalog is all there is.
+    private void lookUpProduct(String productCode, Consumer<CatalogItem> onFound, Consumer<Throwable> onError) {
+        if (!BillingSession.needsDatabaseLookup(productCode)) {
+            onFound.accept(BillingSession.findProduct(productCode));
+            return;
         }
+
+        setLoading(true);
+        DbExecutor.submit(() -> BillingSession.findProduct(productCode), item -> {
+            setLoading(false);
+            onFound.accept(item);
+        }, onError);
     }
 
-    // Fetch product from the database
-    private Product getProductFromDatabase(String productCode) {
-        return DatabaseUtil.getProductByCode(productCode);
+    private void addProductToCart(CatalogItem item, int quantityToAdd) {
+        addProductToCart(item, quantityToAdd, startAddToCartEvent(item.getProductCode()));
     }
 
-    // Re-fetch the available stock from the database
-    private int getProductStockFromDatabase(String productCode) {
-        Product product = DatabaseUtil.getProductByCode(productCode);
-        return product != null ? product.getQuantity() : 0;
+    private void addProductToCart(CatalogItem item, int quantityToAdd, AddToCartEvent event) {
+        // If no quantity is specified, set the default quantity to 1
+        if (quantityToAdd == 0) {
+            quantityToAdd = 1;
+        }
+
+        // A repeat scan merges into the existing line; the units stay reserved until checkout or removal
+        BillingSession.ScanResult result = session.add(item, quantityToAdd);
+        finishAddToCartEvent(event, result.getStatus().name(), quantityToAdd);
+        if (!result.isAdded()) {
+            showError("Not enough stock available. Only " + result.getAvailableUnits() + " units available.");
+        }
     }
 
-    // Update the total price label with discount applied
-    private void updateTotal() {
-        double total = cart.stream().mapToDouble(Product::getTotalPrice).sum();
+    private AddToCartEvent startAddToCartEvent(String productCode) {
+        AddToCartEvent event = new AddToCartEvent();
+        event.begin();
+        event.productCode = productCode;
+        return event;
+    }
 
-        // Apply discount if specified
-        String discountText = discountField.getText().trim();
-        if (!discountText.isEmpty()) {
-            try {
-                double discount = Double.parseDouble(discountText);
-                if (discount >= 0 && discount <= 100) {
-                    total = total - (total * discount / 100);
-                }
-            } catch (NumberFormatException e) {
-                // Ignore invalid discount values
-            }
+    // Commit before any alert, so the event doesn't include the time the dialog stays open
+    private void finishAddToCartEvent(AddToCartEvent event, String outcome, int quantity) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.cashier = currentUsername;
+            event.quantity = quantity;
+            event.outcome = outcome;
+            event.cartLines = session.getCart().getLineCount();
+            event.commit();
         }
+    }
 
-        DecimalFormat df = new DecimalFormat("0.00");
-        totalLabel.setText("$" + df.format(total));
+    // Show a loading state while a lookup is running in the background
+    private void setLoading(boolean loading) {
+        searchField.setDisable(loading);
+        cartTable.setDisable(loading);
+        if (cartTable.getScene() != null) {
+            cartTable.getScene().setCursor(loading ? Cursor.WAIT : Cursor.DEFAULT);
+        }
+        if (!loading) {
+            searchField.requestFocus();
+        }
+    }
+
+    private void showLoadError(Throwable error) {
+        setLoading(false);
+        error.printStackTrace();
+        showError("Error while reading product data from the database.");
+    }
+
+    // Update the total price label with discount applied (the cart keeps the totals, nothing is recomputed)
+    private void updateTotal() {
+        totalLabel.setText(Money.formatWithSymbol(session.getTotalCents()));
+    }
+
+    // Invalid or out-of-range discount values mean no discount
+    private void updateDiscount(String discountText) {
+        session.setDiscount(discountText);
     }
 
     // Show an error message
@@ -209,23 +344,11 @@ public class BillingController {
         alert.showAndWait();
     }
 
-    // Method to update product stock in the database
-    private void updateProductStockInDatabase(Product product, int quantityToAdd) {
-        try (Connection conn = DatabaseUtil.connect()) {
-            String query = "UPDATE products SET quantity = quantity - ? WHERE product_code = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setInt(1, quantityToAdd);  // Subtract the added quantity
-                stmt.setString(2, product.getProductCode());
-                stmt.executeUpdate();  // Update stock in the database
-            }
-        } catch (SQLException e) {
-            showError("Error while updating product stock in database.");
-            e.printStackTrace();
-        }
-    }
-
     @FXML
     private void goBackToDashboard(ActionEvent event) {
+        // Leaving billing abandons the cart, so hand its reserved stock back
+        session.abandon();
+
         // Get the current stage
         Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
 
@@ -242,8 +365,8 @@ public class BillingController {
         } else {
             // First-time load fallback
             try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/supermarketbillingsystem/dashboard.fxml"));
-                Parent dashboardView = loader.load();
+                FXMLLoader loader = ScreenLoader.load("dashboard.fxml");
+                Parent dashboardView = loader.getRoot();
 
                 DashboardController dashboardController = loader.getController();
                 dashboardController.setCashierInfo(currentUsername, "online");
@@ -268,16 +391,12 @@ public class BillingController {
     @FXML
     private void handlePayment(ActionEvent event) {
         try {
-            double cash = Double.parseDouble(cashField.getText());
-
-            // Get the total from the label (which already includes discount)
-            String totalText = totalLabel.getText().replace("$", "");
-            double total = Double.parseDouble(totalText);
+            long cashCents = Money.parse(cashField.getText());
 
-            double balance = cash - total;
+            // The total (which already includes discount) is kept in cents, no need to re-read the label
+            long balanceCents = session.balanceFor(cashCents);
 
-            DecimalFormat df = new DecimalFormat("0.00");
-            balanceLabel.setText("$" + df.format(balance));
+            balanceLabel.setText(Money.formatWithSymbol(balanceCents));
         } catch (NumberFormatException e) {
             showError("Invalid input for cash.");
         }
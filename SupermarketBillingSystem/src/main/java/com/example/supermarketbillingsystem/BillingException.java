@@ -0,0 +1,12 @@
+package com.example.supermarketbillingsystem;
+
+// A billing step the cashier has to fix before going on (empty cart, missing or short payment).
+// The message is meant to be shown as is.
+public class BillingException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public BillingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.supermarketbillingsystem;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Back-office server mode: one JVM serves the checkout of many lanes over HTTP (see CheckoutHttpHandler).
+// Every lane gets its own BillingSession; all lanes share the product catalog cache, the reservations,
+// the connection pool and the sales journal, exactly like the screens of a desktop lane.
+// Run with: java ... com.example.supermarketbillingsystem.BillingServer
+// Settings: -Dserver.host=127.0.0.1 -Dserver.port=8080 -Dserver.threads=64 -Dserver.laneIdleMinutes=30
+// (metrics: see MetricsEndpoint). The API has no authentication: it listens on loopback unless -Dserver.host
+// names another interface (0.0.0.0 for all), and lanes must then reach it over a trusted network or through
+// an authenticating reverse proxy.
+public final class BillingServer {
+
+    private static final String HOST = System.getProperty("server.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("server.port", 8080);
+    private static final int THREADS = Integer.getInteger("server.threads", 64);
+    private static final long LANE_IDLE_MINUTES = Long.getLong("server.laneIdleMinutes", 30);
+
+    // A lane's session and when a request last touched it; requests for one lane run one at a time
+    static final class Lane {
+        final String laneId;
+        final BillingSession session = new BillingSession();
+        volatile long lastUsedNanos = System.nanoTime();
+
+        Lane(String laneId) {
+            this.laneId = laneId;
+        }
+    }
+
+    private static final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    private BillingServer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        startStorage();
+
+        // JDK 17 has no virtual threads, so handlers run on a bounded pool of platform threads.
+        // Size it near the lane count: a handler blocks only while recording a sale or on a catalog miss.
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService handlers = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "checkout-http-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(HOST, PORT), 0);
+        server.createContext("/lanes/", new CheckoutHttpHandler());
+        server.setExecutor(handlers);
+        server.start();
+        System.out.println("Checkout API listening on " + HOST + ":" + PORT + " with " + THREADS + " handler threads");
+        MetricsEndpoint.start();
+
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lane-idle-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(BillingServer::abandonIdleLanes, 1, 1, TimeUnit.MINUTES);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            sweeper.shutdownNow();
+            for (Lane lane : lanes.values()) {
+                synchronized (lane) {
+                    lane.session.abandon();
+                }
+            }
+            handlers.shutdown();
+            stopStorage();
+            MetricsEndpoint.stop();
+        }, "billing-server-shutdown"));
+    }
+
+    // Same startup as the desktop application, minus the UI: pool, schema, journal and the shared catalog
+    private static void startStorage() {
+        if (Repositories.usesDatabase()) {
+            try {
+                SalesJournal.open();
+            } catch (IOException e) {
+                System.err.println("Could not open the sales journal, sales will be committed directly: " + e.getMessage());
+            }
+            ConnectivityMonitor.addListener(online -> {
+                if (online) {
+                    SalesJournal.shipSoon();
+                }
+            });
+        }
+        try {
+            if (Repositories.usesDatabase()) {
+                DatabaseUtil.getConnectionPool().warmUp();
+                DatabaseSchema.ensureCreated();
+            }
+            ProductCatalog.loadAll();
+        } catch (Exception e) {
+            System.err.println("Could not preload product catalog: " + e.getMessage());
+            if (!ProductCatalog.isLoaded() && ProductCatalog.loadFromSnapshot()) {
+                System.out.println("Selling from the local catalog snapshot until the database is reachable");
+            }
+        }
+    }
+
+    private static void stopStorage() {
+        SalesJournal.shutdown();
+        HotSkuStock.shutdown();
+        ProductCatalog.saveSnapshot();
+        ConnectivityMonitor.shutdown();
+        DbExecutor.shutdown();
+        DatabaseUtil.shutdown();
+    }
+
+    // The lane's state, created on its first request
+    static Lane lane(String laneId) {
+        Lane lane = lanes.computeIfAbsent(laneId, Lane::new);
+        lane.lastUsedNanos = System.nanoTime();
+        return lane;
+    }
+
+    // False once the idle sweeper has dropped the lane; check while holding the lane's lock
+    static boolean isActive(Lane lane) {
+        return lanes.get(lane.laneId) == lane;
+    }
+
+    // Lanes that went quiet (a client crashed or was switched off) hand their reserved stock back
+    private static void abandonIdleLanes() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(LANE_IDLE_MINUTES);
+        for (Lane lane : lanes.values()) {
+            if (lane.lastUsedNanos - cutoff < 0) {
+                synchronized (lane) {
+                    if (lane.lastUsedNanos - cutoff < 0 && lanes.remove(lane.laneId, lane)) {
+                        lane.session.abandon();
+                        System.out.println("Lane " + lane.laneId + " idle, its cart was abandoned");
+                    }
+                }
+            }
+        }
+    }
+}
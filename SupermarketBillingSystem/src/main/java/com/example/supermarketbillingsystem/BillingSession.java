@@ -0,0 +1,246 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// One lane's billing work without any UI: scanning into a cart, the basket discount, payment and the receipt.
+// The billing and payment screens delegate to it, and a server or load test can drive it directly.
+// Like Cart, a session belongs to one thread at a time (the FX thread for the screens); only
+// Checkout.record() may run elsewhere, and it's the only step that waits on storage.
+public class BillingSession {
+
+    // What happened to a scan or quantity change
+    public static final class ScanResult {
+
+        public enum Status {
+            ADDED,
+            NOT_FOUND,
+            INSUFFICIENT_STOCK
+        }
+
+        private final Status status;
+        private final CatalogItem item;
+        private final int availableUnits;
+
+        private ScanResult(Status status, CatalogItem item, int availableUnits) {
+            this.status = status;
+            this.item = item;
+            this.availableUnits = availableUnits;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isAdded() {
+            return status == Status.ADDED;
+        }
+
+        public CatalogItem getItem() {
+            return item;
+        }
+
+        // Units the cart could have taken, for INSUFFICIENT_STOCK
+        public int getAvailableUnits() {
+            return availableUnits;
+        }
+    }
+
+    // A basket being paid for: lines and totals copied when payment was accepted
+    public final class Checkout {
+        private final List<CartLine> lines;
+        private final long subtotalCents;
+        private final int discountBasisPoints;
+        private final long totalCents;
+        private final PaymentMethod paymentMethod;
+        private final long paidCents;
+
+        private Checkout(PaymentMethod paymentMethod, long paidCents) {
+            this.lines = cart.snapshotLines();
+            this.subtotalCents = cart.getSubtotalCents();
+            this.discountBasisPoints = cart.getDiscountBasisPoints();
+            this.totalCents = cart.getTotalCents();
+            this.paymentMethod = paymentMethod;
+            this.paidCents = paidCents;
+        }
+
+        // Store the sale and build its receipt; blocking, may run on a worker thread.
+        // Throws InsufficientStockException, recording nothing, if another lane sold the last units.
+        public Receipt record() throws SQLException {
+            CheckoutEvent event = new CheckoutEvent();
+            event.begin();
+            String saleReference;
+            try {
+                saleReference = CheckoutService.recordPaidSale(lines, totalCents);
+                event.saleReference = saleReference;
+                event.journaled = !saleReference.startsWith("#");
+            } catch (SQLException e) {
+                event.error = e.getMessage();
+                throw e;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.paymentMethod = paymentMethod.getLabel();
+                    event.cartLines = lines.size();
+                    event.totalCents = totalCents;
+                    event.commit();
+                }
+            }
+            return new Receipt(saleReference, lines, subtotalCents, discountBasisPoints, totalCents, paymentMethod, paidCents);
+        }
+
+        public long getTotalCents() {
+            return totalCents;
+        }
+
+        public long getChangeCents() {
+            return paidCents - totalCents;
+        }
+    }
+
+    private final Cart cart = new Cart();
+
+    // The cart, e.g. for a screen to observe through a Cart.Listener
+    public Cart getCart() {
+        return cart;
+    }
+
+    // False when the product's lookup is answered from memory: a cached product, a code that can't exist,
+    // or any miss while offline. Screens use it to decide whether a lookup has to go off the UI thread.
+    public static boolean needsDatabaseLookup(String productCode) {
+        return ProductCatalog.getCached(productCode) == null
+                && ProductCatalog.mightExist(productCode)
+                && ConnectivityMonitor.isOnline();
+    }
+
+    // The product, asking the database on a catalog miss; null if it doesn't exist (or can't be read)
+    public static CatalogItem findProduct(String productCode) {
+        long start = System.nanoTime();
+        CatalogItem item = ProductCatalog.get(productCode);
+        Metrics.LOOKUP.recordSince(start);
+        return item;
+    }
+
+    // Look up a product by code and add units of it; blocks on a catalog miss
+    public ScanResult scan(String productCode, int quantity) {
+        long start = System.nanoTime();
+        Metrics.SCANS.increment();
+        CatalogItem item = findProduct(productCode);
+        if (item == null) {
+            Metrics.SCANS_NOT_FOUND.increment();
+            Metrics.SCAN.recordSince(start);
+            return new ScanResult(ScanResult.Status.NOT_FOUND, null, 0);
+        }
+        ScanResult result = add(item, quantity);
+        Metrics.SCAN.recordSince(start);
+        return result;
+    }
+
+    // Add units of a product already looked up; a repeat scan merges into its line.
+    // The units stay reserved until checkout or removal.
+    public ScanResult add(CatalogItem item, int quantity) {
+        long start = System.nanoTime();
+        boolean added = cart.add(item, quantity);
+        Metrics.CART_UPDATE.recordSince(start);
+        if (!added) {
+            Metrics.OUT_OF_STOCK.increment();
+            return new ScanResult(ScanResult.Status.INSUFFICIENT_STOCK, item, StockReservationService.getAvailable(item));
+        }
+        return new ScanResult(ScanResult.Status.ADDED, item, 0);
+    }
+
+    // Change a line's quantity (zero removes it); the extra units are reserved in one atomic step
+    public ScanResult setQuantity(CatalogItem item, int quantity) {
+        long start = System.nanoTime();
+        boolean changed = cart.setQuantity(item, quantity);
+        Metrics.CART_UPDATE.recordSince(start);
+        if (!changed) {
+            Metrics.OUT_OF_STOCK.increment();
+            int available = StockReservationService.getAvailable(item) + cart.getQuantity(item.getProductCode());
+            return new ScanResult(ScanResult.Status.INSUFFICIENT_STOCK, item, available);
+        }
+        return new ScanResult(ScanResult.Status.ADDED, item, 0);
+    }
+
+    public void remove(String productCode) {
+        long start = System.nanoTime();
+        cart.remove(productCode);
+        Metrics.CART_UPDATE.recordSince(start);
+    }
+
+    // Discount as typed by the cashier, e.g. "10" or "12.5"; blank, invalid or out-of-range text means none
+    public void setDiscount(String discountText) {
+        int discountBasisPoints = 0;
+        if (discountText != null && !discountText.trim().isEmpty()) {
+            try {
+                discountBasisPoints = Money.parsePercent(discountText);
+            } catch (NumberFormatException e) {
+                // Ignore invalid discount values
+            }
+        }
+        cart.setDiscountBasisPoints(discountBasisPoints);
+    }
+
+    // Discount in basis points (12.5% = 1250); throws IllegalArgumentException when out of range
+    public void setDiscountBasisPoints(int discountBasisPoints) {
+        cart.setDiscountBasisPoints(discountBasisPoints);
+    }
+
+    public long getTotalCents() {
+        return cart.getTotalCents();
+    }
+
+    // Change due (negative if short) when the customer hands over cashCents
+    public long balanceFor(long cashCents) {
+        return cashCents - cart.getTotalCents();
+    }
+
+    // Accept payment for the basket; paidCents is only read for tendered methods (cash).
+    // Nothing is stored until the returned Checkout is recorded.
+    public Checkout beginCheckout(PaymentMethod paymentMethod, long paidCents) throws BillingException {
+        if (cart.isEmpty()) {
+            throw new BillingException("No items in the cart. Please add items.");
+        }
+        if (paymentMethod == null) {
+            throw new BillingException("Please select a payment method.");
+        }
+        long totalCents = cart.getTotalCents();
+        long paid = paymentMethod.isTendered() ? paidCents : totalCents;
+        if (paid < totalCents) {
+            throw new BillingException("Insufficient payment. Please enter a valid amount.");
+        }
+        return new Checkout(paymentMethod, paid);
+    }
+
+    // Empty the cart once its checkout has been recorded (the sale now holds the reserved stock);
+    // the next basket starts without a discount
+    public void completeCheckout() {
+        cart.clearAfterCheckout();
+        cart.setDiscountBasisPoints(0);
+    }
+
+    // Pay for the basket, store the sale and start a new basket, all in one blocking call
+    public Receipt checkout(PaymentMethod paymentMethod, long paidCents) throws BillingException, SQLException {
+        Receipt receipt = beginCheckout(paymentMethod, paidCents).record();
+        completeCheckout();
+        return receipt;
+    }
+
+    // Give up on the basket and release its reserved stock
+    public void abandon() {
+        cart.clear();
+    }
+
+    // Product names for the given codes, as shown on the cart
+    public String describeProducts(List<String> productCodes) {
+        StringBuilder names = new StringBuilder();
+        for (String productCode : productCodes) {
+            CartLine line = cart.getLine(productCode);
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(line != null ? line.getName() : productCode);
+        }
+        return names.toString();
+    }
+}
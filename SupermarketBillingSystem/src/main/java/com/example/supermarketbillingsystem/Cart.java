@@ -0,0 +1,227 @@
+package com.example.supermarketbillingsystem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Shopping cart keyed by product code.
+// Repeat scans of a product merge into its existing line, and the subtotal is adjusted by the
+// change in each line instead of being recomputed, so every operation is O(1) regardless of basket size.
+// Every unit in the cart is reserved with StockReservationService, so two carts can't promise the same stock;
+// removing lines or clearing the cart hands the units back.
+// Has no JavaFX dependency; screens observe it through a Listener.
+public class Cart {
+
+    // Notified after every change so a view can patch just the affected row
+    public interface Listener {
+        void lineAdded(CartLine line);
+
+        void lineUpdated(CartLine line);
+
+        void lineRemoved(CartLine line);
+
+        void totalsChanged(Cart cart);
+    }
+
+    private final Map<String, CartLine> linesByCode = new LinkedHashMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private long subtotalCents;
+    private int discountBasisPoints;
+    private int unitCount;
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Add units of a product, merging with an existing line for the same code.
+    // Returns false, leaving the cart unchanged, when the product's stock can't cover them
+    // (or the line or totals would overflow).
+    public boolean add(CatalogItem item, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        CartLine line = linesByCode.get(item.getProductCode());
+        // Checked before reserving, so an update that can't be applied never leaves a reservation behind
+        long unitPriceCents = line != null ? line.getUnitPriceCents() : item.getPriceCents();
+        if (!fits(unitPriceCents, quantity) || (line != null && line.getQuantity() > Integer.MAX_VALUE - quantity)) {
+            return false;
+        }
+        if (!StockReservationService.tryReserve(item, quantity)) {
+            return false;
+        }
+
+        if (line == null) {
+            line = new CartLine(item.getProductCode(), item.getName(), item.getCategory(), item.getPriceCents(), quantity);
+            linesByCode.put(line.getProductCode(), line);
+            applyDelta(line.getUnitPriceCents(), quantity);
+            for (Listener listener : listeners) {
+                listener.lineAdded(line);
+            }
+        } else {
+            line.setQuantity(Math.addExact(line.getQuantity(), quantity));
+            applyDelta(line.getUnitPriceCents(), quantity);
+            for (Listener listener : listeners) {
+                listener.lineUpdated(line);
+            }
+        }
+        fireTotalsChanged();
+        return true;
+    }
+
+    // Set the quantity of an existing line; zero or less removes it.
+    // Returns false, leaving the line unchanged, when the product's stock can't cover an increase.
+    public boolean setQuantity(CatalogItem item, int quantity) {
+        String productCode = item.getProductCode();
+        CartLine line = linesByCode.get(productCode);
+        if (line == null) {
+            return true;
+        }
+        if (quantity <= 0) {
+            remove(productCode);
+            return true;
+        }
+
+        int delta = quantity - line.getQuantity();
+        if (delta == 0) {
+            return true;
+        }
+        if (delta > 0) {
+            if (!fits(line.getUnitPriceCents(), delta) || !StockReservationService.tryReserve(item, delta)) {
+                return false;
+            }
+        } else {
+            StockReservationService.release(productCode, -delta);
+        }
+        line.setQuantity(quantity);
+        applyDelta(line.getUnitPriceCents(), delta);
+        for (Listener listener : listeners) {
+            listener.lineUpdated(line);
+        }
+        fireTotalsChanged();
+        return true;
+    }
+
+    public void remove(String productCode) {
+        CartLine line = linesByCode.remove(productCode);
+        if (line == null) {
+            return;
+        }
+        applyDelta(line.getUnitPriceCents(), -line.getQuantity());
+        StockReservationService.release(productCode, line.getQuantity());
+        for (Listener listener : listeners) {
+            listener.lineRemoved(line);
+        }
+        fireTotalsChanged();
+    }
+
+    // Empty the cart and release its reservations (after checkout, or when the cart is abandoned)
+    public void clear() {
+        for (CartLine line : new ArrayList<>(linesByCode.values())) {
+            remove(line.getProductCode());
+        }
+    }
+
+    // Empty the cart after its sale went to the sales journal; the journal releases the reservations
+    // once the sale is in the database, so the stock stays spoken for until then
+    public void clearAfterCheckout() {
+        for (CartLine line : new ArrayList<>(linesByCode.values())) {
+            linesByCode.remove(line.getProductCode());
+            applyDelta(line.getUnitPriceCents(), -line.getQuantity());
+            for (Listener listener : listeners) {
+                listener.lineRemoved(line);
+            }
+        }
+        fireTotalsChanged();
+    }
+
+    public void setDiscountBasisPoints(int discountBasisPoints) {
+        if (discountBasisPoints < 0 || discountBasisPoints > Money.FULL_PERCENT_BASIS_POINTS) {
+            throw new IllegalArgumentException("Discount out of range: " + discountBasisPoints);
+        }
+        if (this.discountBasisPoints != discountBasisPoints) {
+            this.discountBasisPoints = discountBasisPoints;
+            fireTotalsChanged();
+        }
+    }
+
+    private void applyDelta(long unitPriceCents, int quantityDelta) {
+        subtotalCents = Math.addExact(subtotalCents, Money.times(unitPriceCents, quantityDelta));
+        unitCount = Math.addExact(unitCount, quantityDelta);
+    }
+
+    // False if applyDelta would overflow; no store stocks that many units, so it's refused like missing stock
+    private boolean fits(long unitPriceCents, int quantityDelta) {
+        try {
+            Math.addExact(subtotalCents, Money.times(unitPriceCents, quantityDelta));
+            Math.addExact(unitCount, quantityDelta);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private void fireTotalsChanged() {
+        for (Listener listener : listeners) {
+            listener.totalsChanged(this);
+        }
+    }
+
+    // Units of a product held by the cart (reserved until checkout)
+    public int getQuantity(String productCode) {
+        CartLine line = linesByCode.get(productCode);
+        return line != null ? line.getQuantity() : 0;
+    }
+
+    public CartLine getLine(String productCode) {
+        return linesByCode.get(productCode);
+    }
+
+    // Lines in the order they were first scanned
+    public Collection<CartLine> getLines() {
+        return Collections.unmodifiableCollection(linesByCode.values());
+    }
+
+    // Independent copies of the lines, safe to hand to another thread
+    public List<CartLine> snapshotLines() {
+        List<CartLine> snapshot = new ArrayList<>(linesByCode.size());
+        for (CartLine line : linesByCode.values()) {
+            snapshot.add(line.copy());
+        }
+        return snapshot;
+    }
+
+    public boolean isEmpty() {
+        return linesByCode.isEmpty();
+    }
+
+    public int getLineCount() {
+        return linesByCode.size();
+    }
+
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public int getDiscountBasisPoints() {
+        return discountBasisPoints;
+    }
+
+    public long getDiscountCents() {
+        return Money.discountAmount(subtotalCents, discountBasisPoints);
+    }
+
+    public long getTotalCents() {
+        return subtotalCents - getDiscountCents();
+    }
+}
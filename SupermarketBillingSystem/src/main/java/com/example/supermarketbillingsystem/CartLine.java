@@ -0,0 +1,52 @@
+package com.example.supermarketbillingsystem;
+
+// One line of a Cart: a product and how many units of it are being bought
+public final class CartLine {
+    private final String productCode;
+    private final String name;
+    private final String category;
+    private final long unitPriceCents;
+    private int quantity;
+
+    CartLine(String productCode, String name, String category, long unitPriceCents, int quantity) {
+        this.productCode = productCode;
+        this.name = name;
+        this.category = category;
+        this.unitPriceCents = unitPriceCents;
+        this.quantity = quantity;
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getUnitPriceCents() {
+        return unitPriceCents;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    // Only the owning Cart changes quantities, so it can keep its totals in step
+    void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public long getLineTotalCents() {
+        return Money.times(unitPriceCents, quantity);
+    }
+
+    // Independent copy, e.g. for handing a paid basket to a background thread
+    CartLine copy() {
+        return new CartLine(productCode, name, category, unitPriceCents, quantity);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.supermarketbillingsystem;
+
+// Compact immutable snapshot of one row of the products table.
+// Used for storage, caching and lookups; a JavaFX Product is only created for rows bound into a table.
+public final class CatalogItem {
+    private final String productCode;
+    private final String name;
+    private final String category;
+    private final int quantity;
+    private final long priceCents;  // Unit price in cents
+
+    public CatalogItem(String productCode, String name, String category, int quantity, long priceCents) {
+        this.productCode = productCode;
+        this.name = name;
+        this.category = category;
+        this.quantity = quantity;
+        this.priceCents = priceCents;
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    // Copy of this item with a different stock quantity
+    public CatalogItem withQuantity(int newQuantity) {
+        return new CatalogItem(productCode, name, category, newQuantity, priceCents);
+    }
+
+    // Create the property-based view model for a row that is actually shown in a table,
+    // e.g. a cart line holding the given quantity
+    public Product toProduct(int rowQuantity) {
+        return new Product(name, category, productCode, rowQuantity, priceCents);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.supermarketbillingsystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.CRC32;
+
+// Local copy of the product catalog, so a lane that starts while the database is down can still look up
+// and sell products. Written after every full catalog load and when the application exits.
+// Stock quantities in it may be stale; sales made from it are checked when they are shipped (see CheckoutService).
+public final class CatalogSnapshot {
+
+    private static final Path FILE = Paths.get(System.getProperty("catalog.snapshot.file",
+            Paths.get(System.getProperty("user.home"), ".supermarket-billing", "catalog.snapshot").toString()));
+
+    private static final int FORMAT_VERSION = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    // Write to a temporary file and rename it over the old snapshot, so a crash never leaves half a catalog
+    public static synchronized void save(Collection<CatalogItem> items) throws IOException {
+        Files.createDirectories(FILE.getParent());
+        Path temp = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(items.size());
+            for (CatalogItem item : items) {
+                out.writeUTF(item.getProductCode());
+                writeNullable(out, item.getName());
+                writeNullable(out, item.getCategory());
+                out.writeInt(item.getQuantity());
+                out.writeLong(item.getPriceCents());
+            }
+            out.flush();
+
+            // Checksum of everything above, written past the checked stream
+            DataOutputStream trailer = new DataOutputStream(buffered);
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The saved products, or an empty list if there is no usable snapshot
+    public static List<CatalogItem> load() {
+        List<CatalogItem> items = new ArrayList<>();
+        if (!Files.exists(FILE)) {
+            return items;
+        }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(FILE)), crc))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return items;
+            }
+            long savedAt = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String productCode = in.readUTF();
+                String name = readNullable(in);
+                String category = readNullable(in);
+                int quantity = in.readInt();
+                long priceCents = in.readLong();
+                items.add(new CatalogItem(productCode, name, category, quantity, priceCents));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                System.err.println("Catalog snapshot " + FILE + " is corrupt, ignoring it");
+                items.clear();
+                return items;
+            }
+            System.out.println("Catalog snapshot loaded: " + count + " products saved at " + new Date(savedAt));
+        } catch (IOException e) {
+            System.err.println("Could not read catalog snapshot " + FILE + ": " + e.getMessage());
+            items.clear();
+        }
+        return items;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.supermarketbillingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// BillingSession.Checkout.record(): storing one paid basket. Runs on the thread that does the storage work,
+// so the SQL and connection events it caused are nested inside it on the same thread.
+@Name("com.example.supermarketbillingsystem.Checkout")
+@Label("Checkout")
+@Category({"Supermarket Billing", "Billing"})
+@Description("Recording a paid basket: journal write or direct commit of the sale and its stock")
+@StackTrace(false)
+final class CheckoutEvent extends Event {
+
+    @Label("Sale Reference")
+    String saleReference;
+
+    @Label("Payment Method")
+    String paymentMethod;
+
+    @Label("Cart Lines")
+    int cartLines;
+
+    @Label("Total (cents)")
+    long totalCents;
+
+    @Label("Journaled")
+    boolean journaled;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,298 @@
+package com.example.supermarketbillingsystem;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// HTTP checkout API for thin lane clients, one BillingSession per lane id:
+//   GET    /lanes/{lane}/cart                              the cart
+//   POST   /lanes/{lane}/scan      code=P001&qty=1         add units of a product (qty 1-9999, defaults to 1)
+//   POST   /lanes/{lane}/quantity  code=P001&qty=3         set a line's quantity (0-9999, 0 removes it)
+//   POST   /lanes/{lane}/discount  percent=12.5            basket discount
+//   POST   /lanes/{lane}/pay       method=Cash&paid=20.00  pay, record the sale and start a new cart
+//   DELETE /lanes/{lane}/cart                              abandon the cart
+// Parameters may come in the query string or a form-encoded body. Answers are JSON with amounts in cents;
+// errors are {"error": "..."} with 400 (bad input), 404 (unknown product or path) or 409 (not enough stock).
+final class CheckoutHttpHandler implements HttpHandler {
+
+    // Largest qty one request may scan or set; anything bigger is a client bug, not a basket
+    private static final int MAX_QUANTITY = 9999;
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] parts = exchange.getRequestURI().getPath().split("/");  // "", "lanes", lane, action
+            if (parts.length != 4 || parts[2].isEmpty()) {
+                sendError(exchange, 404, "Unknown path");
+                return;
+            }
+            Map<String, String> params = readParams(exchange);
+            String method = exchange.getRequestMethod();
+            while (true) {
+                BillingServer.Lane lane = BillingServer.lane(parts[2]);
+                synchronized (lane) {
+                    if (BillingServer.isActive(lane)) {
+                        route(exchange, method, parts[3], lane, params);
+                        return;
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Error while recording the sale: " + e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Runs holding the lane's lock, so one lane's requests never interleave
+    private void route(HttpExchange exchange, String method, String action, BillingServer.Lane lane,
+                       Map<String, String> params) throws IOException, SQLException {
+        BillingSession session = lane.session;
+        switch (method + " " + action) {
+            case "GET cart":
+                sendCart(exchange, 200, lane);
+                break;
+            case "DELETE cart":
+                session.abandon();
+                sendCart(exchange, 200, lane);
+                break;
+            case "POST scan": {
+                BillingSession.ScanResult result = session.scan(required(params, "code"), intParam(params, "qty", 1, 1, MAX_QUANTITY));
+                sendScanResult(exchange, lane, result);
+                break;
+            }
+            case "POST quantity": {
+                CatalogItem item = BillingSession.findProduct(required(params, "code"));
+                if (item == null) {
+                    sendError(exchange, 404, "Product not found");
+                    return;
+                }
+                sendScanResult(exchange, lane, session.setQuantity(item, intParam(params, "qty", 0, 0, MAX_QUANTITY)));
+                break;
+            }
+            case "POST discount":
+                try {
+                    session.setDiscountBasisPoints(Money.parsePercent(required(params, "percent")));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid discount: " + params.get("percent"));
+                }
+                sendCart(exchange, 200, lane);
+                break;
+            case "POST pay":
+                pay(exchange, session, params);
+                break;
+            default:
+                sendError(exchange, 404, "Unknown action " + method + " " + action);
+        }
+    }
+
+    private void pay(HttpExchange exchange, BillingSession session, Map<String, String> params) throws IOException, SQLException {
+        PaymentMethod paymentMethod = PaymentMethod.fromLabel(required(params, "method"));
+        long paidCents = 0;
+        if (paymentMethod != null && paymentMethod.isTendered()) {
+            try {
+                paidCents = Money.parse(required(params, "paid"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cash amount: " + params.get("paid"));
+            }
+        }
+
+        Receipt receipt;
+        try {
+            receipt = session.checkout(paymentMethod, paidCents);
+        } catch (BillingException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        } catch (InsufficientStockException e) {
+            // Another lane or workstation sold the last units; nothing was recorded or charged
+            sendError(exchange, 409, "Not enough stock left for: " + session.describeProducts(e.getProductCodes()));
+            return;
+        }
+
+        StringBuilder json = new StringBuilder(256 + receipt.getLines().size() * 96);
+        json.append("{\"saleReference\":");
+        appendString(json, receipt.getSaleReference());
+        json.append(",\"subtotalCents\":").append(receipt.getSubtotalCents())
+                .append(",\"discountBasisPoints\":").append(receipt.getDiscountBasisPoints())
+                .append(",\"totalCents\":").append(receipt.getTotalCents())
+                .append(",\"paymentMethod\":");
+        appendString(json, receipt.getPaymentMethod().getLabel());
+        json.append(",\"paidCents\":").append(receipt.getPaidCents())
+                .append(",\"changeCents\":").append(receipt.getChangeCents())
+                .append(",\"lines\":");
+        appendLines(json, receipt.getLines());
+        json.append(",\"receipt\":");
+        appendString(json, receipt.format());
+        json.append('}');
+        send(exchange, 200, json);
+    }
+
+    private void sendScanResult(HttpExchange exchange, BillingServer.Lane lane, BillingSession.ScanResult result) throws IOException {
+        switch (result.getStatus()) {
+            case NOT_FOUND:
+                sendError(exchange, 404, "Product not found");
+                break;
+            case INSUFFICIENT_STOCK:
+                StringBuilder json = new StringBuilder(128);
+                json.append("{\"error\":");
+                appendString(json, "Not enough stock available. Only " + result.getAvailableUnits() + " units available.");
+                json.append(",\"availableUnits\":").append(result.getAvailableUnits()).append('}');
+                send(exchange, 409, json);
+                break;
+            default:
+                sendCart(exchange, 200, lane);
+        }
+    }
+
+    private void sendCart(HttpExchange exchange, int status, BillingServer.Lane lane) throws IOException {
+        Cart cart = lane.session.getCart();
+        StringBuilder json = new StringBuilder(128 + cart.getLineCount() * 96);
+        json.append("{\"lane\":");
+        appendString(json, lane.laneId);
+        json.append(",\"unitCount\":").append(cart.getUnitCount())
+                .append(",\"subtotalCents\":").append(cart.getSubtotalCents())
+                .append(",\"discountBasisPoints\":").append(cart.getDiscountBasisPoints())
+                .append(",\"totalCents\":").append(cart.getTotalCents())
+                .append(",\"lines\":");
+        appendLines(json, cart.getLines());
+        json.append('}');
+        send(exchange, status, json);
+    }
+
+    private static void appendLines(StringBuilder json, Iterable<CartLine> lines) {
+        json.append('[');
+        boolean first = true;
+        for (CartLine line : lines) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"code\":");
+            appendString(json, line.getProductCode());
+            json.append(",\"name\":");
+            appendString(json, line.getName());
+            json.append(",\"quantity\":").append(line.getQuantity())
+                    .append(",\"unitPriceCents\":").append(line.getUnitPriceCents())
+                    .append(",\"lineTotalCents\":").append(line.getLineTotalCents())
+                    .append('}');
+        }
+        json.append(']');
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder(64 + message.length());
+        json.append("{\"error\":");
+        appendString(json, message);
+        json.append('}');
+        send(exchange, status, json);
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    // Query string parameters, then form-encoded body parameters (which win)
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readAllBytes();
+            if (body.length > 0) {
+                parseForm(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue, int min, int max) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ": " + value);
+        }
+        return parsed;
+    }
+}
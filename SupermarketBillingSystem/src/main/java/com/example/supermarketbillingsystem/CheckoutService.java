@@ -0,0 +1,202 @@
+package com.example.supermarketbillingsystem;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Commits paid baskets through the sale repository: the sale, its line items, the income and revenue
+// aggregates and all stock decrements are saved as one unit (one transaction with JDBC).
+// Until then the cart only holds reservations, so scanning and editing quantities never touch stored stock.
+// The decrements are conditional; if any product has run out the whole sale is rejected.
+// Hot SKUs are taken from this workstation's local budgets first, and the cached catalog and income
+// accumulator are updated once the sale is saved.
+public final class CheckoutService {
+
+    private CheckoutService() {
+    }
+
+    // Record a paid basket and return its sale reference; blocking, safe to call from any thread.
+    // The sale goes to the local sales journal, which ships it to storage in the background, so this doesn't wait
+    // on MySQL; the cart's reservations stay in place until it is shipped.
+    // If the journal isn't open (e.g. with -Dstorage=memory) or can't be written, the sale is committed directly
+    // and its reservations are released here.
+    public static String recordPaidSale(List<CartLine> lines, long totalCents) throws SQLException {
+        long start = System.nanoTime();
+        String saleUuid = null;
+        if (SalesJournal.isOpen()) {
+            JournaledSale sale = JournaledSale.create(lines, totalCents);
+            try {
+                SalesJournal.record(sale);
+                Metrics.PAYMENT_COMMIT.recordSince(start);
+                Metrics.SALES.increment();
+                return sale.getSaleUuid();
+            } catch (IOException e) {
+                // A write that timed out may still reach the journal; under the same UUID the shipper skips it
+                saleUuid = sale.getSaleUuid();
+                Metrics.JOURNAL_FALLBACKS.increment();
+                System.err.println("Sales journal unavailable, committing directly: " + e.getMessage());
+            }
+        }
+
+        long saleId;
+        try {
+            saleId = commitSale(saleUuid, lines, totalCents);
+        } catch (InsufficientStockException e) {
+            Metrics.SALES_REJECTED.increment();
+            throw e;
+        }
+        Metrics.PAYMENT_COMMIT.recordSince(start);
+        Metrics.SALES.increment();
+        // The stock is sold now, so the reservations are no longer needed
+        for (CartLine line : lines) {
+            StockReservationService.release(line.getProductCode(), line.getQuantity());
+        }
+        return "#" + saleId;
+    }
+
+    // Record the sale and its lines and apply the cart's stock decrements; returns the new sale id
+    public static long commitSale(Collection<CartLine> cartLines, long totalCents) throws SQLException {
+        return commitSale(null, cartLines, totalCents);
+    }
+
+    // As above, stored under saleUuid (null for none) so the same sale can't also be shipped from the journal
+    static long commitSale(String saleUuid, Collection<CartLine> cartLines, long totalCents) throws SQLException {
+        Map<String, Integer> quantitiesByCode = sumQuantitiesByCode(cartLines);
+        LocalDateTime saleTime = LocalDateTime.now();
+
+        // Hot SKUs are sold from this workstation's claimed budget and never touch their products row here
+        Map<String, Integer> hotQuantities = takeHotSkuStock(quantitiesByCode);
+        boolean committed = false;
+        long saleId;
+
+        long start = System.nanoTime();
+        try {
+            saleId = Repositories.sales().saveSale(saleUuid, saleTime, totalCents, cartLines, quantitiesByCode);
+            Metrics.STOCK_WRITE.recordSince(start);
+            committed = true;
+        } catch (InsufficientStockException e) {
+            // Another workstation sold these; re-read their stock so the cashier sees what is left
+            e.getProductCodes().forEach(ProductCatalog::refresh);
+            throw e;
+        } finally {
+            if (!committed) {
+                hotQuantities.forEach(HotSkuStock::giveBack);
+            }
+        }
+
+        // Keep the cached stock in line with what was just committed
+        // (hot SKU units already left the cached stock when they were claimed)
+        quantitiesByCode.forEach((code, quantity) -> ProductCatalog.adjustQuantity(code, -quantity));
+        return saleId;
+    }
+
+    // Ship a batch of journaled sales as one unit; returns how many of them were new.
+    // Sales whose UUID is already saved (shipped before a crash) are skipped. Only the journal's single
+    // shipper writes these UUIDs, and the unique index on sales.sale_uuid backs up the check.
+    // These sales are already paid for, so they can't be rejected for lack of stock: if another lane sold the
+    // same units in the meantime (or this lane sold offline from stale stock), the product's stock is clamped
+    // at zero and the shortfall is recorded as a stock conflict.
+    static int commitJournaledSales(List<JournaledSale> sales) throws SQLException {
+        List<String> saleUuids = new ArrayList<>(sales.size());
+        for (JournaledSale sale : sales) {
+            saleUuids.add(sale.getSaleUuid());
+        }
+        Set<String> seen = new HashSet<>(Repositories.sales().findSavedSaleUuids(saleUuids));
+        List<JournaledSale> newSales = new ArrayList<>();
+        List<CartLine> soldLines = new ArrayList<>();
+        for (JournaledSale sale : sales) {
+            if (seen.add(sale.getSaleUuid())) {
+                newSales.add(sale);
+                soldLines.addAll(sale.getLines());
+            }
+        }
+        if (newSales.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Integer> quantitiesByCode = sumQuantitiesByCode(soldLines);
+        Map<String, Integer> hotQuantities = new TreeMap<>();
+        boolean committed = false;
+        List<StockConflict> conflicts;
+        long start = System.nanoTime();
+        try {
+            takeHotSkuStockIfAvailable(quantitiesByCode, hotQuantities);
+            conflicts = Repositories.sales().saveShippedSales(newSales, quantitiesByCode);
+            Metrics.STOCK_WRITE.recordSince(start);
+            committed = true;
+        } finally {
+            if (!committed) {
+                hotQuantities.forEach(HotSkuStock::giveBack);
+            }
+        }
+
+        Set<String> oversold = new HashSet<>();
+        Metrics.STOCK_CONFLICTS.add(conflicts.size());
+        for (StockConflict conflict : conflicts) {
+            System.err.println("Stock conflict: " + conflict.getProductCode() + " oversold by " + conflict.getShortfall()
+                    + " (needed " + conflict.getRequested() + ", had " + conflict.getAvailable() + "), stock set to 0");
+            oversold.add(conflict.getProductCode());
+            ProductCatalog.refresh(conflict.getProductCode());
+        }
+        quantitiesByCode.forEach((code, quantity) -> {
+            if (!oversold.contains(code)) {
+                ProductCatalog.adjustQuantity(code, -quantity);
+            }
+        });
+        return newSales.size();
+    }
+
+    // Like takeHotSkuStock, but a hot SKU whose budget can't cover the sale stays in quantitiesByCode
+    // and is decremented (and, if need be, clamped) on its products row instead
+    private static void takeHotSkuStockIfAvailable(Map<String, Integer> quantitiesByCode, Map<String, Integer> taken) throws SQLException {
+        Iterator<Map.Entry<String, Integer>> entries = quantitiesByCode.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Integer> entry = entries.next();
+            if (HotSkuStock.isHot(entry.getKey()) && HotSkuStock.take(entry.getKey(), entry.getValue())) {
+                taken.put(entry.getKey(), entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    // Move hot SKU lines out of quantitiesByCode and take them from the local budgets
+    private static Map<String, Integer> takeHotSkuStock(Map<String, Integer> quantitiesByCode) throws SQLException {
+        Map<String, Integer> taken = new TreeMap<>();
+        Iterator<Map.Entry<String, Integer>> entries = quantitiesByCode.entrySet().iterator();
+        try {
+            while (entries.hasNext()) {
+                Map.Entry<String, Integer> entry = entries.next();
+                if (!HotSkuStock.isHot(entry.getKey())) {
+                    continue;
+                }
+                if (!HotSkuStock.take(entry.getKey(), entry.getValue())) {
+                    ProductCatalog.refresh(entry.getKey());
+                    throw new InsufficientStockException(List.of(entry.getKey()));
+                }
+                taken.put(entry.getKey(), entry.getValue());
+                entries.remove();
+            }
+        } catch (SQLException e) {
+            taken.forEach(HotSkuStock::giveBack);
+            throw e;
+        }
+        return taken;
+    }
+
+    // Units of each product in the cart; sorted so concurrent checkouts lock rows in the same order
+    static Map<String, Integer> sumQuantitiesByCode(Collection<CartLine> cartLines) {
+        Map<String, Integer> quantitiesByCode = new TreeMap<>();
+        for (CartLine line : cartLines) {
+            quantitiesByCode.merge(line.getProductCode(), line.getQuantity(), Integer::sum);
+        }
+        return quantitiesByCode;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.supermarketbillingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// DatabaseUtil.connect(): the wait for a pooled connection (long ones mean the pool is exhausted)
+@Name("com.example.supermarketbillingsystem.ConnectionBorrow")
+@Label("Connection Borrow")
+@Category({"Supermarket Billing", "Database"})
+@Description("Waiting for a connection from DatabaseUtil's pool")
+final class ConnectionBorrowEvent extends Event {
+
+    @Label("Open Connections")
+    int openConnections;
+
+    @Label("Idle Connections")
+    int idleConnections;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,430 @@
+package com.example.supermarketbillingsystem;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded JDBC connection pool used behind DatabaseUtil.connect().
+// Callers get a wrapped Connection whose close() hands the physical connection back to the pool.
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReturned = lock.newCondition();
+    private final Deque<IdleConnection> idleConnections = new ArrayDeque<>();
+    private int openConnections;
+    private boolean shutdown;
+
+    private final ScheduledExecutorService evictor;
+
+    // Pool metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, int validationTimeoutSeconds) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionInterval = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+    }
+
+    // Open the minimum number of connections up front; failures are ignored so the app can still start
+    public void warmUp() {
+        List<Connection> opened = new ArrayList<>();
+        try {
+            while (opened.size() < minSize) {
+                opened.add(borrow());
+            }
+        } catch (SQLException e) {
+            System.err.println("Connection pool warm-up stopped: " + e.getMessage());
+        } finally {
+            for (Connection conn : opened) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                    // Returning to the pool does not throw
+                }
+            }
+        }
+    }
+
+    // Borrow a connection, waiting up to borrowTimeoutMillis when the pool is exhausted
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        boolean waited = false;
+
+        while (true) {
+            IdleConnection candidate = null;
+            boolean mayCreate = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("Connection pool has been shut down");
+                    }
+                    candidate = idleConnections.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (openConnections < maxSize) {
+                        openConnections++;
+                        mayCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis
+                                + " ms waiting for a database connection (max pool size " + maxSize + ")");
+                    }
+                    waited = true;
+                    try {
+                        connectionReturned.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            Connection physical;
+            if (candidate != null) {
+                // Validation on borrow: drop broken connections and try again
+                if (!isUsable(candidate.connection)) {
+                    validationFailureCount.incrementAndGet();
+                    discard(candidate.connection);
+                    continue;
+                }
+                physical = candidate.connection;
+            } else if (mayCreate) {
+                try {
+                    physical = DriverManager.getConnection(url, user, password);
+                    createdCount.incrementAndGet();
+                } catch (SQLException e) {
+                    releaseSlot();
+                    throw e;
+                }
+            } else {
+                continue;
+            }
+
+            recordBorrow(start, waited);
+            return wrap(physical);
+        }
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordBorrow(long start, boolean waited) {
+        borrowCount.incrementAndGet();
+        if (waited) {
+            long waitNanos = System.nanoTime() - start;
+            waitCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    // Hand a physical connection back after the caller closed its wrapper
+    private void release(Connection physical) {
+        boolean reusable;
+        try {
+            reusable = !physical.isClosed();
+            if (reusable && !physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        if (!reusable) {
+            discard(physical);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (shutdown) {
+                openConnections--;
+                closeQuietly(physical);
+            } else {
+                idleConnections.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            }
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(Connection physical) {
+        closeQuietly(physical);
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            openConnections--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Close connections that sat idle longer than idleTimeoutMillis, keeping at least minSize open
+    private void evictIdleConnections() {
+        List<Connection> evicted = new ArrayList<>();
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+
+        lock.lock();
+        try {
+            // Oldest idle connections sit at the tail of the deque
+            Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+            while (iterator.hasNext() && openConnections > minSize) {
+                IdleConnection idle = iterator.next();
+                if (idle.idleSince > cutoff) {
+                    break;
+                }
+                iterator.remove();
+                openConnections--;
+                evicted.add(idle.connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Connection connection : evicted) {
+            closeQuietly(connection);
+            evictedCount.incrementAndGet();
+        }
+    }
+
+    public void shutdown() {
+        List<IdleConnection> toClose;
+        lock.lock();
+        try {
+            shutdown = true;
+            toClose = new ArrayList<>(idleConnections);
+            openConnections -= idleConnections.size();
+            idleConnections.clear();
+            connectionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        for (IdleConnection idle : toClose) {
+            closeQuietly(idle.connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Connection is being thrown away anyway
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    // Metrics accessors
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getWaitCount() { return waitCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getEvictedCount() { return evictedCount.get(); }
+    public long getValidationFailureCount() { return validationFailureCount.get(); }
+    public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+    public double getAverageWaitMillis() {
+        long waits = waitCount.get();
+        return waits == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / waits;
+    }
+
+    public int getOpenCount() {
+        lock.lock();
+        try {
+            return openConnections;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idleConnections.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[open=%d, idle=%d, max=%d, borrows=%d, waits=%d, avgWait=%.2fms, maxWait=%.2fms, timeouts=%d, created=%d, evicted=%d, invalid=%d]",
+                getOpenCount(), getIdleCount(), maxSize, getBorrowCount(), getWaitCount(), getAverageWaitMillis(),
+                getMaxWaitMillis(), getTimeoutCount(), getCreatedCount(), getEvictedCount(), getValidationFailureCount());
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+
+    // Forwards calls to the physical connection; close() returns it to the pool and
+    // closes any statements the caller left open so they don't pile up on a reused connection
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private static final int MIN_PRUNE_SIZE = 16;
+
+        private final Connection physical;
+        // Statements to close when the connection is returned. Ones the caller already closed are pruned whenever
+        // the list doubles, so a connection held across many statements doesn't keep them all alive.
+        private final List<Statement> openStatements = new ArrayList<>();
+        private int pruneAt = MIN_PRUNE_SIZE;
+        private boolean closed;
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        closeStatements();
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                Statement statement = (Statement) result;
+                if (TracedStatementHandler.isTracing()) {
+                    // A flight recording wants SQL events: prepareStatement/prepareCall carry the SQL
+                    statement = TracedStatementHandler.wrap(statement, method.getReturnType(),
+                            name.startsWith("prepare") ? (String) args[0] : null);
+                }
+                openStatements.add(statement);
+                if (openStatements.size() >= pruneAt) {
+                    openStatements.removeIf(PooledConnectionHandler::isClosed);
+                    pruneAt = Math.max(MIN_PRUNE_SIZE, openStatements.size() * 2);
+                }
+                return statement;
+            }
+            return result;
+        }
+
+        private void closeStatements() {
+            for (Statement statement : openStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // Statement is already unusable
+                }
+            }
+            openStatements.clear();
+            pruneAt = MIN_PRUNE_SIZE;
+        }
+
+        private static boolean isClosed(Statement statement) {
+            try {
+                return statement.isClosed();
+            } catch (SQLException e) {
+                return false;  // Keep it; close() at return time is harmless either way
+            }
+        }
+    }
+}
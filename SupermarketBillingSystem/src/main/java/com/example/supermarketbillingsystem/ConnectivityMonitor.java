@@ -0,0 +1,122 @@
+package com.example.supermarketbillingsystem;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Tracks whether the MySQL server is reachable.
+// The first connection failure switches the application to offline mode: DatabaseUtil.connect() then fails
+// immediately instead of waiting on timeouts, lookups are served from the cached catalog, and sales stay in
+// the local sales journal. A background probe reconnects and switches back to online mode.
+public final class ConnectivityMonitor {
+
+    private static final long PROBE_INTERVAL_MS = Long.getLong("db.offline.probeIntervalMs", 5000);
+
+    private static final List<Consumer<Boolean>> listeners = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean online = true;
+    private static ScheduledExecutorService prober;
+    private static volatile ReadOnlyBooleanWrapper onlineProperty;  // Created on first use, only set on the FX thread
+
+    private ConnectivityMonitor() {
+    }
+
+    public static boolean isOnline() {
+        return online;
+    }
+
+    // Called with true when the database comes back and false when it goes away (on a background thread)
+    public static void addListener(Consumer<Boolean> listener) {
+        listeners.add(listener);
+    }
+
+    // Online state for binding UI, e.g. an offline banner (FX thread only)
+    public static ReadOnlyBooleanProperty onlineProperty() {
+        if (onlineProperty == null) {
+            onlineProperty = new ReadOnlyBooleanWrapper(online);
+        }
+        return onlineProperty.getReadOnlyProperty();
+    }
+
+    // What DatabaseUtil.connect() throws while offline
+    static SQLException offlineException() {
+        return new SQLTransientConnectionException("Database is offline", "08001");
+    }
+
+    // Inspect a failed database call; connection-level failures switch to offline mode
+    public static void reportFailure(SQLException e) {
+        if (isConnectionFailure(e)) {
+            setOnline(false);
+        }
+    }
+
+    // SQLState class 08 is "connection exception"; Connector/J's CommunicationsException is recoverable
+    static boolean isConnectionFailure(SQLException e) {
+        String sqlState = e.getSQLState();
+        return (sqlState != null && sqlState.startsWith("08")) || e instanceof SQLRecoverableException;
+    }
+
+    private static synchronized void setOnline(boolean nowOnline) {
+        if (online == nowOnline) {
+            return;
+        }
+        online = nowOnline;
+        System.out.println(nowOnline ? "Database reachable again, leaving offline mode" : "Database unreachable, switching to offline mode");
+        if (!nowOnline) {
+            startProbing();
+        }
+        if (onlineProperty != null) {
+            Platform.runLater(() -> onlineProperty.set(online));
+        }
+        for (Consumer<Boolean> listener : listeners) {
+            try {
+                listener.accept(nowOnline);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void startProbing() {
+        if (prober == null) {
+            prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "db-connectivity-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+            prober.scheduleWithFixedDelay(ConnectivityMonitor::probe, PROBE_INTERVAL_MS, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Try one connection straight from the pool (connect() itself refuses while offline)
+    private static void probe() {
+        if (online) {
+            return;
+        }
+        try (Connection conn = DatabaseUtil.getConnectionPool().borrow()) {
+            if (conn.isValid(2)) {
+                setOnline(true);
+            }
+        } catch (SQLException e) {
+            // Still offline; try again on the next run
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (prober != null) {
+            prober.shutdownNow();
+            prober = null;
+        }
+    }
+}
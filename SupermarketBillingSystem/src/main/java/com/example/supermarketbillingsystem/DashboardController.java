@@ -1,4 +1,7 @@
 package com.example.supermarketbillingsystem;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -16,10 +19,8 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 public class DashboardController {
 
@@ -28,6 +29,9 @@ public class DashboardController {
     @FXML
     private Label cashierStatusLabel;
 
+    private static final int STOCK_CONFLICT_LIMIT = 200;
+    private static final DateTimeFormatter CONFLICT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     // Add these fields to track user role
     private String currentUserRole;
     private String currentUsername;
@@ -43,6 +47,24 @@ public class DashboardController {
     private Button logoutButton;
     @FXML
     private Button roleManagementButton; // Added for role management button
+    @FXML
+    private HBox recordingBox;
+    @FXML
+    private Button recordingButton;
+    @FXML
+    private Button saveRecordingButton;
+    @FXML
+    private Label journalWarningLabel;
+
+    @FXML
+    private void initialize() {
+        // Sales in quarantined journal records never reached the database; someone has to re-enter them
+        journalWarningLabel.visibleProperty().bind(SalesJournal.quarantinedProperty().greaterThan(0));
+        journalWarningLabel.managedProperty().bind(journalWarningLabel.visibleProperty());
+        journalWarningLabel.textProperty().bind(Bindings.format(
+                "%d damaged sales journal record(s) were moved to %s. Their sales are not in the database.",
+                SalesJournal.quarantinedProperty(), SalesJournal.getQuarantineFile()));
+    }
 
     // Method to set the cashier's information (name and status)
     public void setCashierInfo(String username, String status) {
@@ -91,6 +113,16 @@ public class DashboardController {
             billingButton.setVisible(currentUserRole.equalsIgnoreCase("cashier")
                     || currentUserRole.equalsIgnoreCase("admin"));
         }
+
+        // Flight recordings are for whoever looks into a stalled lane
+        if (recordingBox != null) {
+            boolean canRecord = currentUserRole.equalsIgnoreCase("manager")
+                    || currentUserRole.equalsIgnoreCase("admin")
+                    || currentUserRole.equalsIgnoreCase("information_manager");
+            recordingBox.setVisible(canRecord);
+            recordingBox.setManaged(canRecord);
+            updateRecordingButtons();
+        }
     }
 
 
@@ -99,8 +131,8 @@ public class DashboardController {
     @FXML
     private void openBilling(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/supermarketbillingsystem/billing.fxml"));
-            Parent billingView = loader.load();
+            FXMLLoader loader = ScreenLoader.load("billing.fxml");
+            Parent billingView = loader.getRoot();
 
             BillingController billingController = loader.getController();
             billingController.setUserInfo(currentUsername, currentUserRole);
@@ -126,19 +158,13 @@ public class DashboardController {
     @FXML
     public void logout(ActionEvent event) {
         updateCashierStatusOffline(currentUsername);
+        DbExecutor.run(HotSkuStock::foldAll);  // Shift close: hand unsold hot SKU units back to the products table
         loadLoginScreen();
     }
 
-    // Update the cashier's status to 'offline' when logged out
+    // Update the cashier's status to 'offline' when logged out (off the FX thread)
     private void updateCashierStatusOffline(String username) {
-        String query = "UPDATE users SET status = 'offline' WHERE username = ?";
-        try (Connection conn = DatabaseUtil.connect()) {
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, username);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            showAlert("Database Error", "Error while updating cashier status: " + e.getMessage());
-        }
+        DbExecutor.submit(() -> Repositories.users().updateStatus(username, "offline"), error -> showAlert("Database Error", "Error while updating cashier status: " + error.getMessage()));
     }
 
     @FXML
@@ -150,8 +176,8 @@ public class DashboardController {
         }
 
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/supermarketbillingsystem/total_income.fxml"));
-            Parent totalIncomeView = loader.load();
+            FXMLLoader loader = ScreenLoader.load("total_income.fxml");
+            Parent totalIncomeView = loader.getRoot();
 
             // Pass the current role and username to TotalIncomeController
             TotalIncomeController controller = loader.getController();
@@ -172,8 +198,8 @@ public class DashboardController {
     @FXML
     private void openRoleManagement(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/supermarketbillingsystem/role_management.fxml"));
-            Parent roleManagementView = loader.load();
+            FXMLLoader loader = ScreenLoader.load("role_management.fxml");
+            Parent roleManagementView = loader.getRoot();
 
             // Get the controller
             RoleManagementController roleController = loader.getController();
@@ -223,20 +249,18 @@ public class DashboardController {
             infoLabel.setFont(Font.font("System", 14));
             infoLabel.setTextFill(Color.web("#34495e"));
 
-            // Create a scrollable table for products
-            ScrollPane scrollPane = new ScrollPane();
-            scrollPane.setFitToWidth(true);
-            scrollPane.setStyle("-fx-background-color: transparent; -fx-padding: 10;");
-
-            VBox productsContainer = new VBox(10);
-            productsContainer.setPadding(new Insets(10));
-            productsContainer.setStyle("-fx-background-color: white; -fx-background-radius: 10;");
-
-            // Load products from database
-            loadProducts(productsContainer);
+            // Virtualized product table: only visible rows get nodes, pages are fetched while scrolling
+            TableView<CatalogItem> productTable = createProductTable();
+            productTable.setPrefHeight(300);
+            PagedProductLoader productLoader = new PagedProductLoader(PagedProductLoader.DEFAULT_PAGE_SIZE, error -> {
+                Label errorLabel = new Label("Error loading products: " + error.getMessage());
+                errorLabel.setStyle("-fx-text-fill: #e74c3c;");
+                productTable.setPlaceholder(errorLabel);
+            });
+            productLoader.attach(productTable);
 
-            scrollPane.setContent(productsContainer);
-            scrollPane.setPrefViewportHeight(300);
+            // Load the first page of products from database
+            productLoader.reset();
 
             // Button container with styled buttons
             HBox buttonBox = new HBox(15);
@@ -245,21 +269,23 @@ public class DashboardController {
             Button addButton = createStyledButton("Add Product", "#2ecc71");
             Button editButton = createStyledButton("Edit Product", "#3498db");
             Button deleteButton = createStyledButton("Delete Product", "#e74c3c");
+            Button conflictsButton = createStyledButton("Stock Conflicts", "#e67e22");
             Button closeButton = createStyledButton("Close", "#95a5a6");
 
             // Button actions
-            addButton.setOnAction(e -> showAddProductForm(stage, productsContainer));
-            editButton.setOnAction(e -> showEditProductForm(stage, productsContainer));
-            deleteButton.setOnAction(e -> showDeleteProductForm(stage, productsContainer));
+            addButton.setOnAction(e -> showAddProductForm(stage, productLoader));
+            editButton.setOnAction(e -> showEditProductForm(stage, productLoader));
+            deleteButton.setOnAction(e -> showDeleteProductForm(stage, productLoader));
+            conflictsButton.setOnAction(e -> showStockConflicts(stage));
             closeButton.setOnAction(e -> stage.close());
 
-            buttonBox.getChildren().addAll(addButton, editButton, deleteButton, closeButton);
+            buttonBox.getChildren().addAll(addButton, editButton, deleteButton, conflictsButton, closeButton);
 
             // Add components to layout
-            mainLayout.getChildren().addAll(titleLabel, infoLabel, scrollPane, buttonBox);
+            mainLayout.getChildren().addAll(titleLabel, infoLabel, productTable, buttonBox);
 
             // Set up scene and stage
-            Scene scene = new Scene(mainLayout, 600, 550);
+            Scene scene = new Scene(mainLayout, 720, 550);
             stage.setScene(scene);
             stage.show();
 
@@ -268,6 +294,41 @@ public class DashboardController {
         }
     }
 
+    // Products that sales made offline (or from stale stock) oversold, newest first
+    private void showStockConflicts(Stage parentStage) {
+        Stage stage = new Stage();
+        stage.initOwner(parentStage);
+        stage.setTitle("Stock Conflicts");
+
+        TableView<StockConflict> table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPlaceholder(new Label("Loading stock conflicts..."));
+
+        TableColumn<StockConflict, String> timeColumn = new TableColumn<>("Detected");
+        timeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDetectedAt().format(CONFLICT_TIME_FORMAT)));
+        TableColumn<StockConflict, String> productColumn = new TableColumn<>("Product");
+        productColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getProductName() != null
+                ? cellData.getValue().getProductName() : cellData.getValue().getProductCode()));
+        TableColumn<StockConflict, Integer> requestedColumn = new TableColumn<>("Sold");
+        requestedColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getRequested()));
+        TableColumn<StockConflict, Integer> availableColumn = new TableColumn<>("In Stock");
+        availableColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getAvailable()));
+        TableColumn<StockConflict, Integer> shortfallColumn = new TableColumn<>("Shortfall");
+        shortfallColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getShortfall()));
+        shortfallColumn.setStyle("-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
+        table.getColumns().addAll(List.of(timeColumn, productColumn, requestedColumn, availableColumn, shortfallColumn));
+
+        DbExecutor.submit(() -> Repositories.sales().loadRecentConflicts(STOCK_CONFLICT_LIMIT), conflicts -> {
+            table.setPlaceholder(new Label("No stock conflicts."));
+            table.getItems().setAll(conflicts);
+        }, error -> table.setPlaceholder(new Label("Error loading stock conflicts: " + error.getMessage())));
+
+        VBox layout = new VBox(10, new Label("Sales kept although the products table had run out; stock was set to 0."), table);
+        layout.setPadding(new Insets(15));
+        stage.setScene(new Scene(layout, 620, 400));
+        stage.show();
+    }
+
     // Helper method to create styled buttons
     private Button createStyledButton(String text, String color) {
         Button button = new Button(text);
@@ -294,10 +355,44 @@ public class DashboardController {
         return button;
     }
 
+    // Start or stop the flight recording (it keeps running across screens until stopped or the application exits)
+    @FXML
+    private void toggleRecording(ActionEvent event) {
+        if (FlightRecordings.isRecording()) {
+            FlightRecordings.stop();
+        } else {
+            try {
+                FlightRecordings.start();
+            } catch (Exception e) {
+                showAlert("Error", "Could not start the flight recording: " + e.getMessage());
+            }
+        }
+        updateRecordingButtons();
+    }
+
+    // Save the recorded minutes to a file, e.g. right after a lane stalled
+    @FXML
+    private void saveRecording(ActionEvent event) {
+        saveRecordingButton.setDisable(true);
+        DbExecutor.submit(FlightRecordings::dump, file -> {
+            updateRecordingButtons();
+            showAlert("Flight Recording", "Recording saved to " + file);
+        }, error -> {
+            updateRecordingButtons();
+            showAlert("Error", "Could not save the flight recording: " + error.getMessage());
+        });
+    }
+
+    private void updateRecordingButtons() {
+        boolean recording = FlightRecordings.isRecording();
+        recordingButton.setText(recording ? "Stop Recording" : "Start Recording");
+        saveRecordingButton.setDisable(!recording);
+    }
+
     // Navigate back to login screen
     private void loadLoginScreen() {
         try {
-            Parent loginView = FXMLLoader.load(getClass().getResource("login.fxml"));
+            Parent loginView = ScreenLoader.loadView("login.fxml");
             Scene loginScene = new Scene(loginView);
             Stage window = (Stage) cashierNameLabel.getScene().getWindow();
             window.setScene(loginScene);
@@ -323,84 +418,48 @@ public class DashboardController {
         alert.showAndWait();
     }
 
-    // Load products from database and display them with beautiful cards
-    private void loadProducts(VBox productsContainer) {
-        productsContainer.getChildren().clear();
-
-        // Add header
-        HBox headerBox = new HBox();
-        headerBox.setPadding(new Insets(5, 10, 10, 10));
-        headerBox.setSpacing(20);
-        headerBox.setStyle("-fx-background-color: #3498db; -fx-background-radius: 5;");
-
-        Label nameHeader = new Label("Product Name");
-        nameHeader.setStyle("-fx-font-weight: bold; -fx-text-fill: white; -fx-min-width: 150;");
-
-        Label priceHeader = new Label("Price");
-        priceHeader.setStyle("-fx-font-weight: bold; -fx-text-fill: white; -fx-min-width: 80;");
-
-        Label quantityHeader = new Label("Qty");
-        quantityHeader.setStyle("-fx-font-weight: bold; -fx-text-fill: white; -fx-min-width: 50;");
-
-        Label codeHeader = new Label("Code");
-        codeHeader.setStyle("-fx-font-weight: bold; -fx-text-fill: white; -fx-min-width: 80;");
-
-        headerBox.getChildren().addAll(nameHeader, priceHeader, quantityHeader, codeHeader);
-        productsContainer.getChildren().add(headerBox);
-
-        try (Connection conn = DatabaseUtil.connect()) {
-            String query = "SELECT id, name, price, quantity, product_code FROM products";
-            PreparedStatement statement = conn.prepareStatement(query);
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-                int id = resultSet.getInt("id");
-                String name = resultSet.getString("name");
-                double price = resultSet.getDouble("price");
-                int quantity = resultSet.getInt("quantity");
-                String productCode = resultSet.getString("product_code");
-
-                // Create a product card
-                HBox productCard = new HBox();
-                productCard.setPadding(new Insets(10));
-                productCard.setSpacing(20);
-                productCard.setAlignment(Pos.CENTER_LEFT);
-                productCard.setStyle("-fx-background-color: #f8f9fa; -fx-background-radius: 5; -fx-border-color: #e9ecef; -fx-border-radius: 5;");
-
-                // Add hover effect
-                productCard.setOnMouseEntered(e -> productCard.setStyle("-fx-background-color: #e3f2fd; -fx-background-radius: 5; -fx-border-color: #bbdefb; -fx-border-radius: 5;"));
-                productCard.setOnMouseExited(e -> productCard.setStyle("-fx-background-color: #f8f9fa; -fx-background-radius: 5; -fx-border-color: #e9ecef; -fx-border-radius: 5;"));
-
-                Label nameLabel = new Label(name);
-                nameLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #2c3e50; -fx-min-width: 150;");
-
-                Label priceLabel = new Label("$" + String.format("%.2f", price));
-                priceLabel.setStyle("-fx-text-fill: #27ae60; -fx-min-width: 80;");
-
-                Label quantityLabel = new Label(String.valueOf(quantity));
-                // Color code based on quantity
-                if (quantity < 10) {
-                    quantityLabel.setStyle("-fx-text-fill: #e74c3c; -fx-font-weight: bold; -fx-min-width: 50;");
+    // Build the product table; rows come from a PagedProductLoader
+    private TableView<CatalogItem> createProductTable() {
+        TableView<CatalogItem> table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setStyle("-fx-background-color: white; -fx-background-radius: 10;");
+        table.setPlaceholder(new Label("Loading products..."));
+
+        TableColumn<CatalogItem, String> nameColumn = new TableColumn<>("Product Name");
+        nameColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getName()));
+        nameColumn.setStyle("-fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+
+        TableColumn<CatalogItem, String> priceColumn = new TableColumn<>("Price");
+        priceColumn.setCellValueFactory(cellData -> new SimpleStringProperty(Money.formatWithSymbol(cellData.getValue().getPriceCents())));
+        priceColumn.setStyle("-fx-text-fill: #27ae60;");
+
+        TableColumn<CatalogItem, Integer> quantityColumn = new TableColumn<>("Qty");
+        quantityColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getQuantity()));
+        quantityColumn.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Integer quantity, boolean empty) {
+                super.updateItem(quantity, empty);
+                if (empty || quantity == null) {
+                    setText(null);
+                    setStyle("");
                 } else {
-                    quantityLabel.setStyle("-fx-text-fill: #2c3e50; -fx-min-width: 50;");
+                    setText(String.valueOf(quantity));
+                    // Color code based on quantity
+                    setStyle(quantity < 10 ? "-fx-text-fill: #e74c3c; -fx-font-weight: bold;" : "-fx-text-fill: #2c3e50;");
                 }
-
-                Label codeLabel = new Label(productCode);
-                codeLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-min-width: 80;");
-
-                productCard.getChildren().addAll(nameLabel, priceLabel, quantityLabel, codeLabel);
-                productsContainer.getChildren().add(productCard);
             }
+        });
 
-        } catch (SQLException e) {
-            Label errorLabel = new Label("Error loading products: " + e.getMessage());
-            errorLabel.setStyle("-fx-text-fill: #e74c3c;");
-            productsContainer.getChildren().add(errorLabel);
-        }
+        TableColumn<CatalogItem, String> codeColumn = new TableColumn<>("Code");
+        codeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getProductCode()));
+        codeColumn.setStyle("-fx-text-fill: #7f8c8d;");
+
+        table.getColumns().addAll(List.of(nameColumn, priceColumn, quantityColumn, codeColumn));
+        return table;
     }
 
     // Show form to add a new product with all fields
-    private void showAddProductForm(Stage parentStage, VBox productsContainer) {
+    private void showAddProductForm(Stage parentStage, PagedProductLoader productLoader) {
         try {
             Stage formStage = new Stage();
             formStage.setTitle("Add New Product");
@@ -435,33 +494,31 @@ public class DashboardController {
                     String category = categoryField.getText().trim();
                     String code = codeField.getText().trim();
                     int quantity = Integer.parseInt(quantityField.getText().trim());
-                    double price = Double.parseDouble(priceField.getText().trim());
+                    long priceCents = Money.parse(priceField.getText());
 
                     if (name.isEmpty() || category.isEmpty() || code.isEmpty()) {
                         showAlert("Validation Error", "Please fill all required fields");
                         return;
                     }
 
-                    // Insert into database
-                    String insertQuery = "INSERT INTO products (name, category, price, quantity, product_code) VALUES (?, ?, ?, ?, ?)";
-                    try (Connection conn = DatabaseUtil.connect()) {
-                        PreparedStatement insertStmt = conn.prepareStatement(insertQuery);
-                        insertStmt.setString(1, name);
-                        insertStmt.setString(2, category);
-                        insertStmt.setDouble(3, price);
-                        insertStmt.setInt(4, quantity);
-                        insertStmt.setString(5, code);
-                        insertStmt.executeUpdate();
-                    }
-
-                    showAlert("Success", "Product added successfully!");
-                    loadProducts(productsContainer); // Refresh the product list
-                    formStage.close();
+                    // Insert into database (off the FX thread; Save stays disabled until it is done)
+                    CatalogItem product = new CatalogItem(code, name, category, quantity, priceCents);
+                    saveButton.setDisable(true);
+                    DbExecutor.submit(() -> {
+                        Repositories.products().insert(product);
+                        ProductCatalog.put(product);
+                        return null;
+                    }, result -> {
+                        showAlert("Success", "Product added successfully!");
+                        productLoader.upsert(product); // Patch the new row into the list
+                        formStage.close();
+                    }, error -> {
+                        saveButton.setDisable(false);
+                        showAlert("Database Error", "Failed to add product: " + error.getMessage());
+                    });
 
                 } catch (NumberFormatException e1) {
                     showAlert("Input Error", "Please enter valid numbers for price and quantity");
-                } catch (SQLException e1) {
-                    showAlert("Database Error", "Failed to add product: " + e1.getMessage());
                 }
             });
 
@@ -493,7 +550,7 @@ public class DashboardController {
     }
 
     // Show form to edit an existing product
-    private void showEditProductForm(Stage parentStage, VBox productsContainer) {
+    private void showEditProductForm(Stage parentStage, PagedProductLoader productLoader) {
         try {
             Stage formStage = new Stage();
             formStage.setTitle("Edit Product");
@@ -528,38 +585,31 @@ public class DashboardController {
                     String name = nameField.getText().trim();
                     String category = categoryField.getText().trim();
                     int quantity = Integer.parseInt(quantityField.getText().trim());
-                    double price = Double.parseDouble(priceField.getText().trim());
+                    long priceCents = Money.parse(priceField.getText());
 
                     if (code.isEmpty() || name.isEmpty() || category.isEmpty()) {
                         showAlert("Validation Error", "Please fill all required fields");
                         return;
                     }
 
-                    // Update in database
-                    String updateQuery = "UPDATE products SET name=?, category=?, price=?, quantity=? WHERE product_code=?";
-                    try (Connection conn = DatabaseUtil.connect()) {
-                        PreparedStatement updateStmt = conn.prepareStatement(updateQuery);
-                        updateStmt.setString(1, name);
-                        updateStmt.setString(2, category);
-                        updateStmt.setDouble(3, price);
-                        updateStmt.setInt(4, quantity);
-                        updateStmt.setString(5, code);
-                        int rowsAffected = updateStmt.executeUpdate();
-
-                        if (rowsAffected > 0) {
+                    // Update in database (off the FX thread; Save stays disabled until it is done)
+                    CatalogItem product = new CatalogItem(code, name, category, quantity, priceCents);
+                    saveButton.setDisable(true);
+                    DbExecutor.submit(() -> ProductCatalog.update(product), stored -> {
+                        if (stored != null) {
                             showAlert("Success", "Product updated successfully!");
-                            loadProducts(productsContainer);
+                            productLoader.upsert(stored);
                         } else {
                             showAlert("Error", "No product found with the given code");
                         }
-                    }
-
-                    formStage.close();
+                        formStage.close();
+                    }, error -> {
+                        saveButton.setDisable(false);
+                        showAlert("Database Error", "Failed to update product: " + error.getMessage());
+                    });
 
                 } catch (NumberFormatException e1) {
                     showAlert("Input Error", "Please enter valid numbers for price and quantity");
-                } catch (SQLException e1) {
-                    showAlert("Database Error", "Failed to update product: " + e1.getMessage());
                 }
             });
 
@@ -582,7 +632,7 @@ public class DashboardController {
     }
 
     // Show form to delete an existing product
-    private void showDeleteProductForm(Stage parentStage, VBox productsContainer) {
+    private void showDeleteProductForm(Stage parentStage, PagedProductLoader productLoader) {
         try {
             Stage formStage = new Stage();
             formStage.setTitle("Delete Product");
@@ -610,47 +660,47 @@ public class DashboardController {
 
             // Button actions
             deleteButton.setOnAction(e -> {
-                try {
-                    String code = codeField.getText().trim();
+                String code = codeField.getText().trim();
 
-                    if (code.isEmpty()) {
-                        showAlert("Validation Error", "Please enter a product code");
-                        return;
-                    }
+                if (code.isEmpty()) {
+                    showAlert("Validation Error", "Please enter a product code");
+                    return;
+                }
 
-                    // Confirm deletion
-                    Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-                    confirmAlert.setTitle("Confirm Delete");
-                    confirmAlert.setHeaderText("Are you sure you want to delete this product?");
-                    confirmAlert.setContentText("This action cannot be undone.");
-
-                    // Style the confirmation dialog
-                    DialogPane dialogPane = confirmAlert.getDialogPane();
-                    dialogPane.setStyle("-fx-background-color: #f5f5f5;");
-                    dialogPane.lookup(".content.label").setStyle("-fx-font-size: 14px; -fx-text-fill: #2c3e50;");
-
-                    if (confirmAlert.showAndWait().get() == ButtonType.OK) {
-                        // Delete from database
-                        String deleteQuery = "DELETE FROM products WHERE product_code=?";
-                        try (Connection conn = DatabaseUtil.connect()) {
-                            PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery);
-                            deleteStmt.setString(1, code);
-                            int rowsAffected = deleteStmt.executeUpdate();
-
-                            if (rowsAffected > 0) {
-                                showAlert("Success", "Product deleted successfully!");
-                                loadProducts(productsContainer);
-                            } else {
-                                showAlert("Error", "No product found with the given code");
-                            }
-                        }
-                    }
+                // Confirm deletion
+                Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+                confirmAlert.setTitle("Confirm Delete");
+                confirmAlert.setHeaderText("Are you sure you want to delete this product?");
+                confirmAlert.setContentText("This action cannot be undone.");
 
-                    formStage.close();
+                // Style the confirmation dialog
+                DialogPane dialogPane = confirmAlert.getDialogPane();
+                dialogPane.setStyle("-fx-background-color: #f5f5f5;");
+                dialogPane.lookup(".content.label").setStyle("-fx-font-size: 14px; -fx-text-fill: #2c3e50;");
 
-                } catch (SQLException e1) {
-                    showAlert("Database Error", "Failed to delete product: " + e1.getMessage());
+                if (confirmAlert.showAndWait().get() != ButtonType.OK) {
+                    formStage.close();
+                    return;
                 }
+
+                // Delete from database (off the FX thread; Delete stays disabled until it is done)
+                deleteButton.setDisable(true);
+                DbExecutor.submit(() -> {
+                    boolean deleted = Repositories.products().delete(code);
+                    ProductCatalog.invalidate(code);
+                    return deleted;
+                }, deleted -> {
+                    if (deleted) {
+                        showAlert("Success", "Product deleted successfully!");
+                        productLoader.remove(code);
+                    } else {
+                        showAlert("Error", "No product found with the given code");
+                    }
+                    formStage.close();
+                }, error -> {
+                    deleteButton.setDisable(false);
+                    showAlert("Database Error", "Failed to delete product: " + error.getMessage());
+                });
             });
 
             cancelButton.setOnAction(e -> formStage.close());
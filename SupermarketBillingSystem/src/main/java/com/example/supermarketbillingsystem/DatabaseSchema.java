@@ -0,0 +1,157 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Creates the supporting tables the application maintains itself (see project.sql for the full schema)
+public final class DatabaseSchema {
+
+    // Number of rows the running income total is spread over, so lanes don't all lock one row
+    public static final int SALES_TOTALS_SLOTS = 16;
+
+    // Rows each revenue rollup bucket is spread over, for the same reason
+    public static final int SALES_ROLLUPS_SLOTS = 16;
+
+    private static volatile boolean created;
+
+    private DatabaseSchema() {
+    }
+
+    // Idempotent; cheap after the first successful call
+    public static void ensureCreated() throws SQLException {
+        if (created) {
+            return;
+        }
+        synchronized (DatabaseSchema.class) {
+            if (created) {
+                return;
+            }
+            try (Connection conn = DatabaseUtil.connect(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS sales_totals ("
+                        + "slot TINYINT PRIMARY KEY, "
+                        + "total_amount DECIMAL(15, 2) NOT NULL, "
+                        + "sale_count BIGINT NOT NULL)");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS sales_rollups ("
+                        + "granularity VARCHAR(5) NOT NULL, "
+                        + "bucket_start DATETIME NOT NULL, "
+                        + "slot TINYINT NOT NULL DEFAULT 0, "
+                        + "sale_count BIGINT NOT NULL, "
+                        + "total_amount DECIMAL(15, 2) NOT NULL, "
+                        + "min_amount DECIMAL(12, 2) NOT NULL, "
+                        + "max_amount DECIMAL(12, 2) NOT NULL, "
+                        + "PRIMARY KEY (granularity, bucket_start, slot))");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS sale_items ("
+                        + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "sale_id BIGINT NOT NULL, "
+                        + "product_code VARCHAR(64) NOT NULL, "
+                        + "product_name VARCHAR(255) NOT NULL, "
+                        + "quantity INT NOT NULL, "
+                        + "unit_price DECIMAL(10, 2) NOT NULL, "
+                        + "line_total DECIMAL(12, 2) NOT NULL, "
+                        + "INDEX idx_sale_items_sale (sale_id), "
+                        + "INDEX idx_sale_items_product (product_code))");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS stock_conflicts ("
+                        + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "product_code VARCHAR(64) NOT NULL, "
+                        + "product_name VARCHAR(255), "
+                        + "requested INT NOT NULL, "
+                        + "available INT NOT NULL, "
+                        + "shortfall INT NOT NULL, "
+                        + "detected_at DATETIME NOT NULL, "
+                        + "INDEX idx_stock_conflicts_detected (detected_at))");
+                ensureProductCodeIndex(stmt);
+                ensureSaleUuidColumn(stmt);
+                ensureRollupSlotColumn(stmt);
+                seedSalesTotals(conn, stmt);
+                if (isEmpty(stmt, "sales_rollups")) {
+                    SalesRollups.backfill();
+                }
+            }
+            created = true;
+        }
+    }
+
+    private static boolean isEmpty(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+            rs.next();
+            return !rs.getBoolean(1);
+        }
+    }
+
+    // Product lookups and keyset paging both seek on product_code, and stock decrements expect it to name one row
+    // (a duplicate code would have both rows decremented for one sale). Replaces the earlier non-unique index;
+    // fails, changing nothing, while duplicate codes are still in the table.
+    private static void ensureProductCodeIndex(Statement stmt) throws SQLException {
+        boolean oldIndex = false;
+        try (ResultSet rs = stmt.executeQuery("SELECT index_name, non_unique FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'products' "
+                + "AND column_name = 'product_code' AND seq_in_index = 1")) {
+            while (rs.next()) {
+                if (rs.getInt("non_unique") == 0) {
+                    return;
+                }
+                oldIndex |= rs.getString("index_name").equalsIgnoreCase("idx_products_product_code");
+            }
+        }
+        StringBuilder duplicates = new StringBuilder();
+        try (ResultSet rs = stmt.executeQuery("SELECT product_code, COUNT(*) FROM products "
+                + "WHERE product_code IS NOT NULL GROUP BY product_code HAVING COUNT(*) > 1 LIMIT 10")) {
+            while (rs.next()) {
+                duplicates.append(duplicates.length() == 0 ? "" : ", ")
+                        .append(rs.getString(1)).append(" (").append(rs.getInt(2)).append(" rows)");
+            }
+        }
+        if (duplicates.length() > 0) {
+            throw new SQLException("products.product_code must be unique; give these products distinct codes: " + duplicates);
+        }
+        stmt.executeUpdate("ALTER TABLE products " + (oldIndex ? "DROP INDEX idx_products_product_code, " : "")
+                + "ADD UNIQUE INDEX uq_products_product_code (product_code)");
+    }
+
+    // Sales shipped from the local sales journal carry their UUID, so shipping one twice is detected
+    private static void ensureSaleUuidColumn(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'sales' AND column_name = 'sale_uuid')")) {
+            rs.next();
+            if (rs.getBoolean(1)) {
+                return;
+            }
+        }
+        stmt.executeUpdate("ALTER TABLE sales ADD COLUMN sale_uuid CHAR(36) NULL, "
+                + "ADD UNIQUE INDEX uq_sales_uuid (sale_uuid)");
+    }
+
+    // Rollup tables created before buckets had slots keep their rows, which become slot 0
+    private static void ensureRollupSlotColumn(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'sales_rollups' AND column_name = 'slot')")) {
+            rs.next();
+            if (rs.getBoolean(1)) {
+                return;
+            }
+        }
+        stmt.executeUpdate("ALTER TABLE sales_rollups ADD COLUMN slot TINYINT NOT NULL DEFAULT 0 AFTER bucket_start, "
+                + "DROP PRIMARY KEY, ADD PRIMARY KEY (granularity, bucket_start, slot)");
+    }
+
+    // The first time the running totals table is used, fold the existing sales history into slot 0
+    private static void seedSalesTotals(Connection conn, Statement stmt) throws SQLException {
+        if (!isEmpty(stmt, "sales_totals")) {
+            return;
+        }
+
+        conn.setAutoCommit(false);
+        try {
+            stmt.executeUpdate("INSERT IGNORE INTO sales_totals (slot, total_amount, sale_count) "
+                    + "SELECT 0, COALESCE(SUM(total_amount), 0), COUNT(*) FROM sales");
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
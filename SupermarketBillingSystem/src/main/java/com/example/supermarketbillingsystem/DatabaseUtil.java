@@ -5,35 +5,71 @@ import java.sql.*;
 public class DatabaseUtil {
 
     // Database connection URL, username, and password
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/supermarket_db";
+    // rewriteBatchedStatements lets JDBC batches go to the server in one round trip
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/supermarket_db?rewriteBatchedStatements=true";
     private static final String USER = "root";
     private static final String PASS = "123456";  // Replace with your actual password
 
-    // Connect to the database
+    // Connection pool settings, overridable with -Ddb.pool.* system properties
+    private static final int POOL_MIN_SIZE = Integer.getInteger("db.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("db.pool.maxSize", 10);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("db.pool.borrowTimeoutMs", 5000);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("db.pool.idleTimeoutMs", 300_000);
+    private static final int POOL_VALIDATION_TIMEOUT_SEC = Integer.getInteger("db.pool.validationTimeoutSec", 2);
+
+    private static volatile ConnectionPool pool;
+
+    // Connect to the database (borrows a pooled connection; close() returns it to the pool).
+    // Fails immediately while ConnectivityMonitor has the application in offline mode.
     public static Connection connect() throws SQLException {
-        return DriverManager.getConnection(DB_URL, USER, PASS);
+        if (!ConnectivityMonitor.isOnline()) {
+            throw ConnectivityMonitor.offlineException();
+        }
+        ConnectionBorrowEvent event = new ConnectionBorrowEvent();
+        event.begin();
+        ConnectionPool connectionPool = getConnectionPool();
+        try {
+            return connectionPool.borrow();
+        } catch (SQLException e) {
+            event.error = e.getMessage();
+            ConnectivityMonitor.reportFailure(e);
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.openConnections = connectionPool.getOpenCount();
+                event.idleConnections = connectionPool.getIdleCount();
+                event.commit();
+            }
+        }
     }
 
-    // Get product by product code from the database
-    public static Product getProductByCode(String productCode) {
-        Product product = null;
-        String query = "SELECT * FROM products WHERE product_code = ?";
-        try (Connection conn = connect()) {
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, productCode);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                String name = rs.getString("name");
-                String category = rs.getString("category");
-                double price = rs.getDouble("price");
-                int quantity = rs.getInt("quantity");  // Ensure this is getting the correct value
-                product = new Product(name, category, productCode, quantity, price);
+    // Lazily create the shared connection pool
+    public static ConnectionPool getConnectionPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseUtil.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(DB_URL, USER, PASS, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                            POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_VALIDATION_TIMEOUT_SEC);
+                    pool = current;
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        return product;
+        return current;
     }
 
+    // Close all pooled connections (called when the application exits)
+    public static void shutdown() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    // Get product by product code (served from the in-memory catalog)
+    public static CatalogItem getProductByCode(String productCode) {
+        return ProductCatalog.get(productCode);
+    }
 }
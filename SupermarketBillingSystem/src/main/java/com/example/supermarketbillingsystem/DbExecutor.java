@@ -0,0 +1,88 @@
+package com.example.supermarketbillingsystem;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Runs JDBC work off the JavaFX application thread.
+// Results are handed back to the FX thread with Platform.runLater so controllers can update the UI directly.
+public final class DbExecutor {
+
+    // One worker per pooled connection; more threads would only queue up on the pool
+    private static final int WORKER_COUNT = Integer.getInteger("db.pool.maxSize", 10);
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+        Thread thread = new Thread(runnable, "db-worker-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Database work that returns nothing
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private DbExecutor() {
+    }
+
+    // Run a query on a worker thread
+    public static <T> CompletableFuture<T> supply(Callable<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return query.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    // Run an update on a worker thread
+    public static CompletableFuture<Void> run(Task task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // Run a query on a worker thread and deliver the outcome on the FX thread
+    public static <T> CompletableFuture<T> submit(Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        CompletableFuture<T> future = supply(query);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(unwrap(error));
+            }
+        }));
+        return future;
+    }
+
+    // Run an update on a worker thread and report a failure on the FX thread
+    public static CompletableFuture<Void> submit(Task task, Consumer<Throwable> onFailure) {
+        return submit(() -> {
+            task.run();
+            return null;
+        }, result -> { }, onFailure);
+    }
+
+    // Strip the CompletionException wrapper added by CompletableFuture
+    public static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    public static void shutdown() {
+        executor.shutdown();
+    }
+}
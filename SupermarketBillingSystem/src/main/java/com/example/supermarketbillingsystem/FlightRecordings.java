@@ -0,0 +1,78 @@
+package com.example.supermarketbillingsystem;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Flight recording started from the dashboard: the JDK's low-overhead "default" settings plus the billing
+// events (AddToCart, Payment, Checkout, Sql, ConnectionBorrow, SceneLoad). It keeps the last
+// -Djfr.maxAgeMinutes (30) minutes on disk, and each dump writes them to -Djfr.dir
+// (~/.supermarket-billing/recordings) for JDK Mission Control or `jfr print`.
+public final class FlightRecordings {
+
+    private static final Path RECORDINGS_DIR = Paths.get(System.getProperty("jfr.dir",
+            Paths.get(System.getProperty("user.home"), ".supermarket-billing", "recordings").toString()));
+    private static final long MAX_AGE_MINUTES = Long.getLong("jfr.maxAgeMinutes", 30);
+    private static final long SQL_THRESHOLD_MS = Long.getLong("jfr.sqlThresholdMs", 0);
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording recording;
+
+    private FlightRecordings() {
+    }
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    public static synchronized void start() throws IOException, ParseException {
+        if (recording != null) {
+            return;
+        }
+        Recording created = new Recording(Configuration.getConfiguration("default"));
+        created.setName("supermarket-billing");
+        created.setToDisk(true);
+        created.setMaxAge(Duration.ofMinutes(MAX_AGE_MINUTES));
+        created.enable(AddToCartEvent.class);
+        created.enable(PaymentEvent.class);
+        created.enable(CheckoutEvent.class);
+        created.enable(SceneLoadEvent.class);
+        created.enable(ConnectionBorrowEvent.class).withStackTrace();
+        created.enable(SqlEvent.class).withStackTrace().withThreshold(Duration.ofMillis(SQL_THRESHOLD_MS));
+        created.start();
+        recording = created;
+        System.out.println("Flight recording started, keeping the last " + MAX_AGE_MINUTES + " minutes");
+    }
+
+    // Write what has been recorded so far to a new file; the recording keeps running
+    public static Path dump() throws IOException {
+        Recording current;
+        synchronized (FlightRecordings.class) {
+            current = recording;
+        }
+        if (current == null) {
+            throw new IllegalStateException("No flight recording is running");
+        }
+        Files.createDirectories(RECORDINGS_DIR);
+        Path file = RECORDINGS_DIR.resolve("checkout-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".jfr");
+        current.dump(file);
+        System.out.println("Flight recording saved to " + file);
+        return file;
+    }
+
+    public static synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            System.out.println("Flight recording stopped");
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.supermarketbillingsystem;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -10,11 +9,66 @@ import java.io.IOException;
 public class HelloApplication extends Application {
     @Override
     public void start(Stage primaryStage) throws IOException {
-        Parent root = FXMLLoader.load(getClass().getResource("login.fxml"));
+        Parent root = ScreenLoader.loadView("login.fxml");
         Scene scene = new Scene(root, 520, 400);
         primaryStage.setTitle("Supermarket Billing System");
         primaryStage.setScene(scene);
         primaryStage.show();
+        MetricsEndpoint.start();
+
+        // With -Dstorage=memory there is no database to warm up, journal to or fall back from
+        if (!Repositories.usesDatabase()) {
+            DbExecutor.run(ProductCatalog::loadAll);
+            return;
+        }
+
+        // Paid sales go to the local journal first; unshipped sales from the last run are replayed from it
+        try {
+            SalesJournal.open();
+        } catch (IOException e) {
+            System.err.println("Could not open the sales journal, sales will be committed directly: " + e.getMessage());
+        }
+
+        // When the database comes back after an outage, ship the sales made meanwhile and reload the catalog
+        ConnectivityMonitor.addListener(online -> {
+            if (online) {
+                SalesJournal.shipSoon();
+                DbExecutor.run(() -> {
+                    DatabaseSchema.ensureCreated();
+                    ProductCatalog.loadAll();
+                }).exceptionally(error -> {
+                    System.err.println("Could not reload product catalog: " + DbExecutor.unwrap(error).getMessage());
+                    return null;
+                });
+            }
+        });
+
+        // Open the minimum pool connections and load the product catalog in the background
+        // so the first login and the first scan don't pay for them.
+        // Without a database, start from the catalog snapshot saved by the last run.
+        DbExecutor.run(() -> {
+            DatabaseUtil.getConnectionPool().warmUp();
+            DatabaseSchema.ensureCreated();
+            ProductCatalog.loadAll();
+        }).exceptionally(error -> {
+            System.err.println("Could not preload product catalog: " + DbExecutor.unwrap(error).getMessage());
+            if (!ProductCatalog.isLoaded() && ProductCatalog.loadFromSnapshot()) {
+                System.out.println("Selling from the local catalog snapshot until the database is reachable");
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void stop() {
+        SalesJournal.shutdown();  // Ship what it can; the rest is replayed on the next start
+        HotSkuStock.shutdown();  // Fold unsold hot SKU units back while connections are still open
+        ProductCatalog.saveSnapshot();
+        ConnectivityMonitor.shutdown();
+        DbExecutor.shutdown();
+        DatabaseUtil.shutdown();
+        MetricsEndpoint.stop();
+        FlightRecordings.stop();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,217 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local stock budgets for promotion products that every lane sells at once (-Dstock.hotSkus=CODE1,CODE2).
+// Instead of decrementing the same products row on every sale, this workstation claims a block of units
+// ("allotment") from products.quantity with one conditional UPDATE, then sells from striped in-memory counters.
+// Units leave the products row before they are sold, so stock can never go below zero across lanes.
+// Unsold units are folded back into products.quantity periodically and at logout / shutdown.
+public final class HotSkuStock {
+
+    private static final int ALLOTMENT = Integer.getInteger("stock.hotSku.allotment", 200);
+    private static final long FOLD_INTERVAL_SECONDS = Long.getLong("stock.hotSku.foldIntervalSec", 30);
+    private static final int STRIPES = stripeCount();
+
+    // Keyed by ProductCatalog.key(code), so "p001" in -Dstock.hotSkus or a scan finds the budget of P001
+    private static final Map<String, Budget> budgetsByCode = parseHotSkus(System.getProperty("stock.hotSkus", ""));
+
+    private static final ScheduledExecutorService folder = budgetsByCode.isEmpty() ? null : startFolder();
+
+    private HotSkuStock() {
+    }
+
+    private static int stripeCount() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() * 2 && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    private static Map<String, Budget> parseHotSkus(String codes) {
+        Map<String, Budget> budgets = new HashMap<>();
+        for (String code : codes.split(",")) {
+            if (!code.trim().isEmpty()) {
+                budgets.put(ProductCatalog.key(code), new Budget(code.trim()));
+            }
+        }
+        return Collections.unmodifiableMap(budgets);
+    }
+
+    private static ScheduledExecutorService startFolder() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-sku-folder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(HotSkuStock::foldIdleBudgets, FOLD_INTERVAL_SECONDS, FOLD_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        return executor;
+    }
+
+    public static boolean isHot(String productCode) {
+        return budgetsByCode.containsKey(ProductCatalog.key(productCode));
+    }
+
+    // Units this workstation has claimed but not sold yet (not included in products.quantity)
+    public static int getLocalUnits(String productCode) {
+        Budget budget = budgetsByCode.get(ProductCatalog.key(productCode));
+        return budget != null ? budget.sum() : 0;
+    }
+
+    // Take units for a sale, claiming more from the products table when the local budget runs out.
+    // Returns false, taking nothing, when the products table can't cover the shortfall either.
+    public static boolean take(String productCode, int units) throws SQLException {
+        Budget budget = budgetsByCode.get(ProductCatalog.key(productCode));
+        if (budget == null) {
+            throw new IllegalArgumentException("Not a hot SKU: " + productCode);
+        }
+        return budget.take(units);
+    }
+
+    // Put units back after the sale that took them was rolled back
+    public static void giveBack(String productCode, int units) {
+        Budget budget = budgetsByCode.get(ProductCatalog.key(productCode));
+        if (budget != null) {
+            budget.add(units);
+        }
+    }
+
+    // Return every unsold unit to the products table (logout / shift close / application exit)
+    public static void foldAll() {
+        for (Budget budget : budgetsByCode.values()) {
+            budget.fold(0);
+        }
+    }
+
+    public static void shutdown() {
+        if (folder != null) {
+            folder.shutdownNow();
+            foldAll();
+        }
+    }
+
+    // Periodic fold: return everything for products that didn't sell since the last run, and trim the rest
+    // back to one allotment so other lanes and the stock screens aren't starved
+    private static void foldIdleBudgets() {
+        for (Budget budget : budgetsByCode.values()) {
+            boolean idle = budget.takeCount.getAndSet(0) == 0;
+            budget.fold(idle ? 0 : ALLOTMENT);
+        }
+    }
+
+    // Local units of one product, spread over stripes so concurrent lanes rarely touch the same counter
+    private static final class Budget {
+        private final String productCode;
+        private final AtomicIntegerArray stripes = new AtomicIntegerArray(STRIPES);
+        private final AtomicLong takeCount = new AtomicLong();
+
+        private Budget(String productCode) {
+            this.productCode = productCode;
+        }
+
+        int sum() {
+            int total = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                total += stripes.get(i);
+            }
+            return total;
+        }
+
+        void add(int units) {
+            stripes.addAndGet(homeStripe(), units);
+        }
+
+        private static int homeStripe() {
+            return (int) (Thread.currentThread().getId() & (STRIPES - 1));
+        }
+
+        boolean take(int units) throws SQLException {
+            takeCount.incrementAndGet();
+            int taken = takeFromStripes(units);
+            if (taken == units) {
+                return true;
+            }
+
+            // Local budget exhausted: claim more in one conditional statement, one lane at a time per product
+            synchronized (this) {
+                taken += takeFromStripes(units - taken);
+                if (taken == units) {
+                    return true;
+                }
+                int shortfall = units - taken;
+                try {
+                    int claimed = claim(Math.max(shortfall, ALLOTMENT));
+                    if (claimed == 0 && shortfall < ALLOTMENT) {
+                        claimed = claim(shortfall);  // Less than an allotment left; take just what this sale needs
+                    }
+                    if (claimed == 0) {
+                        add(taken);
+                        return false;
+                    }
+                    add(claimed - shortfall);
+                    return true;
+                } catch (SQLException e) {
+                    add(taken);
+                    throw e;
+                }
+            }
+        }
+
+        // Take up to units from the stripes, starting at this thread's own stripe
+        private int takeFromStripes(int units) {
+            int taken = 0;
+            int start = homeStripe();
+            for (int i = 0; i < STRIPES && taken < units; i++) {
+                int stripe = (start + i) & (STRIPES - 1);
+                while (taken < units) {
+                    int current = stripes.get(stripe);
+                    if (current <= 0) {
+                        break;
+                    }
+                    int amount = Math.min(current, units - taken);
+                    if (stripes.compareAndSet(stripe, current, current - amount)) {
+                        taken += amount;
+                    }
+                }
+            }
+            return taken;
+        }
+
+        // Move units from products.quantity into the local budget; returns 0 if there weren't enough
+        private int claim(int units) throws SQLException {
+            if (!Repositories.products().tryDecrement(productCode, units)) {
+                return 0;
+            }
+            ProductCatalog.adjustQuantity(productCode, -units);
+            return units;
+        }
+
+        // Return local units above keep to the products table
+        synchronized void fold(int keep) {
+            int excess = sum() - keep;
+            if (excess <= 0) {
+                return;
+            }
+            int returned = takeFromStripes(excess);
+            if (returned == 0) {
+                return;
+            }
+            try {
+                Repositories.products().addStock(productCode, returned);
+                ProductCatalog.adjustQuantity(productCode, returned);
+            } catch (SQLException e) {
+                add(returned);  // Keep them locally and try again on the next fold
+                System.err.println("Could not fold hot SKU stock for " + productCode + ": " + e.getMessage());
+            }
+        }
+    }
+}
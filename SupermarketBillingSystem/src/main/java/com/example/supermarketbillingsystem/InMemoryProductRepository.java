@@ -0,0 +1,128 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Products kept in this JVM (-Dstorage=memory), seeded with the sample products from project.sql.
+// -Dstorage.memory.syntheticProducts=N adds N generated products (SKU0000001, ...) with plenty of stock
+// for load tests. Stock changes are atomic per product, like the conditional UPDATEs of the JDBC version.
+// Codes match by ProductCatalog.key(), the way the products table's collation and unique index match them,
+// and a product keeps the spelling of the code it was inserted with.
+public class InMemoryProductRepository implements ProductRepository {
+
+    private static final int SYNTHETIC_PRODUCTS = Integer.getInteger("storage.memory.syntheticProducts", 0);
+
+    private final Map<String, CatalogItem> items = new ConcurrentHashMap<>();  // By ProductCatalog.key(code)
+    private final NavigableSet<String> codes = new ConcurrentSkipListSet<>();  // Keys, for paging in product code order
+
+    public InMemoryProductRepository() {
+        this(SYNTHETIC_PRODUCTS);
+    }
+
+    // The sample products plus syntheticProducts generated ones (e.g. for benchmarks)
+    public InMemoryProductRepository(int syntheticProducts) {
+        put(new CatalogItem("P001", "Apple", "Fruits", 100, 350));
+        put(new CatalogItem("P002", "Banana", "Fruits", 150, 200));
+        put(new CatalogItem("P003", "Carrot", "Vegetables", 200, 120));
+        put(new CatalogItem("P004", "Tomato", "Vegetables", 120, 250));
+        put(new CatalogItem("P005", "Milk", "Dairy", 80, 160));
+        put(new CatalogItem("P006", "Cheese", "Dairy", 50, 500));
+        put(new CatalogItem("P007", "Rice", "Grains", 200, 180));
+        put(new CatalogItem("P008", "Flour", "Grains", 180, 230));
+        String[] categories = {"Fruits", "Vegetables", "Dairy", "Grains"};
+        for (int i = 1; i <= syntheticProducts; i++) {
+            put(new CatalogItem(String.format("SKU%07d", i), "Product " + i, categories[i % categories.length],
+                    1_000_000_000, 100 + (i % 900)));
+        }
+    }
+
+    private void put(CatalogItem item) {
+        String key = ProductCatalog.key(item.getProductCode());
+        items.put(key, item);
+        codes.add(key);
+    }
+
+    @Override
+    public Map<String, CatalogItem> loadAll() {
+        return new HashMap<>(items);
+    }
+
+    @Override
+    public CatalogItem findByCode(String productCode) {
+        return items.get(ProductCatalog.key(productCode));
+    }
+
+    @Override
+    public List<CatalogItem> loadPage(String afterCode, int pageSize, ProductFilter filter) {
+        List<CatalogItem> page = new ArrayList<>(pageSize);
+        Iterable<String> candidates = afterCode == null ? codes : codes.tailSet(ProductCatalog.key(afterCode), false);
+        for (String code : candidates) {
+            CatalogItem item = items.get(code);
+            if (item != null && filter.matches(item)) {
+                page.add(item);
+                if (page.size() == pageSize) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void insert(CatalogItem item) throws SQLException {
+        String key = ProductCatalog.key(item.getProductCode());
+        if (items.putIfAbsent(key, item) != null) {
+            throw new SQLIntegrityConstraintViolationException("Duplicate product code: " + item.getProductCode());
+        }
+        codes.add(key);
+    }
+
+    @Override
+    public boolean update(CatalogItem item) {
+        // Like UPDATE ... WHERE product_code = ?, the row keeps its stored code
+        return items.computeIfPresent(ProductCatalog.key(item.getProductCode()), (key, stored) -> new CatalogItem(
+                stored.getProductCode(), item.getName(), item.getCategory(), item.getQuantity(), item.getPriceCents())) != null;
+    }
+
+    @Override
+    public boolean delete(String productCode) {
+        String key = ProductCatalog.key(productCode);
+        codes.remove(key);
+        return items.remove(key) != null;
+    }
+
+    @Override
+    public boolean tryDecrement(String productCode, int units) {
+        boolean[] taken = new boolean[1];
+        items.computeIfPresent(ProductCatalog.key(productCode), (code, item) -> {
+            if (item.getQuantity() < units) {
+                return item;
+            }
+            taken[0] = true;
+            return item.withQuantity(item.getQuantity() - units);
+        });
+        return taken[0];
+    }
+
+    @Override
+    public void addStock(String productCode, int units) {
+        items.computeIfPresent(ProductCatalog.key(productCode), (code, item) -> item.withQuantity(item.getQuantity() + units));
+    }
+
+    // Take what is left of the product's stock, up to units; returns how many were taken
+    int takeUpTo(String productCode, int units) {
+        int[] taken = new int[1];
+        items.computeIfPresent(ProductCatalog.key(productCode), (code, item) -> {
+            taken[0] = Math.min(item.getQuantity(), units);
+            return item.withQuantity(item.getQuantity() - taken[0]);
+        });
+        return taken[0];
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.supermarketbillingsystem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sales kept in this JVM (-Dstorage=memory). Only the totals, rollup buckets and journaled sale UUIDs are kept,
+// not the sales themselves, so long load tests run in constant memory.
+// A save takes its stock first and undoes it if any product runs short, then adds to the totals.
+public class InMemorySaleRepository implements SaleRepository {
+
+    private static final int MAX_CONFLICTS = 1000;
+
+    private final InMemoryProductRepository products;
+    private final AtomicLong nextSaleId = new AtomicLong(1);
+    private final AtomicLong totalIncomeCents = new AtomicLong();
+    private final AtomicLong saleCount = new AtomicLong();
+    private final Set<String> savedSaleUuids = ConcurrentHashMap.newKeySet();
+    private final Map<SalesRollups.Granularity, Map<LocalDateTime, RollupBucket>> rollups =
+            new EnumMap<>(SalesRollups.Granularity.class);
+    private final LinkedList<StockConflict> conflicts = new LinkedList<>();  // Newest first, guarded by itself
+
+    public InMemorySaleRepository(InMemoryProductRepository products) {
+        this.products = products;
+        for (SalesRollups.Granularity granularity : SalesRollups.Granularity.values()) {
+            rollups.put(granularity, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public long saveSale(String saleUuid, LocalDateTime saleTime, long totalCents, Collection<CartLine> lines,
+                         Map<String, Integer> stockDecrements) throws InsufficientStockException {
+        List<String> insufficient = new ArrayList<>();
+        List<Map.Entry<String, Integer>> taken = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : stockDecrements.entrySet()) {
+            if (products.tryDecrement(entry.getKey(), entry.getValue())) {
+                taken.add(entry);
+            } else {
+                insufficient.add(entry.getKey());
+            }
+        }
+        if (!insufficient.isEmpty()) {
+            for (Map.Entry<String, Integer> entry : taken) {
+                products.addStock(entry.getKey(), entry.getValue());
+            }
+            throw new InsufficientStockException(insufficient);
+        }
+        return addSale(saleUuid, saleTime, totalCents);
+    }
+
+    @Override
+    public Set<String> findSavedSaleUuids(Collection<String> saleUuids) {
+        Set<String> saved = new HashSet<>();
+        for (String saleUuid : saleUuids) {
+            if (savedSaleUuids.contains(saleUuid)) {
+                saved.add(saleUuid);
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public List<StockConflict> saveShippedSales(List<JournaledSale> sales, Map<String, Integer> stockDecrements) {
+        Map<String, String> namesByCode = new ConcurrentHashMap<>();
+        for (JournaledSale sale : sales) {
+            addSale(sale.getSaleUuid(), sale.getSaleTime(), sale.getTotalCents());
+            for (CartLine line : sale.getLines()) {
+                namesByCode.put(line.getProductCode(), line.getName());
+            }
+        }
+
+        // Paid sales are never rejected: take what is left and record the shortfall
+        List<StockConflict> found = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, Integer> entry : stockDecrements.entrySet()) {
+            int taken = products.takeUpTo(entry.getKey(), entry.getValue());
+            if (taken < entry.getValue()) {
+                found.add(new StockConflict(entry.getKey(), namesByCode.get(entry.getKey()), entry.getValue(), taken, now));
+            }
+        }
+        synchronized (conflicts) {
+            for (StockConflict conflict : found) {
+                conflicts.addFirst(conflict);
+            }
+            while (conflicts.size() > MAX_CONFLICTS) {
+                conflicts.removeLast();
+            }
+        }
+        return found;
+    }
+
+    private long addSale(String saleUuid, LocalDateTime saleTime, long totalCents) {
+        if (saleUuid != null) {
+            savedSaleUuids.add(saleUuid);
+        }
+        for (SalesRollups.Granularity granularity : SalesRollups.Granularity.values()) {
+            LocalDateTime bucketStart = granularity.bucketStart(saleTime);
+            rollups.get(granularity).merge(bucketStart,
+                    new RollupBucket(granularity, bucketStart, 1, totalCents, totalCents, totalCents),
+                    (old, sale) -> new RollupBucket(granularity, bucketStart,
+                            old.getSaleCount() + 1,
+                            old.getTotalCents() + totalCents,
+                            Math.min(old.getMinCents(), totalCents),
+                            Math.max(old.getMaxCents(), totalCents)));
+        }
+        totalIncomeCents.addAndGet(totalCents);
+        saleCount.incrementAndGet();
+        return nextSaleId.getAndIncrement();
+    }
+
+    @Override
+    public long loadTotalIncomeCents() {
+        return totalIncomeCents.get();
+    }
+
+    @Override
+    public long loadSaleCount() {
+        return saleCount.get();
+    }
+
+    @Override
+    public List<RollupBucket> queryRollups(SalesRollups.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.bucketStart(from);
+        List<RollupBucket> buckets = new ArrayList<>();
+        for (RollupBucket bucket : rollups.get(granularity).values()) {
+            if (!bucket.getBucketStart().isBefore(start) && bucket.getBucketStart().isBefore(to)) {
+                buckets.add(bucket);
+            }
+        }
+        buckets.sort(Comparator.comparing(RollupBucket::getBucketStart));
+        return buckets;
+    }
+
+    // The buckets are kept up to date with every save, so there is nothing to rebuild
+    @Override
+    public int rebuildRollups() {
+        return rollups.get(SalesRollups.Granularity.MONTH).size();
+    }
+
+    @Override
+    public List<StockConflict> loadRecentConflicts(int limit) {
+        synchronized (conflicts) {
+            List<StockConflict> recent = new ArrayList<>(conflicts.subList(0, Math.min(limit, conflicts.size())));
+            return Collections.unmodifiableList(recent);
+        }
+    }
+}
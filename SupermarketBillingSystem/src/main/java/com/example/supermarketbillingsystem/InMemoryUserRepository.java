@@ -0,0 +1,80 @@
+package com.example.supermarketbillingsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Users and roles kept in this JVM (-Dstorage=memory), seeded with the sample users from project.sql
+public class InMemoryUserRepository implements UserRepository, RoleRepository {
+
+    private static final class User {
+        final String password;
+        final String role;
+        volatile String status = "offline";
+
+        User(String password, String role) {
+            this.password = password;
+            this.role = role;
+        }
+    }
+
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<String, RoleDefinition> roles = new ConcurrentHashMap<>();
+
+    public InMemoryUserRepository() {
+        users.put("admin", new User("adminpassword", "admin"));
+        users.put("cashier", new User("cashierpassword", "cashier"));
+        roles.put("admin", new RoleDefinition("admin", "admin", true, true, true, true));
+        roles.put("cashier", new RoleDefinition("cashier", "cashier", false, false, true, true));
+    }
+
+    @Override
+    public String findRole(String username, String password) {
+        User user = users.get(username);
+        return user != null && user.password.equals(password) ? user.role : null;
+    }
+
+    @Override
+    public void updateStatus(String username, String status) {
+        User user = users.get(username);
+        if (user != null) {
+            user.status = status;
+        }
+    }
+
+    @Override
+    public List<RoleDefinition> findAll() {
+        List<RoleDefinition> all = new ArrayList<>(roles.values());
+        all.sort((a, b) -> a.getRoleName().compareTo(b.getRoleName()));
+        return all;
+    }
+
+    @Override
+    public boolean exists(String roleName) {
+        return roles.containsKey(roleName);
+    }
+
+    // Like the JDBC version, a new role comes with a placeholder user "<role>_user"
+    @Override
+    public boolean create(RoleDefinition role) {
+        if (roles.putIfAbsent(role.getRoleName(), role) != null) {
+            return false;
+        }
+        users.putIfAbsent(role.getRoleName() + "_user", new User("default123", role.getRoleName()));
+        return true;
+    }
+
+    @Override
+    public boolean updatePermissions(RoleDefinition role) {
+        return roles.computeIfPresent(role.getRoleName(), (name, old) -> new RoleDefinition(name, old.getDescription(),
+                role.isTotalIncomeAccess(), role.isProductManagementAccess(), role.isBillingAccess(),
+                role.isLogoutAccess())) != null;
+    }
+
+    @Override
+    public boolean delete(String roleName) {
+        users.values().removeIf(user -> user.role.equals(roleName));
+        return roles.remove(roleName) != null;
+    }
+}
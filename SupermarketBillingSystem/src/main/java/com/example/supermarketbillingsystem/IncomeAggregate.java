@@ -0,0 +1,43 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Incrementally maintained total income.
+// The persisted sales_totals rows are updated in the same transaction as each sale insert, so reading the total
+// sums its few slot rows and never scans the sales table. It is read from there every time, which includes other
+// lanes' sales; an in-memory copy re-seeded from it would race sales committing meanwhile and count them twice or not at all.
+public final class IncomeAggregate {
+
+    private IncomeAggregate() {
+    }
+
+    // Current total income in cents
+    public static long getTotalIncomeCents() throws SQLException {
+        return Repositories.sales().loadTotalIncomeCents();
+    }
+
+    public static long getSaleCount() throws SQLException {
+        return Repositories.sales().loadSaleCount();
+    }
+
+    // Add a sale to the persisted running totals; must run inside the sale's transaction
+    static void addToRunningTotals(Connection conn, long amountCents) throws SQLException {
+        addToRunningTotals(conn, amountCents, 1);
+    }
+
+    // Add several sales (amountCents in all) with one row update; must run inside their transaction
+    static void addToRunningTotals(Connection conn, long amountCents, int saleCount) throws SQLException {
+        String query = "INSERT INTO sales_totals (slot, total_amount, sale_count) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE total_amount = total_amount + VALUES(total_amount), "
+                + "sale_count = sale_count + VALUES(sale_count)";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, ThreadLocalRandom.current().nextInt(DatabaseSchema.SALES_TOTALS_SLOTS));
+            stmt.setBigDecimal(2, Money.toDecimal(amountCents));
+            stmt.setInt(3, saleCount);
+            stmt.executeUpdate();
+        }
+    }
+}
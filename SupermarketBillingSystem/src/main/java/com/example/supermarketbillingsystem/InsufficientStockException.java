@@ -0,0 +1,21 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// Thrown by checkout when the database no longer has enough stock for some cart lines
+public class InsufficientStockException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> productCodes;
+
+    public InsufficientStockException(List<String> productCodes) {
+        super("Not enough stock left for: " + String.join(", ", productCodes));
+        this.productCodes = List.copyOf(productCodes);
+    }
+
+    public List<String> getProductCodes() {
+        return productCodes;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Products in the MySQL products table
+public class JdbcProductRepository implements ProductRepository {
+
+    @Override
+    public Map<String, CatalogItem> loadAll() throws SQLException {
+        Map<String, CatalogItem> items = new HashMap<>();
+        Map<String, String> categories = new HashMap<>();  // Share one String per distinct category
+        int withoutCode = 0;
+        String query = "SELECT product_code, name, category, price, quantity FROM products";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setFetchSize(1000);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                CatalogItem item = readCatalogItem(rs, categories);
+                if (item == null) {
+                    withoutCode++;
+                    continue;
+                }
+                items.put(item.getProductCode(), item);
+            }
+        }
+        if (withoutCode > 0) {
+            System.err.println("Skipped " + withoutCode + " products with no product_code; give them a code to sell or list them");
+        }
+        return items;
+    }
+
+    @Override
+    public CatalogItem findByCode(String productCode) throws SQLException {
+        String query = "SELECT product_code, name, category, price, quantity FROM products WHERE product_code = ?";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, productCode);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return readCatalogItem(rs, new HashMap<>());
+            }
+        }
+        return null;
+    }
+
+    // Keyset paging: the index on product_code seeks straight to the page, so late pages cost the same as early ones.
+    // The filter is applied in SQL so only matching rows leave the server. Rows with no code can't be paged past.
+    @Override
+    public List<CatalogItem> loadPage(String afterCode, int pageSize, ProductFilter filter) throws SQLException {
+        List<CatalogItem> page = new ArrayList<>(pageSize);
+        Map<String, String> categories = new HashMap<>();
+
+        StringBuilder query = new StringBuilder("SELECT product_code, name, category, price, quantity FROM products WHERE product_code IS NOT NULL");
+        if (afterCode != null) {
+            query.append(" AND product_code > ?");
+        }
+        if (filter.getCategory() != null) {
+            query.append(" AND category = ?");
+        }
+        if (filter.getNameContains() != null) {
+            query.append(" AND name LIKE ?");
+        }
+        query.append(" ORDER BY product_code LIMIT ?");
+
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query.toString());
+            int index = 1;
+            if (afterCode != null) {
+                stmt.setString(index++, afterCode);
+            }
+            if (filter.getCategory() != null) {
+                stmt.setString(index++, filter.getCategory());
+            }
+            if (filter.getNameContains() != null) {
+                stmt.setString(index++, filter.getNameLikePattern());
+            }
+            stmt.setInt(index, pageSize);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                page.add(readCatalogItem(rs, categories));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void insert(CatalogItem item) throws SQLException {
+        String query = "INSERT INTO products (product_code, name, category, quantity, price) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, item.getProductCode());
+            stmt.setString(2, item.getName());
+            stmt.setString(3, item.getCategory());
+            stmt.setInt(4, item.getQuantity());
+            stmt.setBigDecimal(5, Money.toDecimal(item.getPriceCents()));
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public boolean update(CatalogItem item) throws SQLException {
+        String query = "UPDATE products SET name = ?, category = ?, quantity = ?, price = ? WHERE product_code = ?";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, item.getName());
+            stmt.setString(2, item.getCategory());
+            stmt.setInt(3, item.getQuantity());
+            stmt.setBigDecimal(4, Money.toDecimal(item.getPriceCents()));
+            stmt.setString(5, item.getProductCode());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean delete(String productCode) throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("DELETE FROM products WHERE product_code = ?");
+            stmt.setString(1, productCode);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean tryDecrement(String productCode, int units) throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            return StockReservationService.tryDecrement(conn, productCode, units);
+        }
+    }
+
+    @Override
+    public void addStock(String productCode, int units) throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("UPDATE products SET quantity = quantity + ? WHERE product_code = ?");
+            stmt.setInt(1, units);
+            stmt.setString(2, productCode);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Null for a row with no product_code (databases created before the column was NOT NULL)
+    private static CatalogItem readCatalogItem(ResultSet rs, Map<String, String> categories) throws SQLException {
+        String productCode = rs.getString("product_code");
+        if (productCode == null) {
+            return null;
+        }
+        String name = rs.getString("name");
+        String category = rs.getString("category");
+        if (category != null) {
+            category = categories.computeIfAbsent(category, c -> c);
+        }
+        long priceCents = Money.fromDecimal(rs.getBigDecimal("price"));
+        int quantity = rs.getInt("quantity");
+        return new CatalogItem(productCode, name, category, quantity, priceCents);
+    }
+}
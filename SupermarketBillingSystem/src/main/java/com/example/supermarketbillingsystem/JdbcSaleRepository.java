@@ -0,0 +1,246 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Sales in MySQL: the sales and sale_items tables, the sales_totals and sales_rollups aggregates,
+// and the stock_conflicts log. Each save is one transaction of a few statements or batches,
+// so a sale, or a whole batch of shipped sales, costs the same few round trips whatever its size.
+public class JdbcSaleRepository implements SaleRepository {
+
+    private static final String INSERT_SALE_ITEM = "INSERT INTO sale_items "
+            + "(sale_id, product_code, product_name, quantity, unit_price, line_total) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Override
+    public long saveSale(String saleUuid, LocalDateTime saleTime, long totalCents, Collection<CartLine> lines,
+                         Map<String, Integer> stockDecrements) throws SQLException {
+        DatabaseSchema.ensureCreated();
+        try (Connection conn = DatabaseUtil.connect()) {
+            conn.setAutoCommit(false);
+            try {
+                long saleId = insertSale(conn, saleUuid, saleTime, totalCents);
+                insertSaleItems(conn, saleId, lines);
+                IncomeAggregate.addToRunningTotals(conn, totalCents);
+                SalesRollups.addSale(conn, saleTime, totalCents);
+                List<String> insufficient = StockReservationService.decrementAll(conn, stockDecrements);
+                if (!insufficient.isEmpty()) {
+                    throw new InsufficientStockException(insufficient);
+                }
+                conn.commit();
+                return saleId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public Set<String> findSavedSaleUuids(Collection<String> saleUuids) throws SQLException {
+        Set<String> saved = new HashSet<>();
+        if (saleUuids.isEmpty()) {
+            return saved;
+        }
+        DatabaseSchema.ensureCreated();
+        StringBuilder query = new StringBuilder("SELECT sale_uuid FROM sales WHERE sale_uuid IN (");
+        for (int i = 0; i < saleUuids.size(); i++) {
+            query.append(i == 0 ? "?" : ", ?");
+        }
+        query.append(")");
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query.toString());
+            int index = 1;
+            for (String saleUuid : saleUuids) {
+                stmt.setString(index++, saleUuid);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                saved.add(rs.getString(1));
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public List<StockConflict> saveShippedSales(List<JournaledSale> sales, Map<String, Integer> stockDecrements) throws SQLException {
+        DatabaseSchema.ensureCreated();
+        try (Connection conn = DatabaseUtil.connect()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<String, String> namesByCode = new HashMap<>();
+                long totalCents = 0;
+                for (JournaledSale sale : sales) {
+                    totalCents += sale.getTotalCents();
+                    for (CartLine line : sale.getLines()) {
+                        namesByCode.put(line.getProductCode(), line.getName());
+                    }
+                }
+                Map<String, Long> saleIdsByUuid = insertSales(conn, sales);
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SALE_ITEM)) {
+                    for (JournaledSale sale : sales) {
+                        addSaleItems(stmt, saleIdsByUuid.get(sale.getSaleUuid()), sale.getLines());
+                    }
+                    stmt.executeBatch();
+                }
+                IncomeAggregate.addToRunningTotals(conn, totalCents, sales.size());
+                SalesRollups.addSales(conn, sales);
+
+                List<StockConflict> conflicts = new ArrayList<>();
+                List<String> insufficient = StockReservationService.decrementAll(conn, stockDecrements);
+                if (!insufficient.isEmpty()) {
+                    conflicts.addAll(StockConflicts.lockAndDescribe(conn, insufficient, stockDecrements, namesByCode));
+                    clampStock(conn, insufficient, stockDecrements);
+                    StockConflicts.record(conn, conflicts);
+                }
+                conn.commit();
+                return conflicts;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public long loadTotalIncomeCents() throws SQLException {
+        DatabaseSchema.ensureCreated();
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(SUM(total_amount), 0) FROM sales_totals");
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return Money.fromDecimal(rs.getBigDecimal(1));
+        }
+    }
+
+    @Override
+    public long loadSaleCount() throws SQLException {
+        DatabaseSchema.ensureCreated();
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(SUM(sale_count), 0) FROM sales_totals");
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Override
+    public List<RollupBucket> queryRollups(SalesRollups.Granularity granularity, LocalDateTime from, LocalDateTime to) throws SQLException {
+        return SalesRollups.query(granularity, from, to);
+    }
+
+    @Override
+    public int rebuildRollups() throws SQLException {
+        return SalesRollups.backfill();
+    }
+
+    @Override
+    public List<StockConflict> loadRecentConflicts(int limit) throws SQLException {
+        return StockConflicts.loadRecent(limit);
+    }
+
+    // The sale time is taken once so the sale row and its rollup buckets always agree
+    private static long insertSale(Connection conn, String saleUuid, LocalDateTime saleTime, long totalCents) throws SQLException {
+        String insertSaleQuery = "INSERT INTO sales (sale_uuid, sale_date, total_amount) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertSaleQuery, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, saleUuid);
+            stmt.setTimestamp(2, Timestamp.valueOf(saleTime));
+            stmt.setBigDecimal(3, Money.toDecimal(totalCents));
+            stmt.executeUpdate();
+
+            // The generated id comes back with the insert's OK packet, no extra query
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No id generated for the sale");
+                }
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    // Shipped sales as one multi-row INSERT, then their ids in one query by UUID
+    // (a multi-row insert's generated keys aren't guaranteed consecutive under interleaved auto-increment locking)
+    private static Map<String, Long> insertSales(Connection conn, List<JournaledSale> sales) throws SQLException {
+        String insertSaleQuery = "INSERT INTO sales (sale_uuid, sale_date, total_amount) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertSaleQuery)) {
+            for (JournaledSale sale : sales) {
+                stmt.setString(1, sale.getSaleUuid());
+                stmt.setTimestamp(2, Timestamp.valueOf(sale.getSaleTime()));
+                stmt.setBigDecimal(3, Money.toDecimal(sale.getTotalCents()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        StringBuilder query = new StringBuilder("SELECT sale_uuid, id FROM sales WHERE sale_uuid IN (");
+        for (int i = 0; i < sales.size(); i++) {
+            query.append(i == 0 ? "?" : ", ?");
+        }
+        query.append(")");
+        Map<String, Long> saleIdsByUuid = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+            int index = 1;
+            for (JournaledSale sale : sales) {
+                stmt.setString(index++, sale.getSaleUuid());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    saleIdsByUuid.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        if (saleIdsByUuid.size() != sales.size()) {
+            throw new SQLException("Expected " + sales.size() + " shipped sales, found " + saleIdsByUuid.size());
+        }
+        return saleIdsByUuid;
+    }
+
+    // One row per cart line, sent as a single multi-row INSERT (rewriteBatchedStatements).
+    // Line totals are before the basket discount; the sale row holds the discounted total.
+    private static void insertSaleItems(Connection conn, long saleId, Collection<CartLine> cartLines) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SALE_ITEM)) {
+            addSaleItems(stmt, saleId, cartLines);
+            stmt.executeBatch();
+        }
+    }
+
+    private static void addSaleItems(PreparedStatement stmt, long saleId, Collection<CartLine> cartLines) throws SQLException {
+        for (CartLine line : cartLines) {
+            stmt.setLong(1, saleId);
+            stmt.setString(2, line.getProductCode());
+            stmt.setString(3, line.getName());
+            stmt.setInt(4, line.getQuantity());
+            stmt.setBigDecimal(5, Money.toDecimal(line.getUnitPriceCents()));
+            stmt.setBigDecimal(6, Money.toDecimal(line.getLineTotalCents()));
+            stmt.addBatch();
+        }
+    }
+
+    // Take whatever is left of products that couldn't cover their decrement
+    private static void clampStock(Connection conn, List<String> productCodes, Map<String, Integer> quantitiesByCode) throws SQLException {
+        String query = "UPDATE products SET quantity = GREATEST(quantity - ?, 0) WHERE product_code = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (String productCode : productCodes) {
+                stmt.setInt(1, quantitiesByCode.get(productCode));
+                stmt.setString(2, productCode);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
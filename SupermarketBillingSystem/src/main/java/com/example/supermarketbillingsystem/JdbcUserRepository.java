@@ -0,0 +1,119 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Users and roles in the MySQL users table. There is no roles table: each user row carries its role's
+// permission flags, and every user of a role is updated together.
+public class JdbcUserRepository implements UserRepository, RoleRepository {
+
+    @Override
+    public String findRole(String username, String password) throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT role FROM users WHERE username = ? AND password = ?");
+            stmt.setString(1, username);
+            stmt.setString(2, password);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString("role") : null;
+        }
+    }
+
+    @Override
+    public void updateStatus(String username, String status) throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("UPDATE users SET status = ? WHERE username = ?");
+            stmt.setString(1, status);
+            stmt.setString(2, username);
+            stmt.executeUpdate();
+        }
+    }
+
+    // One row per user with a role (the username serves as the description), with the permissions of
+    // the role's first user. Two queries in total rather than one permissions query per row.
+    @Override
+    public List<RoleDefinition> findAll() throws SQLException {
+        List<RoleDefinition> roles = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.connect()) {
+            Map<String, boolean[]> permissionsByRole = new HashMap<>();
+            PreparedStatement permStmt = conn.prepareStatement("SELECT role, total_income_access, "
+                    + "product_management_access, billing_access, logout_access FROM users WHERE role IS NOT NULL ORDER BY id");
+            ResultSet permRs = permStmt.executeQuery();
+            while (permRs.next()) {
+                permissionsByRole.putIfAbsent(permRs.getString("role"), new boolean[]{
+                        permRs.getBoolean("total_income_access"),
+                        permRs.getBoolean("product_management_access"),
+                        permRs.getBoolean("billing_access"),
+                        permRs.getBoolean("logout_access")
+                });
+            }
+
+            PreparedStatement stmt = conn.prepareStatement("SELECT DISTINCT role, username FROM users WHERE role IS NOT NULL ORDER BY role");
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                String role = rs.getString("role");
+                boolean[] permissions = permissionsByRole.getOrDefault(role, new boolean[]{false, false, false, true});
+                roles.add(new RoleDefinition(role, rs.getString("username"),
+                        permissions[0], permissions[1], permissions[2], permissions[3]));
+            }
+        }
+        return roles;
+    }
+
+    @Override
+    public boolean exists(String roleName) throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE role = ?");
+            stmt.setString(1, roleName);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1) > 0;
+        }
+    }
+
+    // A role exists through its users, so creating one adds a placeholder user "<role>_user"
+    @Override
+    public boolean create(RoleDefinition role) throws SQLException {
+        String query = "INSERT INTO users (username, password, role, status, total_income_access, product_management_access, billing_access, logout_access) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, role.getRoleName() + "_user");
+            stmt.setString(2, "default123");
+            stmt.setString(3, role.getRoleName());
+            stmt.setString(4, "offline");
+            stmt.setBoolean(5, role.isTotalIncomeAccess());
+            stmt.setBoolean(6, role.isProductManagementAccess());
+            stmt.setBoolean(7, role.isBillingAccess());
+            stmt.setBoolean(8, role.isLogoutAccess());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean updatePermissions(RoleDefinition role) throws SQLException {
+        String query = "UPDATE users SET total_income_access = ?, product_management_access = ?, billing_access = ?, logout_access = ? WHERE role = ?";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setBoolean(1, role.isTotalIncomeAccess());
+            stmt.setBoolean(2, role.isProductManagementAccess());
+            stmt.setBoolean(3, role.isBillingAccess());
+            stmt.setBoolean(4, role.isLogoutAccess());
+            stmt.setString(5, role.getRoleName());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean delete(String roleName) throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE role = ?");
+            stmt.setString(1, roleName);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+}
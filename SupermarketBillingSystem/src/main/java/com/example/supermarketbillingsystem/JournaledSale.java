@@ -0,0 +1,101 @@
+package com.example.supermarketbillingsystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+// A paid sale as written to the local sales journal.
+// The sale UUID travels with it into sales.sale_uuid, so shipping the same record twice stores it once.
+public final class JournaledSale {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final String saleUuid;
+    private final LocalDateTime saleTime;
+    private final long totalCents;
+    private final List<CartLine> lines;
+
+    public JournaledSale(String saleUuid, LocalDateTime saleTime, long totalCents, List<CartLine> lines) {
+        this.saleUuid = saleUuid;
+        this.saleTime = saleTime;
+        this.totalCents = totalCents;
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+    }
+
+    // A new sale stamped with a fresh UUID and the current time
+    public static JournaledSale create(List<CartLine> lines, long totalCents) {
+        return new JournaledSale(UUID.randomUUID().toString(), LocalDateTime.now(), totalCents, lines);
+    }
+
+    public String getSaleUuid() {
+        return saleUuid;
+    }
+
+    public LocalDateTime getSaleTime() {
+        return saleTime;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public List<CartLine> getLines() {
+        return lines;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + lines.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(saleUuid);
+            out.writeLong(saleTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            out.writeLong(totalCents);
+            out.writeInt(lines.size());
+            for (CartLine line : lines) {
+                out.writeUTF(line.getProductCode());
+                out.writeUTF(line.getName());
+                out.writeBoolean(line.getCategory() != null);
+                if (line.getCategory() != null) {
+                    out.writeUTF(line.getCategory());
+                }
+                out.writeLong(line.getUnitPriceCents());
+                out.writeInt(line.getQuantity());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory write failed", e);  // ByteArrayOutputStream doesn't throw
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournaledSale decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unknown journal record version " + version);
+            }
+            String saleUuid = in.readUTF();
+            LocalDateTime saleTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+            long totalCents = in.readLong();
+            int lineCount = in.readInt();
+            List<CartLine> lines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                String productCode = in.readUTF();
+                String name = in.readUTF();
+                String category = in.readBoolean() ? in.readUTF() : null;
+                long unitPriceCents = in.readLong();
+                int quantity = in.readInt();
+                lines.add(new CartLine(productCode, name, category, unitPriceCents, quantity));
+            }
+            return new JournaledSale(saleUuid, saleTime, totalCents, lines);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.supermarketbillingsystem;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram for one checkout stage, recorded from any number of threads without locks.
+// Log-linear buckets: exact below 64 ns, then 32 buckets per power of two, so any percentile is
+// reported within about 3% of the true value in constant memory (values are capped at about 18 minutes).
+// Percentiles are read over a sliding window (see rotateWindow) so they follow the current load;
+// count, sum and max cover the whole run.
+public final class LatencyHistogram implements Metrics.LatencyMXBean {
+
+    private static final int SUB_BUCKETS = 32;
+    private static final int BUCKETS = SUB_BUCKETS * 36;
+    private static final long MAX_TRACKABLE_NANOS = (1L << 40) - 1;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    // Bucket counts at the start of the previous and the current window; swapped by rotateWindow
+    private volatile long[] previousWindowStart = new long[BUCKETS];
+    private volatile long[] currentWindowStart = new long[BUCKETS];
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long nanos) {
+        long value = Math.min(Math.max(0, nanos), MAX_TRACKABLE_NANOS);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sumNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    // Record the time since a System.nanoTime() taken when the stage started
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // Start a new window; percentiles then cover the last one to two window lengths
+    void rotateWindow() {
+        previousWindowStart = currentWindowStart;
+        currentWindowStart = snapshot();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sumNanos.sum() / (double) n / 1_000_000;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public long getRecentCount() {
+        long[] window = recentCounts();
+        long n = 0;
+        for (long bucket : window) {
+            n += bucket;
+        }
+        return n;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileNanos(0.50) / 1_000_000.0;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileNanos(0.99) / 1_000_000.0;
+    }
+
+    @Override
+    public double getP999Millis() {
+        return percentileNanos(0.999) / 1_000_000.0;
+    }
+
+    // Smallest bucket value with at least the given fraction of the recent window at or below it; 0 when idle
+    public long percentileNanos(double fraction) {
+        return percentileNanos(recentCounts(), fraction);
+    }
+
+    // Several percentiles read from one copy of the buckets, so they are consistent with each other
+    long[] percentilesNanos(double... fractions) {
+        long[] window = recentCounts();
+        long[] values = new long[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            values[i] = percentileNanos(window, fractions[i]);
+        }
+        return values;
+    }
+
+    private long percentileNanos(long[] window, double fraction) {
+        long n = 0;
+        for (long bucket : window) {
+            n += bucket;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += window[i];
+            if (seen >= rank) {
+                return Math.min(lowerBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    private long[] recentCounts() {
+        long[] window = snapshot();
+        long[] start = previousWindowStart;
+        for (int i = 0; i < BUCKETS; i++) {
+            window[i] -= start[i];
+        }
+        return window;
+    }
+
+    private long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    static int index(long nanos) {
+        if (nanos < 2 * SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - 5;  // Keeps the top 6 bits: 32..63
+        return SUB_BUCKETS * shift + (int) (nanos >>> shift);
+    }
+
+    static long lowerBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+}
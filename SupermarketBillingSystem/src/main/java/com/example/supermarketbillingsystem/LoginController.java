@@ -13,9 +13,6 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class LoginController {
@@ -45,69 +42,64 @@ public class LoginController {
     public void loginButtonOnAction(ActionEvent event) {
         String username = usernameTextField.getText();
         String password = enterPasswordField.getText();
-
-        // Fetch user from the database directly
-        String userRole = getUserRole(username);
-
-        if (userRole != null) {
-            // If login is successful, update status to 'online'
-            updateCashierStatusOnline(username);
-
-            loginButton.setText("Login successful!");
-
-            try {
-                // Load the dashboard page
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("dashboard.fxml"));
-                Parent dashboardView = loader.load();  // Load the Dashboard.fxml
-
-                // Get the DashboardController and pass the user info
-                DashboardController dashboardController = loader.getController();
-                dashboardController.setCashierInfo(username, "online");  // Set username and status to "online"
-                dashboardController.setUserRole(userRole); // Set user role
-
-                Scene dashboardScene = new Scene(dashboardView);
-                Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-                window.setScene(dashboardScene);
-                window.setTitle("Dashboard");
-                window.show();
-            } catch (IOException e) {
-                e.printStackTrace();
-                loginButton.setText("Error loading dashboard.");
+        Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
+
+        // Show a loading state while the database is queried off the FX thread
+        loginButton.setDisable(true);
+        loginButton.setText("Signing in...");
+
+        DbExecutor.submit(() -> {
+            // Fetch user from the database directly
+            String role = getUserRole(username, password);
+            if (role != null) {
+                // If login is successful, update status to 'online'
+                updateCashierStatusOnline(username);
             }
-        } else {
-            loginButton.setText("Invalid login. Please try again.");
-        }
+            return role;
+        }, userRole -> {
+            loginButton.setDisable(false);
+            if (userRole != null) {
+                loginButton.setText("Login successful!");
+                openDashboard(window, username, userRole);
+            } else {
+                loginButton.setText("Invalid login. Please try again.");
+            }
+        }, error -> {
+            error.printStackTrace();
+            loginButton.setDisable(false);
+            loginButton.setText("Database unavailable. Please try again.");
+        });
     }
 
-    // Get user role from database
-    private String getUserRole(String username) {
-        String role = null;
-        String query = "SELECT role FROM users WHERE username = ? AND password = ?";
-        try (Connection conn = DatabaseUtil.connect()) {
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, username);
-            stmt.setString(2, enterPasswordField.getText()); // This is a security concern - better to verify password separately
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                role = rs.getString("role");
-            }
-        } catch (SQLException e) {
+    private void openDashboard(Stage window, String username, String userRole) {
+        try {
+            // Load the dashboard page
+            FXMLLoader loader = ScreenLoader.load("dashboard.fxml");
+            Parent dashboardView = loader.getRoot();  // Load the Dashboard.fxml
+
+            // Get the DashboardController and pass the user info
+            DashboardController dashboardController = loader.getController();
+            dashboardController.setCashierInfo(username, "online");  // Set username and status to "online"
+            dashboardController.setUserRole(userRole); // Set user role
+
+            Scene dashboardScene = new Scene(dashboardView);
+            window.setScene(dashboardScene);
+            window.setTitle("Dashboard");
+            window.show();
+        } catch (IOException e) {
             e.printStackTrace();
+            loginButton.setText("Error loading dashboard.");
         }
-        return role;
     }
 
-    // Update cashier status to 'online'
-    private void updateCashierStatusOnline(String username) {
-        String query = "UPDATE users SET status = 'online' WHERE username = ?";
+    // Get user role from database (runs on a DbExecutor worker)
+    private String getUserRole(String username, String password) throws SQLException {
+        return Repositories.users().findRole(username, password);  // This is a security concern - better to verify password separately
+    }
 
-        try (Connection conn = DatabaseUtil.connect()) {
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, username);
-            stmt.executeUpdate();  // Update status to 'online'
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    // Update cashier status to 'online' (runs on a DbExecutor worker)
+    private void updateCashierStatusOnline(String username) throws SQLException {
+        Repositories.users().updateStatus(username, "online");
     }
 
     // Cancel button action (close the login window)
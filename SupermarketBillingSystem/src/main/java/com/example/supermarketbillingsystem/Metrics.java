@@ -0,0 +1,169 @@
+package com.example.supermarketbillingsystem;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histograms and counters for the checkout stages, from barcode scan to receipt.
+// Recording is lock-free and allocation-free, so it can stay on in production. Everything is published as
+// JMX MBeans under com.example.supermarketbillingsystem:type=Latency|Counter and as text by MetricsEndpoint.
+// Percentiles cover the last one to two windows of -Dmetrics.windowSec (60) seconds, so an alert on
+// e.g. Latency/scan P99Millis follows the current load rather than the whole day.
+public final class Metrics {
+
+    private static final long WINDOW_SEC = Long.getLong("metrics.windowSec", 60);
+    private static final String JMX_DOMAIN = "com.example.supermarketbillingsystem";
+
+    // MXBean views of a histogram and a counter; percentiles are over the recent window
+    public interface LatencyMXBean {
+        long getCount();
+
+        long getRecentCount();
+
+        double getMeanMillis();
+
+        double getMaxMillis();
+
+        double getP50Millis();
+
+        double getP99Millis();
+
+        double getP999Millis();
+    }
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    public static final class Counter implements CounterMXBean {
+        private final LongAdder count = new LongAdder();
+
+        private Counter() {
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            count.add(n);
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+    // Checkout stages
+    public static final LatencyHistogram LOOKUP = histogram("lookup");              // Product by code, catalog or database
+    public static final LatencyHistogram SCAN = histogram("scan");                  // Lookup plus cart update: what the cashier waits on per item
+    public static final LatencyHistogram CART_UPDATE = histogram("cart_update");    // Add, quantity change or removal, with its reservation
+    public static final LatencyHistogram STOCK_WRITE = histogram("stock_write");    // A sale (or a shipped journal batch) and its stock decrements saved
+    public static final LatencyHistogram PAYMENT_COMMIT = histogram("payment_commit");  // Recording a paid basket (journal or direct)
+    public static final LatencyHistogram RECEIPT_RENDER = histogram("receipt_render");
+    public static final LatencyHistogram SCREEN_LOAD = histogram("screen_load");    // Every screen; per screen as screen_load.<fxml>
+
+    public static final Counter SCANS = counter("scans");
+    public static final Counter SCANS_NOT_FOUND = counter("scans_not_found");
+    public static final Counter OUT_OF_STOCK = counter("out_of_stock");            // Scans and quantity changes refused for stock
+    public static final Counter CATALOG_MISSES = counter("catalog_misses");        // Lookups that had to ask the database
+    public static final Counter SALES = counter("sales");
+    public static final Counter SALES_REJECTED = counter("sales_rejected");        // Checkouts refused because the stock was gone
+    public static final Counter JOURNAL_FALLBACKS = counter("journal_fallbacks");  // Sales committed directly because the journal failed
+    public static final Counter JOURNAL_CORRUPT_RECORDS = counter("journal_corrupt_records");  // Damaged records moved to sales.quarantine
+    public static final Counter STOCK_CONFLICTS = counter("stock_conflicts");
+
+    static {
+        ScheduledExecutorService rotator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rotator.scheduleAtFixedRate(() -> histograms.values().forEach(LatencyHistogram::rotateWindow),
+                WINDOW_SEC, WINDOW_SEC, TimeUnit.SECONDS);
+    }
+
+    private Metrics() {
+    }
+
+    // Create the metrics and their MBeans now instead of on the first scan (starting the platform MBean server
+    // takes a few hundred milliseconds)
+    public static void init() {
+        // The static initializer does the work
+    }
+
+    // The histogram with this name, created (and registered with JMX) on first use
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        synchronized (histograms) {
+            histogram = histograms.get(name);
+            if (histogram == null) {
+                histogram = new LatencyHistogram(name);
+                register("Latency", name, histogram);
+                histograms.put(name, histogram);
+            }
+            return histogram;
+        }
+    }
+
+    private static Counter counter(String name) {
+        Counter counter = new Counter();
+        register("Counter", name, counter);
+        counters.put(name, counter);
+        return counter;
+    }
+
+    private static void register(String type, String name, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Could not register metric " + name + " with JMX: " + e.getMessage());
+        }
+    }
+
+    // Everything in the Prometheus text format: histograms as summaries in seconds, counters as _total
+    public static String render() {
+        StringBuilder text = new StringBuilder(4096);
+        for (LatencyHistogram histogram : histograms.values()) {
+            String metric = "checkout_" + histogram.getName().replace('.', '_').replace('-', '_') + "_seconds";
+            long[] percentiles = histogram.percentilesNanos(0.5, 0.99, 0.999);
+            text.append("# TYPE ").append(metric).append(" summary\n");
+            appendValue(text, metric + "{quantile=\"0.5\"}", percentiles[0]);
+            appendValue(text, metric + "{quantile=\"0.99\"}", percentiles[1]);
+            appendValue(text, metric + "{quantile=\"0.999\"}", percentiles[2]);
+            appendValue(text, metric + "_sum", histogram.getSumNanos());
+            text.append(metric).append("_count ").append(histogram.getCount()).append('\n');
+            text.append("# TYPE ").append(metric).append("_max gauge\n");
+            appendValue(text, metric + "_max", histogram.getMaxNanos());
+        }
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            String metric = "checkout_" + entry.getKey() + "_total";
+            text.append("# TYPE ").append(metric).append(" counter\n");
+            text.append(metric).append(' ').append(entry.getValue().getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void appendValue(StringBuilder text, String metric, long nanos) {
+        text.append(metric).append(' ').append(String.format(Locale.ROOT, "%.9f", nanos / 1e9)).append('\n');
+    }
+}
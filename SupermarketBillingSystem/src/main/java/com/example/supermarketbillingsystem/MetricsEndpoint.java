@@ -0,0 +1,61 @@
+package com.example.supermarketbillingsystem;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// Serves Metrics.render() at http://127.0.0.1:<port>/metrics for a local scraper or `curl`.
+// Bound to the loopback interface only. -Dmetrics.port=9404 by default; -Dmetrics.port=-1 turns it off.
+public final class MetricsEndpoint {
+
+    private static final int PORT = Integer.getInteger("metrics.port", 9404);
+
+    private static HttpServer server;
+
+    private MetricsEndpoint() {
+    }
+
+    // Start serving; a busy port only costs the endpoint, never the application
+    public static synchronized void start() {
+        Metrics.init();
+        if (server != null || PORT < 0) {
+            return;
+        }
+        try {
+            HttpServer created = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT), 0);
+            created.createContext("/metrics", MetricsEndpoint::handle);
+            created.start();  // One dispatcher thread is plenty for a scraper
+            server = created;
+            System.out.println("Metrics available at http://127.0.0.1:" + created.getAddress().getPort() + "/metrics");
+        } catch (IOException e) {
+            System.err.println("Could not start the metrics endpoint on port " + PORT + ": " + e.getMessage());
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.supermarketbillingsystem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Exact money arithmetic on primitive long cents.
+// Amounts stay as longs from the cart through the discount, receipt and sales insert;
+// BigDecimal is only used at the JDBC boundary and nothing here goes through double.
+public final class Money {
+
+    public static final long ZERO = 0;
+
+    // Discounts are stored in basis points (hundredths of a percent): 12.5% = 1250
+    public static final int FULL_PERCENT_BASIS_POINTS = 100_00;
+
+    private Money() {
+    }
+
+    // Line total for a unit price and quantity
+    public static long times(long unitCents, int quantity) {
+        return Math.multiplyExact(unitCents, quantity);
+    }
+
+    // Discount on an amount, rounded half-up to the nearest cent
+    public static long discountAmount(long cents, int basisPoints) {
+        long scaled = Math.multiplyExact(cents, basisPoints);
+        long half = FULL_PERCENT_BASIS_POINTS / 2;
+        return scaled >= 0
+                ? (scaled + half) / FULL_PERCENT_BASIS_POINTS
+                : -((-scaled + half) / FULL_PERCENT_BASIS_POINTS);
+    }
+
+    // Amount left after applying a percentage discount
+    public static long applyDiscount(long cents, int basisPoints) {
+        return cents - discountAmount(cents, basisPoints);
+    }
+
+    // Parse an amount such as "12", "12.5", "$12.50" or "-3.99" into cents.
+    // Digits beyond the second decimal place are rounded half-up.
+    public static long parse(String text) {
+        String value = text.trim();
+        if (value.startsWith("$")) {
+            value = value.substring(1).trim();
+        }
+        return parseHundredths(value, text);
+    }
+
+    // Parse a percentage such as "10" or "12.5" into basis points, accepting 0 to 100
+    public static int parsePercent(String text) {
+        long basisPoints = parseHundredths(text.trim(), text);
+        if (basisPoints < 0 || basisPoints > FULL_PERCENT_BASIS_POINTS) {
+            throw new NumberFormatException("Percentage out of range: " + text);
+        }
+        return (int) basisPoints;
+    }
+
+    private static long parseHundredths(String value, String original) {
+        if (value.isEmpty()) {
+            throw new NumberFormatException("Empty amount");
+        }
+
+        int index = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            index = 1;
+        }
+
+        long whole = 0;
+        int fraction = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        boolean roundUp = false;
+
+        for (; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (c == '.' && !seenPoint) {
+                seenPoint = true;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid amount: " + original);
+            }
+            seenDigit = true;
+            int digit = c - '0';
+            if (!seenPoint) {
+                whole = Math.addExact(Math.multiplyExact(whole, 10), digit);
+            } else if (fractionDigits < 2) {
+                fraction = fraction * 10 + digit;
+                fractionDigits++;
+            } else if (fractionDigits == 2) {
+                roundUp = digit >= 5;
+                fractionDigits++;
+            }
+        }
+
+        if (!seenDigit) {
+            throw new NumberFormatException("Invalid amount: " + original);
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+
+        long hundredths = Math.addExact(Math.multiplyExact(whole, 100), fraction + (roundUp ? 1 : 0));
+        return negative ? -hundredths : hundredths;
+    }
+
+    // "1234.50" style text without a currency symbol
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(16), cents).toString();
+    }
+
+    // "$1234.50" style text
+    public static String formatWithSymbol(long cents) {
+        StringBuilder text = new StringBuilder(17);
+        if (cents < 0) {
+            text.append('-');
+            cents = -cents;
+        }
+        text.append('$');
+        return appendTo(text, cents).toString();
+    }
+
+    // Append an amount to a builder without creating intermediate strings (used for receipts)
+    public static StringBuilder appendTo(StringBuilder text, long cents) {
+        if (cents < 0) {
+            text.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        text.append(cents / 100).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction);
+    }
+
+    // "12.5" style text for a discount in basis points
+    public static String formatPercent(int basisPoints) {
+        StringBuilder text = new StringBuilder(8).append(basisPoints / 100);
+        int fraction = basisPoints % 100;
+        if (fraction != 0) {
+            text.append('.');
+            if (fraction < 10) {
+                text.append('0');
+            }
+            text.append(fraction % 10 == 0 ? fraction / 10 : fraction);
+        }
+        return text.toString();
+    }
+
+    // JDBC boundary: DECIMAL(…, 2) column value to cents
+    public static long fromDecimal(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // JDBC boundary: cents to a DECIMAL(…, 2) parameter
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.supermarketbillingsystem;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Feeds a TableView from the products table one page at a time.
+// TableView only creates cells for the visible rows; when one of the last rows of what is loaded
+// comes into view, the next page is fetched on a database worker and appended.
+// Single-product edits are patched into the loaded rows with upsert()/remove() instead of reloading.
+// All methods are called on the JavaFX application thread.
+public class PagedProductLoader {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private final ObservableList<CatalogItem> items = FXCollections.observableArrayList();
+    private final int pageSize;
+    private final Consumer<Throwable> onError;
+    private final Set<String> loadedCodes = new HashSet<>();  // ProductCatalog.key() of each loaded row
+    private ProductFilter filter = ProductFilter.NONE;
+
+    private String lastCode;     // Product code of the last loaded row; the next page starts after it
+    private boolean exhausted;   // No more rows (or a page failed) until the next reset
+    private boolean loading;
+    private int generation;      // Bumped by reset() so a page requested before it is dropped
+
+    public PagedProductLoader(int pageSize, Consumer<Throwable> onError) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.onError = onError;
+    }
+
+    public ObservableList<CatalogItem> getItems() {
+        return items;
+    }
+
+    // Bind the table to the loaded rows and fetch more as rows near the end are shown
+    public void attach(TableView<CatalogItem> table) {
+        int prefetchDistance = Math.max(1, pageSize / 4);
+        table.setItems(items);
+        table.setRowFactory(view -> new TableRow<>() {
+            @Override
+            public void updateIndex(int index) {
+                super.updateIndex(index);
+                if (index >= 0 && index >= items.size() - prefetchDistance) {
+                    loadNextPage();
+                }
+            }
+        });
+    }
+
+    public ProductFilter getFilter() {
+        return filter;
+    }
+
+    // Apply a new filter and reload from the first matching page
+    public void setFilter(ProductFilter filter) {
+        this.filter = filter;
+        reset();
+    }
+
+    // Drop everything loaded so far and start again from the first page
+    public void reset() {
+        generation++;
+        items.clear();
+        loadedCodes.clear();
+        lastCode = null;
+        exhausted = false;
+        loading = false;
+        loadNextPage();
+    }
+
+    public void loadNextPage() {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        String afterCode = lastCode;
+        ProductFilter pageFilter = filter;
+
+        DbExecutor.submit(() -> Repositories.products().loadPage(afterCode, pageSize, pageFilter),
+                page -> {
+                    if (requestGeneration == generation) {
+                        appendPage(page);
+                    }
+                },
+                error -> {
+                    if (requestGeneration == generation) {
+                        loading = false;
+                        exhausted = true;  // Don't retry on every scroll; reset() tries again
+                        onError.accept(error);
+                    }
+                });
+    }
+
+    private void appendPage(List<CatalogItem> page) {
+        loading = false;
+        if (!page.isEmpty()) {
+            lastCode = page.get(page.size() - 1).getProductCode();
+        }
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+
+        // A product patched in by upsert() may show up again in a later page
+        List<CatalogItem> fresh = new ArrayList<>(page.size());
+        for (CatalogItem item : page) {
+            if (loadedCodes.add(ProductCatalog.key(item.getProductCode()))) {
+                fresh.add(item);
+            }
+        }
+        items.addAll(fresh);
+    }
+
+    // Patch one added or edited product into the loaded rows without going back to the database
+    public void upsert(CatalogItem item) {
+        String code = item.getProductCode();
+        int index = indexOf(code);
+        if (!filter.matches(item)) {
+            // The edit moved it out of the current filter
+            if (index >= 0) {
+                items.remove(index);
+                loadedCodes.remove(ProductCatalog.key(code));
+            }
+            return;
+        }
+        if (index >= 0) {
+            items.set(index, item);
+            return;
+        }
+        // Rows past the last loaded code arrive with a later page
+        if (!exhausted && (lastCode == null || compareCodes(code, lastCode) > 0)) {
+            return;
+        }
+        int position = 0;
+        while (position < items.size() && compareCodes(items.get(position).getProductCode(), code) < 0) {
+            position++;
+        }
+        items.add(position, item);
+        loadedCodes.add(ProductCatalog.key(code));
+    }
+
+    // Drop a deleted product from the loaded rows
+    public void remove(String productCode) {
+        if (!loadedCodes.remove(ProductCatalog.key(productCode))) {
+            return;
+        }
+        int index = indexOf(productCode);
+        if (index >= 0) {
+            items.remove(index);
+        }
+    }
+
+    // Matches codes the way the database does, so "p001" finds the row loaded as "P001"
+    private int indexOf(String productCode) {
+        String key = ProductCatalog.key(productCode);
+        if (!loadedCodes.contains(key)) {
+            return -1;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (ProductCatalog.key(items.get(i).getProductCode()).equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Approximates MySQL's default case-insensitive collation, which orders the pages
+    private static int compareCodes(String a, String b) {
+        return String.CASE_INSENSITIVE_ORDER.compare(a, b);
+    }
+}
@@ -1,20 +1,17 @@
 package com.example.supermarketbillingsystem;
 
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 
 public class PaymentController {
 
@@ -24,106 +21,110 @@ public class PaymentController {
     @FXML
     private TextField cashField;  // Cash input field
 
-    private ObservableList<Product> cart; // Cart containing products
-    private double discount = 0; // To hold the discount value
+    @FXML
+    private Button submitButton;
 
-    // Method to set the cart
-    public void setCart(ObservableList<Product> cart) {
-        this.cart = cart;  // Ensure cart is set correctly
-    }
+    @FXML
+    private Button backButton;
+
+    private BillingSession session; // Billing session whose cart (with its running totals and discount) is being paid
+
+    // True while a checkout is being recorded; the cart and its reservations belong to that checkout until it ends
+    private boolean submitting;
 
-    // Method to set the discount value
-    public void setDiscountValue(double discount) {
-        this.discount = discount;
+    // Method to set the billing session
+    public void setSession(BillingSession session) {
+        this.session = session;
     }
 
     // Handle the submit payment action
     @FXML
     private void submitPayment(ActionEvent event) {
-        String selectedPaymentMethod = paymentMethodComboBox.getValue();
-
-        if (cart == null || cart.isEmpty()) {
+        if (submitting) {
+            return;  // The sale is already being recorded; a second click would record it twice
+        }
+        if (session == null) {
             showError("No items in the cart. Please add items.");
             return;
         }
 
-        if (selectedPaymentMethod == null) {
-            showError("Please select a payment method.");
+        // Recorded in flight recordings from the click until the sale is stored or refused
+        PaymentEvent paymentEvent = new PaymentEvent();
+        paymentEvent.begin();
+        PaymentMethod paymentMethod = PaymentMethod.fromLabel(paymentMethodComboBox.getValue());
+        paymentEvent.paymentMethod = paymentMethod != null ? paymentMethod.getLabel() : null;
+        BillingSession.Checkout checkout;
+        try {
+            // For Cash payment the tendered amount is checked; Card, WeChat and Alipay pay the exact total
+            long paymentCents = 0;
+            if (paymentMethod != null && paymentMethod.isTendered()) {
+                try {
+                    paymentCents = Money.parse(cashField.getText());
+                } catch (NumberFormatException e) {
+                    finishPaymentEvent(paymentEvent, "REFUSED", "Invalid cash amount", null);
+                    showError("Invalid cash amount. Please enter a valid number.");
+                    return;
+                }
+            }
+            checkout = session.beginCheckout(paymentMethod, paymentCents);
+        } catch (BillingException e) {
+            finishPaymentEvent(paymentEvent, "REFUSED", e.getMessage(), null);
+            showError(e.getMessage());
             return;
         }
 
-        double totalAmount = cart.stream().mapToDouble(Product::getTotalPrice).sum();
-        double paymentAmount = 0;
-
-        // For Cash payment
-        if (selectedPaymentMethod.equals("Cash")) {
-            try {
-                paymentAmount = Double.parseDouble(cashField.getText());
-            } catch (NumberFormatException e) {
-                showError("Invalid cash amount. Please enter a valid number.");
+        // Record the sale off the FX thread; the form is locked meanwhile
+        setSubmitting(true);
+        DbExecutor.submit(checkout::record, receipt -> {
+            finishPaymentEvent(paymentEvent, "PAID", null, receipt.getSaleReference());
+
+            // Start a new basket before unlocking, so nothing can release the sold basket's reservations
+            session.completeCheckout();
+            setSubmitting(false);
+            showSuccess("Payment successful! Your change: " + Money.formatWithSymbol(receipt.getChangeCents()));
+            openReceiptScreen(receipt.format());
+        }, error -> {
+            setSubmitting(false);
+            finishPaymentEvent(paymentEvent, error instanceof InsufficientStockException ? "INSUFFICIENT_STOCK" : "ERROR",
+                    error.getMessage(), null);
+            if (error instanceof InsufficientStockException) {
+                // Another workstation sold the last units; nothing was recorded or charged
+                showError("Not enough stock left for: " + session.describeProducts(((InsufficientStockException) error).getProductCodes())
+                        + ". Please go back to billing and reduce or remove those items.");
                 return;
             }
-        }
-        // For Card, WeChat, Alipay (assuming full payment)
-        else {
-            paymentAmount = totalAmount;
-        }
-
-        // Apply discount to the total amount
-        double discountedTotal = totalAmount - (totalAmount * discount / 100);
-
-        // Check if payment is sufficient
-        if (paymentAmount >= discountedTotal) {
-            double change = paymentAmount - discountedTotal;
-            showSuccess("Payment successful! Your change: $" + change);
-
-            // Update total income in the database
-            updateTotalIncome(discountedTotal);
-
-            // Generate the receipt and open the receipt screen
-            String receiptText = generateReceipt(totalAmount, paymentAmount, selectedPaymentMethod, discountedTotal);
-            openReceiptScreen(receiptText);
-        } else {
-            showError("Insufficient payment. Please enter a valid amount.");
-        }
+            error.printStackTrace();
+            showError("Error while recording the sale: " + error.getMessage());
+        });
     }
 
-    // Example method to generate receipt
-    private String generateReceipt(double totalAmount, double paymentAmount, String paymentMethod, double discountedTotal) {
-        StringBuilder receipt = new StringBuilder();
-        receipt.append("Supermarket Receipt\n----------------------\n");
-
-        // Add cart items to the receipt
-        for (Product product : cart) {
-            receipt.append(product.getName()).append(" - $").append(product.getTotalPrice()).append("\n");
-        }
-
-        receipt.append("----------------------\n");
-
-        // Apply discount and show the discounted total
-        if (discount > 0) {
-            receipt.append("Discount: ").append(discount).append("%\n");
-            receipt.append("Discounted Total: $").append(discountedTotal).append("\n");
-        }
-
-        receipt.append("Total: $").append(totalAmount).append("\n");
-        receipt.append("Payment Method: ").append(paymentMethod).append("\n");
-
-        if (paymentMethod.equals("Cash")) {
-            double change = paymentAmount - discountedTotal;
-            receipt.append("Cash Paid: $").append(paymentAmount).append("\n");
-            receipt.append("Change: $").append(change).append("\n");
+    // Commit before any alert, so the event doesn't include the time the dialog stays open
+    private void finishPaymentEvent(PaymentEvent event, String outcome, String message, String saleReference) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.cartLines = session.getCart().getLineCount();
+            event.totalCents = session.getTotalCents();
+            event.outcome = outcome;
+            event.message = message;
+            event.saleReference = saleReference;
+            event.commit();
         }
+    }
 
-        receipt.append("Thank you for shopping with us!");
-        return receipt.toString();
+    // Lock the whole form, navigation included, while the checkout is recorded
+    private void setSubmitting(boolean submitting) {
+        this.submitting = submitting;
+        paymentMethodComboBox.setDisable(submitting);
+        cashField.setDisable(submitting);
+        submitButton.setDisable(submitting);
+        backButton.setDisable(submitting);
     }
 
     // Example method to navigate to the receipt screen
     private void openReceiptScreen(String receiptText) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/supermarketbillingsystem/receipt.fxml"));
-            Parent receiptView = loader.load();
+            FXMLLoader loader = ScreenLoader.load("receipt.fxml");
+            Parent receiptView = loader.getRoot();
 
             // Get the ReceiptController and set the receipt text
             ReceiptController receiptController = loader.getController();
@@ -141,33 +142,6 @@ public class PaymentController {
         }
     }
 
-    // Update total income in the database
-    private void updateTotalIncome(double totalAmount) {
-        String insertSaleQuery = "INSERT INTO sales (sale_date, total_amount) VALUES (NOW(), ?)";
-        String totalIncomeQuery = "SELECT SUM(total_amount) AS total_income FROM sales";
-
-        try (Connection conn = DatabaseUtil.connect()) {
-            // Insert the new sale into the sales table
-            try (PreparedStatement stmtInsert = conn.prepareStatement(insertSaleQuery)) {
-                stmtInsert.setDouble(1, totalAmount);
-                stmtInsert.executeUpdate();
-            }
-
-            // Retrieve the updated total income
-            try (PreparedStatement stmtSelect = conn.prepareStatement(totalIncomeQuery)) {
-                var resultSet = stmtSelect.executeQuery();
-                if (resultSet.next()) {
-                    double totalIncome = resultSet.getDouble("total_income");
-                    System.out.println("Total Income updated: $" + totalIncome);
-                    // Optionally, update the UI or database with this value
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error while updating total income.");
-            e.printStackTrace();
-        }
-    }
-
     // Show success message
     private void showSuccess(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -194,8 +168,19 @@ public class PaymentController {
     // Method to navigate back to the Billing screen
     @FXML
     private void goBackToBilling(ActionEvent event) {
+        if (submitting) {
+            return;  // The cart belongs to the checkout being recorded until it ends
+        }
         try {
-            Parent billingView = FXMLLoader.load(getClass().getResource("/com/example/supermarketbillingsystem/billing.fxml"));
+            FXMLLoader loader = ScreenLoader.load("billing.fxml");
+            Parent billingView = loader.getRoot();
+
+            // Keep the basket (and its reservations) so the cashier can change it and pay again
+            if (session != null) {
+                BillingController billingController = loader.getController();
+                billingController.resumeSession(session);
+            }
+
             Scene billingScene = new Scene(billingView);
             Stage window = (Stage) paymentMethodComboBox.getScene().getWindow();
             window.setScene(billingScene);
@@ -0,0 +1,36 @@
+package com.example.supermarketbillingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// PaymentController.submitPayment: from the Submit click until the sale is recorded or refused
+@Name("com.example.supermarketbillingsystem.Payment")
+@Label("Payment")
+@Category({"Supermarket Billing", "Billing"})
+@Description("A payment submitted on the payment screen, until its sale is recorded or refused")
+@StackTrace(false)
+final class PaymentEvent extends Event {
+
+    @Label("Payment Method")
+    String paymentMethod;
+
+    @Label("Cart Lines")
+    int cartLines;
+
+    @Label("Total (cents)")
+    long totalCents;
+
+    @Label("Sale Reference")
+    String saleReference;
+
+    @Label("Outcome")
+    @Description("PAID, REFUSED (validation), INSUFFICIENT_STOCK or ERROR")
+    String outcome;
+
+    @Label("Message")
+    String message;
+}
@@ -0,0 +1,38 @@
+package com.example.supermarketbillingsystem;
+
+// How a basket is paid. Only cash is tendered by amount; the others are charged the exact total.
+public enum PaymentMethod {
+    CASH("Cash"),
+    CARD("Card"),
+    WECHAT("WeChat"),
+    ALIPAY("Alipay");
+
+    private final String label;
+
+    PaymentMethod(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isTendered() {
+        return this == CASH;
+    }
+
+    // The method shown with this label (as on the payment screen), or null if there is none
+    public static PaymentMethod fromLabel(String label) {
+        for (PaymentMethod method : values()) {
+            if (method.label.equalsIgnoreCase(label)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -4,17 +4,17 @@ import javafx.beans.property.*;
 
 public class Product {
     private StringProperty name;
-    private StringProperty category;
+    private String category;  // Never bound to a column, so no property is needed
     private IntegerProperty quantity;
-    private DoubleProperty price;
+    private LongProperty priceCents;  // Unit price in cents
     private String productCode;
 
-    public Product(String name, String category, String productCode, int quantity, double price) {
+    public Product(String name, String category, String productCode, int quantity, long priceCents) {
         this.name = new SimpleStringProperty(name);
-        this.category = new SimpleStringProperty(category);
+        this.category = category;
         this.productCode = productCode;
         this.quantity = new SimpleIntegerProperty(quantity);  // This is the editable quantity
-        this.price = new SimpleDoubleProperty(price);
+        this.priceCents = new SimpleLongProperty(priceCents);
     }
 
     public String getProductCode() {
@@ -30,7 +30,7 @@ public class Product {
     }
 
     public String getCategory() {
-        return category.get();
+        return category;
     }
 
     public Integer getQuantity() {
@@ -45,19 +45,19 @@ public class Product {
         this.quantity.set(quantity);  // Allow updating the quantity
     }
 
-    public double getPrice() {
-        return price.get();
+    public long getPriceCents() {
+        return priceCents.get();
     }
 
-    public DoubleProperty priceProperty() {
-        return price;
+    public LongProperty priceCentsProperty() {
+        return priceCents;
     }
 
-    public void setPrice(double price) {
-        this.price.set(price);
+    public void setPriceCents(long priceCents) {
+        this.priceCents.set(priceCents);
     }
 
-    public double getTotalPrice() {
-        return price.get() * quantity.get();  // Total price = quantity * price
+    public long getTotalPriceCents() {
+        return Money.times(priceCents.get(), quantity.get());  // Total price = quantity * price
     }
 }
@@ -0,0 +1,228 @@
+package com.example.supermarketbillingsystem;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process product catalog indexed by product_code.
+// Loaded once at startup and kept fresh by invalidating entries whenever products are written.
+// Also feeds the code/name search index used by the billing search box.
+// Every full load is saved as a local snapshot, which is what the catalog starts from when the database is down.
+// The cache and the code filter are keyed by key(productCode), so they match codes the way the database does.
+public final class ProductCatalog {
+
+    private static final Map<String, CatalogItem> itemsByCode = new ConcurrentHashMap<>();
+
+    private static final ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    // Every known product code; only trusted for "no" answers once the catalog has been loaded
+    private static volatile ProductCodeFilter codeFilter = new ProductCodeFilter(0);
+
+    // Bumped on every invalidation so a lookup that raced with a write doesn't cache stale data
+    private static final AtomicLong generation = new AtomicLong();
+
+    private static volatile boolean loaded;
+    private static volatile boolean fromSnapshot;
+
+    private ProductCatalog() {
+    }
+
+    // product_code compares case-insensitively and ignoring trailing spaces in MySQL, so "p001 " is the
+    // product stored as "P001": the cache must find it and the filter must not reject it
+    static String key(String productCode) {
+        return productCode.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Load the whole products table into memory
+    public static void loadAll() throws SQLException {
+        long startGeneration = generation.get();
+        Map<String, CatalogItem> fresh = Repositories.products().loadAll();
+        install(fresh, startGeneration);
+        fromSnapshot = false;
+        saveSnapshot();
+    }
+
+    // Start from the local snapshot when the database can't be reached; false if there is none
+    public static boolean loadFromSnapshot() {
+        long startGeneration = generation.get();
+        Map<String, CatalogItem> saved = new HashMap<>();
+        for (CatalogItem item : CatalogSnapshot.load()) {
+            saved.put(item.getProductCode(), item);
+        }
+        if (saved.isEmpty()) {
+            return false;
+        }
+        install(saved, startGeneration);
+        fromSnapshot = true;
+        return true;
+    }
+
+    private static void install(Map<String, CatalogItem> loadedItems, long startGeneration) {
+        Map<String, CatalogItem> fresh = new HashMap<>(loadedItems.size() * 4 / 3 + 1);
+        for (CatalogItem item : loadedItems.values()) {
+            fresh.put(key(item.getProductCode()), item);
+        }
+        if (generation.get() == startGeneration) {
+            itemsByCode.keySet().retainAll(fresh.keySet());
+            itemsByCode.putAll(fresh);
+        } else {
+            // Products were written while loading; keep only what doesn't conflict with newer invalidations
+            fresh.forEach(itemsByCode::putIfAbsent);
+        }
+        searchIndex.rebuild(itemsByCode.values());
+        codeFilter = ProductCodeFilter.of(itemsByCode.keySet());
+        loaded = true;
+    }
+
+    // Save the cached catalog, including stock sold since the last load, for the next offline start
+    // (only database-backed catalogs; the in-memory storage starts from its seed data every time)
+    public static void saveSnapshot() {
+        if (!loaded || !Repositories.usesDatabase()) {
+            return;
+        }
+        try {
+            CatalogSnapshot.save(new ArrayList<>(itemsByCode.values()));
+        } catch (IOException e) {
+            System.err.println("Could not save catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    // True while the catalog comes from the local snapshot rather than the database
+    public static boolean isFromSnapshot() {
+        return fromSnapshot;
+    }
+
+    // Look up a product only in memory; returns null on a cache miss
+    public static CatalogItem getCached(String productCode) {
+        return itemsByCode.get(key(productCode));
+    }
+
+    // False when the product code is certainly unknown, so a mis-scan can be rejected without the database.
+    // Products inserted from another workstation become known at the next catalog load.
+    public static boolean mightExist(String productCode) {
+        return !loaded || codeFilter.mightContain(key(productCode));
+    }
+
+    // Look up a product, falling back to the database on a cache miss; returns null if it doesn't exist
+    public static CatalogItem get(String productCode) {
+        String key = key(productCode);
+        CatalogItem item = itemsByCode.get(key);
+        if (item != null) {
+            return item;
+        }
+        if (!mightExist(productCode) || !ConnectivityMonitor.isOnline()) {
+            return null;
+        }
+
+        Metrics.CATALOG_MISSES.increment();
+        long startGeneration = generation.get();
+        try {
+            item = Repositories.products().findByCode(productCode);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (item != null && generation.get() == startGeneration) {
+            itemsByCode.put(key, item);
+            searchIndex.add(item);
+        }
+        if (item != null) {
+            addKnownCode(key);
+        }
+        return item;
+    }
+
+    // Write an edited product and cache the row as stored. The row keeps its own spelling of the code (P001
+    // edited as "p001"), and the catalog, product tables and carts must all use that one spelling.
+    // Returns the stored product, or null if there is no product with that code.
+    public static CatalogItem update(CatalogItem edited) throws SQLException {
+        String productCode = edited.getProductCode();
+        if (!Repositories.products().update(edited)) {
+            return null;
+        }
+        CatalogItem stored = Repositories.products().findByCode(productCode);
+        if (stored == null) {
+            invalidate(productCode);  // Deleted again in the meantime
+            return null;
+        }
+        put(stored);
+        return stored;
+    }
+
+    // Store a product we just added or re-read from the database
+    public static void put(CatalogItem item) {
+        generation.incrementAndGet();
+        String key = key(item.getProductCode());
+        itemsByCode.put(key, item);
+        searchIndex.add(item);
+        addKnownCode(key);
+    }
+
+    private static void addKnownCode(String key) {
+        codeFilter.add(key);
+        if (codeFilter.isOverCapacity()) {
+            // Many products were added since the last load; resize so the false positive rate stays low
+            synchronized (ProductCatalog.class) {
+                if (codeFilter.isOverCapacity()) {
+                    codeFilter = ProductCodeFilter.of(itemsByCode.keySet());
+                }
+            }
+        }
+    }
+
+    // Re-read one product after its cached stock turned out to be stale
+    public static void refresh(String productCode) {
+        try {
+            CatalogItem item = Repositories.products().findByCode(productCode);
+            if (item != null) {
+                put(item);
+            } else {
+                invalidate(productCode);
+            }
+        } catch (SQLException e) {
+            if (ConnectivityMonitor.isOnline()) {
+                e.printStackTrace();
+                invalidate(productCode);
+            }
+            // Offline: keep selling from the cached entry, the shipped sale will be checked
+        }
+    }
+
+    // Drop a cached product after it was deleted (or when its new values are unknown)
+    public static void invalidate(String productCode) {
+        generation.incrementAndGet();
+        CatalogItem removed = itemsByCode.remove(key(productCode));
+        searchIndex.remove(removed != null ? removed.getProductCode() : productCode);  // Indexed under the stored code
+    }
+
+    // Ranked matches for what the cashier typed: code or name prefixes first, then fuzzy name matches
+    public static List<CatalogItem> search(String text, int limit) {
+        List<CatalogItem> results = new ArrayList<>(limit);
+        for (String code : searchIndex.search(text, limit)) {
+            CatalogItem item = itemsByCode.get(key(code));
+            if (item != null) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    // Mirror a stock change we just wrote to the database
+    public static void adjustQuantity(String productCode, int delta) {
+        itemsByCode.computeIfPresent(key(productCode), (code, item) -> item.withQuantity(item.getQuantity() + delta));
+    }
+
+    public static int size() {
+        return itemsByCode.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.supermarketbillingsystem;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over product codes.
+// mightContain() never answers false for a code that was added, so a "false" means the code is unknown
+// and the database doesn't need to be asked. A "true" may occasionally be wrong (about 1% at capacity).
+// Codes cannot be removed; a deleted product just costs one database lookup until the next rebuild.
+// Codes are matched exactly, so ProductCatalog adds and tests them as ProductCatalog.key(code).
+public class ProductCodeFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int capacity;
+    private final AtomicInteger addedCount = new AtomicInteger();
+
+    // Size the filter for the expected number of codes
+    public ProductCodeFilter(int capacity) {
+        this.capacity = Math.max(capacity, 64);
+        double ln2 = Math.log(2);
+        long bitsNeeded = (long) Math.ceil(-this.capacity * Math.log(FALSE_POSITIVE_RATE) / (ln2 * ln2));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bitsNeeded));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * ln2));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    // Build a filter with headroom for products added after the catalog load
+    public static ProductCodeFilter of(Collection<String> productCodes) {
+        ProductCodeFilter filter = new ProductCodeFilter(productCodes.size() * 2);
+        for (String productCode : productCodes) {
+            filter.add(productCode);
+        }
+        return filter;
+    }
+
+    public void add(String productCode) {
+        long hash = hash(productCode);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            bits.accumulateAndGet(bit >>> 6, mask, (current, added) -> current | added);
+        }
+        addedCount.incrementAndGet();
+    }
+
+    public boolean mightContain(String productCode) {
+        long hash = hash(productCode);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Past its capacity the false positive rate climbs, so the owner should rebuild it
+    public boolean isOverCapacity() {
+        return addedCount.get() > capacity;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, then a final mix so both halves are usable as hashes
+    private static long hash(String productCode) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < productCode.length(); i++) {
+            hash ^= productCode.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.supermarketbillingsystem;
+
+// Optional filter for paged product queries: an exact category and/or a piece of the product name.
+// JdbcProductRepository turns it into a WHERE clause; matches() applies the same test in memory
+// so a table can decide whether an edited product still belongs on screen.
+public final class ProductFilter {
+
+    public static final ProductFilter NONE = new ProductFilter(null, null);
+
+    private final String category;      // null matches any category
+    private final String nameContains;  // null matches any name
+
+    private ProductFilter(String category, String nameContains) {
+        this.category = category;
+        this.nameContains = nameContains;
+    }
+
+    // Blank fields mean "no filter" for that field
+    public static ProductFilter of(String category, String nameContains) {
+        String cleanCategory = blankToNull(category);
+        String cleanName = blankToNull(nameContains);
+        if (cleanCategory == null && cleanName == null) {
+            return NONE;
+        }
+        return new ProductFilter(cleanCategory, cleanName);
+    }
+
+    private static String blankToNull(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        return text.trim();
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    public boolean isEmpty() {
+        return category == null && nameContains == null;
+    }
+
+    // Same rules as the SQL: case-insensitive category equality and name substring
+    public boolean matches(CatalogItem item) {
+        if (category != null && (item.getCategory() == null || !item.getCategory().equalsIgnoreCase(category))) {
+            return false;
+        }
+        if (nameContains != null) {
+            String name = item.getName();
+            return name != null && name.toLowerCase().contains(nameContains.toLowerCase());
+        }
+        return true;
+    }
+
+    // LIKE pattern for the name filter, with the LIKE wildcards in the user's text escaped
+    String getNameLikePattern() {
+        StringBuilder pattern = new StringBuilder(nameContains.length() + 2).append('%');
+        for (int i = 0; i < nameContains.length(); i++) {
+            char c = nameContains.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.supermarketbillingsystem;
 
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -12,10 +13,8 @@ import javafx.scene.control.TextField;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.util.converter.IntegerStringConverter;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.text.DecimalFormat;
+import java.util.function.Consumer;
 
 public class ProductInventoryController {
 
@@ -29,7 +28,7 @@ public class ProductInventoryController {
     private TableColumn<Product, Integer> qtyCol;
 
     @FXML
-    private TableColumn<Product, Double> priceCol;
+    private TableColumn<Product, String> priceCol;
 
     @FXML
     private TextField nameField;
@@ -50,7 +49,7 @@ public class ProductInventoryController {
         // Bind the table columns to the Product properties
         itemCol.setCellValueFactory(cellData -> cellData.getValue().nameProperty());
         qtyCol.setCellValueFactory(cellData -> cellData.getValue().quantityProperty().asObject());
-        priceCol.setCellValueFactory(cellData -> cellData.getValue().priceProperty().asObject());
+        priceCol.setCellValueFactory(cellData -> new SimpleStringProperty(Money.format(cellData.getValue().getPriceCents())));
 
         qtyCol.setCellFactory(TextFieldTableCell.forTableColumn(new IntegerStringConverter()));
 
@@ -75,10 +74,12 @@ public class ProductInventoryController {
 
     // Add product to the cart with a default quantity of 1
     public void addProductToCart(String productCode, int quantityToAdd) {
-        Product product = getProductFromDatabase(productCode);
+        getProductFromDatabase(productCode, item -> addProductToCart(item, quantityToAdd));
+    }
 
-        if (product != null) {
-            int availableStock = product.getQuantity();
+    private void addProductToCart(CatalogItem item, int quantityToAdd) {
+        if (item != null) {
+            int availableStock = item.getQuantity();
 
             // If no quantity is specified, set the default quantity to 1
             if (quantityToAdd == 0) {
@@ -86,27 +87,44 @@ public class ProductInventoryController {
             }
 
             // Check if the quantity is within available stock
-            if (quantityToAdd <= availableStock) {
-                product.setQuantity(quantityToAdd);  // Set the quantity in the product
-                cart.add(product);  // Add product to the cart
-                updateTotal();  // Update the total
-                updateProductStockInDatabase(product, quantityToAdd);  // Update stock in database
-            } else {
+            if (quantityToAdd > availableStock) {
                 showError("Not enough stock available. Only " + availableStock + " units available.");
+                return;
             }
+
+            // The database re-checks the stock in the same statement that takes it (on a DbExecutor worker)
+            int quantity = quantityToAdd;
+            DbExecutor.submit(() -> updateProductStockInDatabase(item.getProductCode(), quantity), taken -> {
+                if (taken) {
+                    Product product = item.toProduct(quantity);  // Create the cart row with the quantity
+                    cart.add(product);  // Add product to the cart
+                    updateTotal();  // Update the total
+                } else {
+                    showError("Not enough stock available. Only " + availableStock + " units available.");
+                }
+            }, error -> {
+                showError("Error while updating product stock in database.");
+                error.printStackTrace();
+            });
         }
     }
 
-    // Fetch product from the database
-    private Product getProductFromDatabase(String productCode) {
-        return DatabaseUtil.getProductByCode(productCode);
+    // Fetch product from the catalog; a miss that needs the database is looked up on a DbExecutor worker
+    private void getProductFromDatabase(String productCode, Consumer<CatalogItem> onFound) {
+        if (!BillingSession.needsDatabaseLookup(productCode)) {
+            onFound.accept(DatabaseUtil.getProductByCode(productCode));
+            return;
+        }
+        DbExecutor.submit(() -> DatabaseUtil.getProductByCode(productCode), onFound, error -> {
+            showError("Error while looking up the product.");
+            error.printStackTrace();
+        });
     }
 
     // Update the total price label
     private void updateTotal() {
-        double total = cart.stream().mapToDouble(Product::getTotalPrice).sum();
-        DecimalFormat df = new DecimalFormat("0.00");
-        // You can update the label here for total (e.g. totalLabel.setText(df.format(total)))
+        long totalCents = cart.stream().mapToLong(Product::getTotalPriceCents).sum();
+        // You can update the label here for total (e.g. totalLabel.setText(Money.format(totalCents)))
     }
 
     @FXML
@@ -114,13 +132,14 @@ public class ProductInventoryController {
         String searchCode = searchField.getText().trim();
 
         if (!searchCode.isEmpty()) {
-            Product product = getProductFromDatabase(searchCode);
-            if (product != null) {
-                // Add product with a default quantity of 1
-                addProductToCart(searchCode, 0);  // 0 here indicates that the default quantity should be 1
-            } else {
-                showError("Product not found.");
-            }
+            getProductFromDatabase(searchCode, item -> {
+                if (item != null) {
+                    // Add product with a default quantity of 1
+                    addProductToCart(item, 0);  // 0 here indicates that the default quantity should be 1
+                } else {
+                    showError("Product not found.");
+                }
+            });
         }
     }
 
@@ -132,18 +151,13 @@ public class ProductInventoryController {
         alert.showAndWait();
     }
 
-    // Method to update product stock in the database
-    private void updateProductStockInDatabase(Product product, int quantityToAdd) {
-        try (Connection conn = DatabaseUtil.connect()) {
-            String query = "UPDATE products SET quantity = quantity - ? WHERE product_code = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setInt(1, quantityToAdd);  // Subtract the added quantity
-                stmt.setString(2, product.getProductCode());
-                stmt.executeUpdate();  // Update stock in the database
-            }
-        } catch (SQLException e) {
-            showError("Error while updating product stock in database.");
-            e.printStackTrace();
+    // Method to update product stock in the database; false if there wasn't enough left (runs on a DbExecutor worker)
+    private boolean updateProductStockInDatabase(String productCode, int quantityToAdd) throws SQLException {
+        if (!Repositories.products().tryDecrement(productCode, quantityToAdd)) {
+            ProductCatalog.refresh(productCode);  // Cached stock was stale
+            return false;
         }
+        ProductCatalog.adjustQuantity(productCode, -quantityToAdd);
+        return true;
     }
 }
@@ -1,36 +1,35 @@
 package com.example.supermarketbillingsystem;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
-import java.sql.*;
 
 public class ProductManagementController {
 
     @FXML
-    private TableView<Product> productTable;
+    private TableView<CatalogItem> productTable;
 
     @FXML
-    private TableColumn<Product, String> productCodeColumn;
+    private TableColumn<CatalogItem, String> productCodeColumn;
 
     @FXML
-    private TableColumn<Product, String> nameColumn;
+    private TableColumn<CatalogItem, String> nameColumn;
 
     @FXML
-    private TableColumn<Product, String> categoryColumn;
+    private TableColumn<CatalogItem, String> categoryColumn;
 
     @FXML
-    private TableColumn<Product, Integer> quantityColumn;
+    private TableColumn<CatalogItem, Integer> quantityColumn;
 
     @FXML
-    private TableColumn<Product, Double> priceColumn;
+    private TableColumn<CatalogItem, String> priceColumn;
 
     @FXML
-    private TableColumn<Product, Double> totalPriceColumn;
+    private TableColumn<CatalogItem, String> totalPriceColumn;
 
     @FXML
     private TextField productCodeField;
@@ -47,6 +46,15 @@ public class ProductManagementController {
     @FXML
     private TextField priceField;
 
+    @FXML
+    private TextField categoryFilterField;
+
+    @FXML
+    private TextField nameFilterField;
+
+    @FXML
+    private Label statusLabel;
+
     @FXML
     private Button addButton;
 
@@ -59,7 +67,11 @@ public class ProductManagementController {
     @FXML
     private Button clearButton;
 
-    private ObservableList<Product> productList;
+    // Pages of products (filtered in SQL) that the table shows; edits are patched in one row at a time
+    private final PagedProductLoader productLoader = new PagedProductLoader(PagedProductLoader.DEFAULT_PAGE_SIZE, error -> {
+        showAlert("Error", "Failed to load products: " + error.getMessage());
+        error.printStackTrace();
+    });
 
     public ProductManagementController() {
         // Constructor
@@ -68,20 +80,22 @@ public class ProductManagementController {
     @FXML
     private void initialize() {
         // Set up table columns
-        productCodeColumn.setCellValueFactory(new PropertyValueFactory<>("productCode"));
-        nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
-        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("category"));
-        quantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
-        priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
+        productCodeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getProductCode()));
+        nameColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getName()));
+        categoryColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getCategory()));
+        quantityColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getQuantity()));
+        priceColumn.setCellValueFactory(cellData -> new SimpleStringProperty(Money.format(cellData.getValue().getPriceCents())));
 
         // Fix for total price column
         totalPriceColumn.setCellValueFactory(cellData -> {
-            Product product = cellData.getValue();
-            return new javafx.beans.property.SimpleDoubleProperty(product.getTotalPrice()).asObject();
+            CatalogItem item = cellData.getValue();
+            return new SimpleStringProperty(Money.format(Money.times(item.getPriceCents(), item.getQuantity())));
         });
 
-        // Load data
-        loadProducts();
+        // Load the first page; more pages are fetched as the table scrolls
+        productLoader.attach(productTable);
+        productLoader.getItems().addListener((ListChangeListener<CatalogItem>) change -> updateStatus());
+        productLoader.reset();
 
         // Table selection listener
         productTable.getSelectionModel().selectedItemProperty().addListener(
@@ -93,40 +107,31 @@ public class ProductManagementController {
         );
     }
 
-    private void loadProducts() {
-        productList = FXCollections.observableArrayList();
-        try {
-            Connection conn = DatabaseUtil.connect();
-            String query = "SELECT product_code, product_name, category, quantity, price FROM products";
-            PreparedStatement statement = conn.prepareStatement(query);
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-                Product product = new Product(
-                        resultSet.getString("product_name"),
-                        resultSet.getString("category"),
-                        resultSet.getString("product_code"),
-                        resultSet.getInt("quantity"),
-                        resultSet.getDouble("price")
-                );
-                productList.add(product);
-            }
+    // Reload with the category / name filter typed by the manager (the filter runs in SQL)
+    @FXML
+    private void handleFilter() {
+        productLoader.setFilter(ProductFilter.of(categoryFilterField.getText(), nameFilterField.getText()));
+    }
 
-            productTable.setItems(productList);
-            conn.close();
+    @FXML
+    private void handleClearFilter() {
+        categoryFilterField.clear();
+        nameFilterField.clear();
+        productLoader.setFilter(ProductFilter.NONE);
+    }
 
-        } catch (SQLException e) {
-            showAlert("Error", "Failed to load products: " + e.getMessage());
-            e.printStackTrace();
+    private void updateStatus() {
+        if (statusLabel != null) {
+            statusLabel.setText(productLoader.getItems().size() + " products loaded");
         }
     }
 
-    private void populateFields(Product product) {
+    private void populateFields(CatalogItem product) {
         productCodeField.setText(product.getProductCode());
         nameField.setText(product.getName());
         categoryField.setText(product.getCategory());
         quantityField.setText(String.valueOf(product.getQuantity()));
-        priceField.setText(String.valueOf(product.getPrice()));
+        priceField.setText(Money.format(product.getPriceCents()));
     }
 
     @FXML
@@ -136,34 +141,29 @@ public class ProductManagementController {
             String name = nameField.getText().trim();
             String category = categoryField.getText().trim();
             int quantity = Integer.parseInt(quantityField.getText().trim());
-            double price = Double.parseDouble(priceField.getText().trim());
+            long priceCents = Money.parse(priceField.getText());
 
             if (productCode.isEmpty() || name.isEmpty() || category.isEmpty()) {
                 showAlert("Validation Error", "Please fill all required fields");
                 return;
             }
 
-            Connection conn = DatabaseUtil.connect();
-            String query = "INSERT INTO products (product_code, product_name, category, quantity, price) VALUES (?, ?, ?, ?, ?)";
-            PreparedStatement statement = conn.prepareStatement(query);
-            statement.setString(1, productCode);
-            statement.setString(2, name);
-            statement.setString(3, category);
-            statement.setInt(4, quantity);
-            statement.setDouble(5, price);
-
-            statement.executeUpdate();
-
-            showAlert("Success", "Product added successfully!");
-            clearFields();
-            loadProducts();
-            conn.close();
+            CatalogItem product = new CatalogItem(productCode, name, category, quantity, priceCents);
+            DbExecutor.submit(() -> {
+                Repositories.products().insert(product);
+                ProductCatalog.put(product);
+                return null;
+            }, result -> {
+                productLoader.upsert(product);  // Patch the one new row into the table
+                showAlert("Success", "Product added successfully!");
+                clearFields();
+            }, error -> {
+                showAlert("Database Error", "Failed to add product: " + error.getMessage());
+                error.printStackTrace();
+            });
 
         } catch (NumberFormatException e) {
             showAlert("Input Error", "Please enter valid numbers for quantity and price");
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to add product: " + e.getMessage());
-            e.printStackTrace();
         }
     }
 
@@ -174,77 +174,63 @@ public class ProductManagementController {
             String name = nameField.getText().trim();
             String category = categoryField.getText().trim();
             int quantity = Integer.parseInt(quantityField.getText().trim());
-            double price = Double.parseDouble(priceField.getText().trim());
+            long priceCents = Money.parse(priceField.getText());
 
             if (productCode.isEmpty() || name.isEmpty() || category.isEmpty()) {
                 showAlert("Validation Error", "Please fill all required fields");
                 return;
             }
 
-            Connection conn = DatabaseUtil.connect();
-            String query = "UPDATE products SET product_name=?, category=?, quantity=?, price=? WHERE product_code=?";
-            PreparedStatement statement = conn.prepareStatement(query);
-            statement.setString(1, name);
-            statement.setString(2, category);
-            statement.setInt(3, quantity);
-            statement.setDouble(4, price);
-            statement.setString(5, productCode);
-
-            int rowsAffected = statement.executeUpdate();
-
-            if (rowsAffected > 0) {
-                showAlert("Success", "Product updated successfully!");
-                clearFields();
-                loadProducts();
-            } else {
-                showAlert("Error", "No product found with the given code");
-            }
-            conn.close();
+            CatalogItem product = new CatalogItem(productCode, name, category, quantity, priceCents);
+            DbExecutor.submit(() -> ProductCatalog.update(product), stored -> {
+                if (stored != null) {
+                    productLoader.upsert(stored);  // Replace just the edited row
+                    showAlert("Success", "Product updated successfully!");
+                    clearFields();
+                } else {
+                    showAlert("Error", "No product found with the given code");
+                }
+            }, error -> {
+                showAlert("Database Error", "Failed to update product: " + error.getMessage());
+                error.printStackTrace();
+            });
 
         } catch (NumberFormatException e) {
             showAlert("Input Error", "Please enter valid numbers for quantity and price");
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to update product: " + e.getMessage());
-            e.printStackTrace();
         }
     }
 
     @FXML
     private void handleDeleteProduct() {
-        try {
-            String productCode = productCodeField.getText().trim();
+        String productCode = productCodeField.getText().trim();
 
-            if (productCode.isEmpty()) {
-                showAlert("Validation Error", "Please select a product to delete");
-                return;
-            }
-
-            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-            alert.setTitle("Confirm Delete");
-            alert.setHeaderText("Are you sure you want to delete this product?");
-            alert.setContentText("This action cannot be undone.");
-
-            if (alert.showAndWait().get() == ButtonType.OK) {
-                Connection conn = DatabaseUtil.connect();
-                String query = "DELETE FROM products WHERE product_code=?";
-                PreparedStatement statement = conn.prepareStatement(query);
-                statement.setString(1, productCode);
-
-                int rowsAffected = statement.executeUpdate();
+        if (productCode.isEmpty()) {
+            showAlert("Validation Error", "Please select a product to delete");
+            return;
+        }
 
-                if (rowsAffected > 0) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Confirm Delete");
+        alert.setHeaderText("Are you sure you want to delete this product?");
+        alert.setContentText("This action cannot be undone.");
+
+        if (alert.showAndWait().get() == ButtonType.OK) {
+            DbExecutor.submit(() -> {
+                boolean deleted = Repositories.products().delete(productCode);
+                ProductCatalog.invalidate(productCode);
+                return deleted;
+            }, deleted -> {
+                if (deleted) {
+                    productLoader.remove(productCode);  // Drop just the deleted row
                     showAlert("Success", "Product deleted successfully!");
                     clearFields();
-                    loadProducts();
                 } else {
                     showAlert("Error", "No product found with the given code");
                 }
-                conn.close();
-            }
-
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to delete product: " + e.getMessage());
-            e.printStackTrace();
+            }, error -> {
+                showAlert("Database Error", "Failed to delete product: " + error.getMessage());
+                error.printStackTrace();
+            });
         }
     }
 
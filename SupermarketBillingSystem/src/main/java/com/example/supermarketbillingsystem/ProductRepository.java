@@ -0,0 +1,33 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Storage for the products table (see Repositories for how the implementation is chosen).
+// Reads return immutable CatalogItems; callers keep ProductCatalog in step with what they write.
+public interface ProductRepository {
+
+    // Every product, keyed by product code
+    Map<String, CatalogItem> loadAll() throws SQLException;
+
+    // One product, or null if there is none with that code
+    CatalogItem findByCode(String productCode) throws SQLException;
+
+    // One page of products matching the filter, ordered by product code, starting after afterCode (null for the first page)
+    List<CatalogItem> loadPage(String afterCode, int pageSize, ProductFilter filter) throws SQLException;
+
+    void insert(CatalogItem item) throws SQLException;
+
+    // Replace name, category, price and quantity; false if there is no product with that code
+    boolean update(CatalogItem item) throws SQLException;
+
+    // False if there was no product with that code
+    boolean delete(String productCode) throws SQLException;
+
+    // Take units from stock if at least that many are left, in one atomic step
+    boolean tryDecrement(String productCode, int units) throws SQLException;
+
+    // Put units back into stock
+    void addStock(String productCode, int units) throws SQLException;
+}
@@ -0,0 +1,287 @@
+package com.example.supermarketbillingsystem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// In-memory search over product codes and names for the billing search box.
+// - Prefix matches: a sorted map from lower-cased keys (the code and each word of the name) to product codes;
+//   every key starting with the typed text is one contiguous range of the map, like a subtree of a trie.
+// - Fuzzy matches: an index from character trigrams to the distinct words used in product names.
+//   A typed word is compared against that vocabulary by trigram overlap ("tomatoe" finds "tomato"),
+//   and the products using the closest words are returned. The vocabulary is far smaller than the catalog.
+// Writers (catalog loads and product edits) are serialized; searches run without locking.
+// A full rebuild fills plain maps and swaps them in, so searches never see a half-built index.
+public class ProductSearchIndex {
+
+    // Scores; higher ranks first
+    private static final int EXACT_CODE_SCORE = 1000;
+    private static final int CODE_PREFIX_SCORE = 800;
+    private static final int NAME_PREFIX_SCORE = 700;
+    private static final int WORD_PREFIX_SCORE = 600;
+    private static final int FUZZY_MAX_SCORE = 500;
+
+    // Minimum trigram similarity (Dice coefficient) for a fuzzy match
+    private static final double FUZZY_THRESHOLD = 0.35;
+
+    // Stop collecting prefix candidates after this many per requested result
+    private static final int CANDIDATES_PER_RESULT = 20;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private volatile NavigableMap<String, Set<String>> codesByKey = new ConcurrentSkipListMap<>();
+    private volatile Map<String, Set<String>> wordsByTrigram = new ConcurrentHashMap<>();
+    private volatile Map<String, Entry> entriesByCode = new ConcurrentHashMap<>();
+    private Map<String, Integer> wordUseCounts = new HashMap<>();  // Only touched by writers
+
+    // Replace the whole index with the given products
+    public synchronized void rebuild(Collection<CatalogItem> items) {
+        NavigableMap<String, Set<String>> keys = new TreeMap<>();
+        Map<String, Set<String>> trigramWords = new HashMap<>();
+        Map<String, Integer> useCounts = new HashMap<>();
+        Map<String, Entry> entries = new ConcurrentHashMap<>(items.size() * 4 / 3 + 1);
+
+        for (CatalogItem item : items) {
+            Entry entry = new Entry(item.getProductCode(), item.getName());
+            if (entries.put(entry.code, entry) == null) {
+                index(entry, keys, trigramWords, useCounts);
+            }
+        }
+
+        // Building the skip list from a sorted map is linear, unlike inserting keys one by one
+        codesByKey = new ConcurrentSkipListMap<>(keys);
+        wordsByTrigram = new ConcurrentHashMap<>(trigramWords);
+        wordUseCounts = useCounts;
+        entriesByCode = entries;
+    }
+
+    // Add a product, or re-index it after its name changed
+    public synchronized void add(CatalogItem item) {
+        Entry existing = entriesByCode.get(item.getProductCode());
+        if (existing != null) {
+            if (existing.name.equals(normalize(item.getName()))) {
+                return;
+            }
+            remove(item.getProductCode());
+        }
+
+        Entry entry = new Entry(item.getProductCode(), item.getName());
+        entriesByCode.put(entry.code, entry);
+        index(entry, codesByKey, wordsByTrigram, wordUseCounts);
+    }
+
+    private static void index(Entry entry, Map<String, Set<String>> keys, Map<String, Set<String>> trigramWords,
+                              Map<String, Integer> useCounts) {
+        for (String key : entry.keys) {
+            keys.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry.code);
+        }
+        for (String word : entry.words) {
+            if (useCounts.merge(word, 1, Integer::sum) == 1) {
+                for (String trigram : trigrams(word)) {
+                    trigramWords.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(word);
+                }
+            }
+        }
+    }
+
+    public synchronized void remove(String productCode) {
+        Entry entry = entriesByCode.remove(productCode);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            removePosting(codesByKey, key, productCode);
+        }
+        for (String word : entry.words) {
+            if (wordUseCounts.merge(word, -1, Integer::sum) == 0) {
+                wordUseCounts.remove(word);
+                for (String trigram : trigrams(word)) {
+                    removePosting(wordsByTrigram, trigram, word);
+                }
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Set<String>> index, String key, String value) {
+        Set<String> values = index.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return entriesByCode.size();
+    }
+
+    // Product codes ranked best match first
+    public List<String> search(String text, int limit) {
+        String query = normalize(text);
+        if (query.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        int maxCandidates = limit * CANDIDATES_PER_RESULT;
+        Map<String, Integer> scores = new HashMap<>();
+        collectPrefixMatches(query, maxCandidates, scores);
+        if (scores.size() < limit) {
+            collectFuzzyMatches(query, maxCandidates, scores);
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                .thenComparing(match -> nameOf(match.getKey()).length())
+                .thenComparing(match -> nameOf(match.getKey())));
+
+        List<String> codes = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && codes.size() < limit; i++) {
+            codes.add(ranked.get(i).getKey());
+        }
+        return codes;
+    }
+
+    private String nameOf(String productCode) {
+        Entry entry = entriesByCode.get(productCode);
+        return entry != null ? entry.name : "";
+    }
+
+    // Every key that starts with the query sits in one range of the sorted map
+    private void collectPrefixMatches(String query, int maxCandidates, Map<String, Integer> scores) {
+        // The exact key first, so an exact code or word is never cut off by the candidate limit
+        Set<String> exact = codesByKey.get(query);
+        if (exact != null) {
+            addPrefixCandidates(exact, query, maxCandidates, scores);
+        }
+        NavigableMap<String, Set<String>> range = codesByKey.subMap(query, false, query + Character.MAX_VALUE, false);
+        for (Set<String> codes : range.values()) {
+            if (scores.size() >= maxCandidates) {
+                return;
+            }
+            addPrefixCandidates(codes, query, maxCandidates, scores);
+        }
+    }
+
+    private void addPrefixCandidates(Set<String> codes, String query, int maxCandidates, Map<String, Integer> scores) {
+        for (String code : codes) {
+            if (scores.size() >= maxCandidates) {
+                return;
+            }
+            Entry entry = entriesByCode.get(code);
+            if (entry != null) {
+                scores.merge(code, prefixScore(entry, query), Math::max);
+            }
+        }
+    }
+
+    private static int prefixScore(Entry entry, String query) {
+        if (entry.lowerCode.equals(query)) {
+            return EXACT_CODE_SCORE;
+        }
+        if (entry.lowerCode.startsWith(query)) {
+            return CODE_PREFIX_SCORE;
+        }
+        if (entry.name.startsWith(query)) {
+            return NAME_PREFIX_SCORE;
+        }
+        return WORD_PREFIX_SCORE;
+    }
+
+    // Find vocabulary words that share enough trigrams with each typed word, then the products using them
+    private void collectFuzzyMatches(String query, int maxCandidates, Map<String, Integer> scores) {
+        for (String queryWord : splitWords(query)) {
+            Set<String> queryTrigrams = trigrams(queryWord);
+
+            Map<String, Integer> sharedCounts = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Set<String> words = wordsByTrigram.get(trigram);
+                if (words != null) {
+                    for (String word : words) {
+                        sharedCounts.merge(word, 1, Integer::sum);
+                    }
+                }
+            }
+
+            // Closest words first, so the candidate limit keeps the best matches
+            List<Map.Entry<String, Double>> similarWords = new ArrayList<>();
+            for (Map.Entry<String, Integer> shared : sharedCounts.entrySet()) {
+                int wordTrigramCount = shared.getKey().length() + 1;  // Padded word of n letters has n + 1 trigrams
+                double similarity = 2.0 * shared.getValue() / (queryTrigrams.size() + wordTrigramCount);
+                if (similarity >= FUZZY_THRESHOLD) {
+                    similarWords.add(Map.entry(shared.getKey(), similarity));
+                }
+            }
+            similarWords.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+
+            for (Map.Entry<String, Double> similar : similarWords) {
+                Set<String> codes = codesByKey.get(similar.getKey());
+                if (codes == null) {
+                    continue;
+                }
+                int score = (int) (FUZZY_MAX_SCORE * similar.getValue());
+                for (String code : codes) {
+                    if (scores.size() >= maxCandidates && !scores.containsKey(code)) {
+                        return;
+                    }
+                    scores.merge(code, score, Math::max);
+                }
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+
+    private static List<String> splitWords(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(text)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Trigrams of a word, padded with spaces so its start and end count
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static final class Entry {
+        private final String code;
+        private final String lowerCode;
+        private final String name;        // Lower-cased
+        private final Set<String> keys;   // Code, full name and each word of the name
+        private final List<String> words; // Distinct words of the name
+
+        private Entry(String code, String name) {
+            this.code = code;
+            this.lowerCode = normalize(code);
+            this.name = normalize(name);
+            this.words = new ArrayList<>(new LinkedHashSet<>(splitWords(this.name)));
+            this.keys = new LinkedHashSet<>();
+            keys.add(lowerCode);
+            if (!this.name.isEmpty()) {
+                keys.add(this.name);
+                keys.addAll(words);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.supermarketbillingsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Immutable record of a completed sale, as printed for the customer
+public final class Receipt {
+    private final String saleReference;
+    private final List<CartLine> lines;
+    private final long subtotalCents;
+    private final int discountBasisPoints;
+    private final long totalCents;
+    private final PaymentMethod paymentMethod;
+    private final long paidCents;
+
+    public Receipt(String saleReference, List<CartLine> lines, long subtotalCents, int discountBasisPoints,
+                   long totalCents, PaymentMethod paymentMethod, long paidCents) {
+        this.saleReference = saleReference;
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        this.subtotalCents = subtotalCents;
+        this.discountBasisPoints = discountBasisPoints;
+        this.totalCents = totalCents;
+        this.paymentMethod = paymentMethod;
+        this.paidCents = paidCents;
+    }
+
+    // Journal UUID, or "#<sale id>" for a sale committed straight to storage
+    public String getSaleReference() {
+        return saleReference;
+    }
+
+    public List<CartLine> getLines() {
+        return lines;
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public int getDiscountBasisPoints() {
+        return discountBasisPoints;
+    }
+
+    // What the customer was charged (after the discount)
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public long getPaidCents() {
+        return paidCents;
+    }
+
+    public long getChangeCents() {
+        return paidCents - totalCents;
+    }
+
+    // The receipt text shown on the receipt screen
+    public String format() {
+        long start = System.nanoTime();
+        StringBuilder receipt = new StringBuilder(64 + lines.size() * 32);
+        receipt.append("Supermarket Receipt\nSale ref: ").append(saleReference).append("\n----------------------\n");
+
+        for (CartLine line : lines) {
+            receipt.append(line.getName());
+            if (line.getQuantity() > 1) {
+                receipt.append(" x").append(line.getQuantity());
+            }
+            receipt.append(" - $");
+            Money.appendTo(receipt, line.getLineTotalCents()).append("\n");
+        }
+
+        receipt.append("----------------------\n");
+
+        if (discountBasisPoints > 0) {
+            receipt.append("Discount: ").append(Money.formatPercent(discountBasisPoints)).append("%\n");
+            receipt.append("Discounted Total: $");
+            Money.appendTo(receipt, totalCents).append("\n");
+        }
+
+        receipt.append("Total: $");
+        Money.appendTo(receipt, subtotalCents).append("\n");
+        receipt.append("Payment Method: ").append(paymentMethod.getLabel()).append("\n");
+
+        if (paymentMethod.isTendered()) {
+            receipt.append("Cash Paid: $");
+            Money.appendTo(receipt, paidCents).append("\n");
+            receipt.append("Change: $");
+            Money.appendTo(receipt, getChangeCents()).append("\n");
+        }
+
+        receipt.append("Thank you for shopping with us!");
+        String text = receipt.toString();
+        Metrics.RECEIPT_RENDER.recordSince(start);
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -2,7 +2,6 @@ package com.example.supermarketbillingsystem;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -26,7 +25,7 @@ public class ReceiptController {
     private void goBackToBilling(ActionEvent event) {
         try {
             // Load the Billing screen (billing.fxml)
-            Parent billingView = FXMLLoader.load(getClass().getResource("/com/example/supermarketbillingsystem/billing.fxml"));
+            Parent billingView = ScreenLoader.loadView("billing.fxml");
 
             // Get the current stage and change the scene to the Billing screen
             Scene billingScene = new Scene(billingView);
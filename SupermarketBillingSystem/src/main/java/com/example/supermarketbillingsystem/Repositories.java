@@ -0,0 +1,64 @@
+package com.example.supermarketbillingsystem;
+
+// Chooses where products, sales, users and roles are stored.
+// -Dstorage=jdbc (the default) uses the MySQL database; -Dstorage=memory keeps everything in this JVM,
+// seeded with the sample data from project.sql, so billing can be run and measured without MySQL.
+public final class Repositories {
+
+    private static final String STORAGE = System.getProperty("storage", "jdbc");
+
+    private static volatile ProductRepository products;
+    private static volatile SaleRepository sales;
+    private static volatile UserRepository users;
+    private static volatile RoleRepository roles;
+    private static volatile boolean usesDatabase;
+
+    static {
+        if ("memory".equalsIgnoreCase(STORAGE)) {
+            InMemoryProductRepository productRepository = new InMemoryProductRepository();
+            InMemoryUserRepository userRepository = new InMemoryUserRepository();
+            install(productRepository, new InMemorySaleRepository(productRepository), userRepository, userRepository, false);
+        } else {
+            if (!"jdbc".equalsIgnoreCase(STORAGE)) {
+                System.err.println("Unknown storage '" + STORAGE + "', using jdbc");
+            }
+            JdbcUserRepository userRepository = new JdbcUserRepository();
+            install(new JdbcProductRepository(), new JdbcSaleRepository(), userRepository, userRepository, true);
+        }
+    }
+
+    private Repositories() {
+    }
+
+    public static ProductRepository products() {
+        return products;
+    }
+
+    public static SaleRepository sales() {
+        return sales;
+    }
+
+    public static UserRepository users() {
+        return users;
+    }
+
+    public static RoleRepository roles() {
+        return roles;
+    }
+
+    // Whether storage is the MySQL database (and so the connection pool, schema and sales journal are needed)
+    public static boolean usesDatabase() {
+        return usesDatabase;
+    }
+
+    // Replace the repositories, e.g. from a benchmark; call before any billing starts
+    public static synchronized void install(ProductRepository productRepository, SaleRepository saleRepository,
+                                            UserRepository userRepository, RoleRepository roleRepository,
+                                            boolean database) {
+        products = productRepository;
+        sales = saleRepository;
+        users = userRepository;
+        roles = roleRepository;
+        usesDatabase = database;
+    }
+}
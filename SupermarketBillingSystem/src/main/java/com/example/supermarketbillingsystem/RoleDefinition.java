@@ -0,0 +1,45 @@
+package com.example.supermarketbillingsystem;
+
+// Immutable role with its screen permissions; UserRole is the table view model built from it
+public final class RoleDefinition {
+    private final String roleName;
+    private final String description;
+    private final boolean totalIncomeAccess;
+    private final boolean productManagementAccess;
+    private final boolean billingAccess;
+    private final boolean logoutAccess;
+
+    public RoleDefinition(String roleName, String description, boolean totalIncomeAccess,
+                          boolean productManagementAccess, boolean billingAccess, boolean logoutAccess) {
+        this.roleName = roleName;
+        this.description = description;
+        this.totalIncomeAccess = totalIncomeAccess;
+        this.productManagementAccess = productManagementAccess;
+        this.billingAccess = billingAccess;
+        this.logoutAccess = logoutAccess;
+    }
+
+    public String getRoleName() {
+        return roleName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isTotalIncomeAccess() {
+        return totalIncomeAccess;
+    }
+
+    public boolean isProductManagementAccess() {
+        return productManagementAccess;
+    }
+
+    public boolean isBillingAccess() {
+        return billingAccess;
+    }
+
+    public boolean isLogoutAccess() {
+        return logoutAccess;
+    }
+}
@@ -12,10 +12,6 @@ import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 
 public class RoleManagementController {
 
@@ -89,49 +85,23 @@ public class RoleManagementController {
         });
     }
 
+    // Roles are read on a DbExecutor worker and filled into the table when they arrive
     private void loadRoles() {
-        roleData = FXCollections.observableArrayList();
-        try (Connection conn = DatabaseUtil.connect()) {
-            String query = "SELECT DISTINCT role, username FROM users WHERE role IS NOT NULL ORDER BY role";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String role = rs.getString("role");
-                String username = rs.getString("username");
-
-                String permQuery = "SELECT total_income_access, product_management_access, billing_access, logout_access " +
-                        "FROM users WHERE role = ? LIMIT 1";
-                PreparedStatement permStmt = conn.prepareStatement(permQuery);
-                permStmt.setString(1, role);
-                ResultSet permRs = permStmt.executeQuery();
-
-                boolean totalIncome = false;
-                boolean productManagement = false;
-                boolean billing = false;
-                boolean logout = true;
-
-                if (permRs.next()) {
-                    totalIncome = permRs.getBoolean("total_income_access");
-                    productManagement = permRs.getBoolean("product_management_access");
-                    billing = permRs.getBoolean("billing_access");
-                    logout = permRs.getBoolean("logout_access");
-                }
-
-                UserRole userRole = new UserRole(
-                        role,
-                        username,
-                        totalIncome,
-                        productManagement,
-                        billing,
-                        logout
-                );
-                roleData.add(userRole);
+        ObservableList<UserRole> loading = FXCollections.observableArrayList();
+        roleData = loading;
+        roleTable.setItems(loading);
+        DbExecutor.submit(() -> Repositories.roles().findAll(), roles -> {
+            for (RoleDefinition role : roles) {
+                loading.add(new UserRole(
+                        role.getRoleName(),
+                        role.getDescription(),
+                        role.isTotalIncomeAccess(),
+                        role.isProductManagementAccess(),
+                        role.isBillingAccess(),
+                        role.isLogoutAccess()
+                ));
             }
-        } catch (SQLException e) {
-            showAlert("Database Error", "Error loading roles: " + e.getMessage());
-        }
-        roleTable.setItems(roleData);
+        }, error -> showAlert("Database Error", "Error loading roles: " + error.getMessage()));
     }
 
     private void populateFormFields(UserRole role) {
@@ -153,40 +123,28 @@ public class RoleManagementController {
             return;
         }
 
-        try (Connection conn = DatabaseUtil.connect()) {
-            String checkQuery = "SELECT COUNT(*) FROM users WHERE role = ?";
-            PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
-            checkStmt.setString(1, roleName);
-            ResultSet rs = checkStmt.executeQuery();
-            rs.next();
-            if (rs.getInt(1) > 0) {
-                showAlert("Duplicate Role", "Role '" + roleName + "' already exists");
-                return;
+        RoleDefinition role = formRole(roleName);
+        setBusy(true);
+        DbExecutor.submit(() -> {
+            if (Repositories.roles().exists(roleName)) {
+                return null;  // Duplicate
             }
-
-            String insertQuery = "INSERT INTO users (username, password, role, status, total_income_access, product_management_access, billing_access, logout_access) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-            PreparedStatement insertStmt = conn.prepareStatement(insertQuery);
-            insertStmt.setString(1, roleName + "_user");
-            insertStmt.setString(2, "default123");
-            insertStmt.setString(3, roleName);
-            insertStmt.setString(4, "offline");
-            insertStmt.setBoolean(5, totalIncomeCheckBox.isSelected());
-            insertStmt.setBoolean(6, productManagementCheckBox.isSelected());
-            insertStmt.setBoolean(7, billingCheckBox.isSelected());
-            insertStmt.setBoolean(8, logoutCheckBox.isSelected());
-
-            int rowsAffected = insertStmt.executeUpdate();
-            if (rowsAffected > 0) {
+            return Repositories.roles().create(role);
+        }, created -> {
+            setBusy(false);
+            if (created == null) {
+                showAlert("Duplicate Role", "Role '" + roleName + "' already exists");
+            } else if (created) {
                 showAlert("Success", "Role '" + roleName + "' created successfully");
                 clearForm();
                 loadRoles();
             } else {
                 showAlert("Error", "Failed to create role '" + roleName + "'");
             }
-
-        } catch (SQLException e) {
-            showAlert("Database Error", "Error creating role: " + e.getMessage());
-        }
+        }, error -> {
+            setBusy(false);
+            showAlert("Database Error", "Error creating role: " + error.getMessage());
+        });
     }
 
     @FXML
@@ -202,27 +160,21 @@ public class RoleManagementController {
             return;
         }
 
-        try (Connection conn = DatabaseUtil.connect()) {
-            String updateQuery = "UPDATE users SET total_income_access = ?, product_management_access = ?, billing_access = ?, logout_access = ? WHERE role = ?";
-            PreparedStatement stmt = conn.prepareStatement(updateQuery);
-            stmt.setBoolean(1, totalIncomeCheckBox.isSelected());
-            stmt.setBoolean(2, productManagementCheckBox.isSelected());
-            stmt.setBoolean(3, billingCheckBox.isSelected());
-            stmt.setBoolean(4, logoutCheckBox.isSelected());
-            stmt.setString(5, selectedRole.getRoleName());
-
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected > 0) {
+        RoleDefinition role = formRole(selectedRole.getRoleName());
+        setBusy(true);
+        DbExecutor.submit(() -> Repositories.roles().updatePermissions(role), updated -> {
+            setBusy(false);
+            if (updated) {
                 showAlert("Success", "Role '" + roleName + "' updated successfully");
                 clearForm();
                 loadRoles();
             } else {
                 showAlert("Error", "Failed to update role '" + roleName + "'");
             }
-
-        } catch (SQLException e) {
-            showAlert("Database Error", "Error updating role: " + e.getMessage());
-        }
+        }, error -> {
+            setBusy(false);
+            showAlert("Database Error", "Error updating role: " + error.getMessage());
+        });
     }
 
     @FXML
@@ -238,23 +190,21 @@ public class RoleManagementController {
         alert.setContentText("Are you sure you want to delete the role '" + selectedRole.getRoleName() + "'?");
 
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            try (Connection conn = DatabaseUtil.connect()) {
-                String deleteQuery = "DELETE FROM users WHERE role = ?";
-                PreparedStatement stmt = conn.prepareStatement(deleteQuery);
-                stmt.setString(1, selectedRole.getRoleName());
-                int rowsAffected = stmt.executeUpdate();
-
-                if (rowsAffected > 0) {
-                    showAlert("Success", "Role '" + selectedRole.getRoleName() + "' deleted successfully");
+            String roleName = selectedRole.getRoleName();
+            setBusy(true);
+            DbExecutor.submit(() -> Repositories.roles().delete(roleName), deleted -> {
+                setBusy(false);
+                if (deleted) {
+                    showAlert("Success", "Role '" + roleName + "' deleted successfully");
                     clearForm();
                     loadRoles();
                 } else {
-                    showAlert("Error", "Failed to delete role '" + selectedRole.getRoleName() + "'");
+                    showAlert("Error", "Failed to delete role '" + roleName + "'");
                 }
-
-            } catch (SQLException e) {
-                showAlert("Database Error", "Error deleting role: " + e.getMessage());
-            }
+            }, error -> {
+                setBusy(false);
+                showAlert("Database Error", "Error deleting role: " + error.getMessage());
+            });
         }
     }
 
@@ -262,8 +212,8 @@ public class RoleManagementController {
     @FXML
     private void handleBack(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("dashboard.fxml"));
-            Parent dashboardView = loader.load();
+            FXMLLoader loader = ScreenLoader.load("dashboard.fxml");
+            Parent dashboardView = loader.getRoot();
 
             DashboardController dashboardController = loader.getController();
             dashboardController.setCashierInfo(currentUsername, "online");
@@ -278,6 +228,19 @@ public class RoleManagementController {
         }
     }
 
+    // The role as entered in the form
+    private RoleDefinition formRole(String roleName) {
+        return new RoleDefinition(roleName, descriptionField.getText(), totalIncomeCheckBox.isSelected(),
+                productManagementCheckBox.isSelected(), billingCheckBox.isSelected(), logoutCheckBox.isSelected());
+    }
+
+    // Keep the form from starting a second change while one is being saved
+    private void setBusy(boolean busy) {
+        addButton.setDisable(busy);
+        updateButton.setDisable(busy);
+        deleteButton.setDisable(busy);
+    }
+
     private void clearForm() {
         roleNameField.clear();
         descriptionField.clear();
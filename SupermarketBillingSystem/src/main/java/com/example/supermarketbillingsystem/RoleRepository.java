@@ -0,0 +1,21 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// Storage for roles and their screen permissions (see Repositories for how the implementation is chosen)
+public interface RoleRepository {
+
+    List<RoleDefinition> findAll() throws SQLException;
+
+    boolean exists(String roleName) throws SQLException;
+
+    // False if nothing was created
+    boolean create(RoleDefinition role) throws SQLException;
+
+    // Replace the role's permissions; false if the role doesn't exist
+    boolean updatePermissions(RoleDefinition role) throws SQLException;
+
+    // False if the role didn't exist
+    boolean delete(String roleName) throws SQLException;
+}
@@ -0,0 +1,52 @@
+package com.example.supermarketbillingsystem;
+
+import java.time.LocalDateTime;
+
+// One pre-aggregated time bucket of sales (an hour, a day or a month)
+public final class RollupBucket {
+    private final SalesRollups.Granularity granularity;
+    private final LocalDateTime bucketStart;
+    private final long saleCount;
+    private final long totalCents;
+    private final long minCents;
+    private final long maxCents;
+
+    public RollupBucket(SalesRollups.Granularity granularity, LocalDateTime bucketStart, long saleCount,
+                        long totalCents, long minCents, long maxCents) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.saleCount = saleCount;
+        this.totalCents = totalCents;
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+    }
+
+    public SalesRollups.Granularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getSaleCount() {
+        return saleCount;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public long getMinCents() {
+        return minCents;
+    }
+
+    public long getMaxCents() {
+        return maxCents;
+    }
+
+    // Human readable label for the bucket, e.g. "2024-05-03 14:00", "2024-05-03" or "2024-05"
+    public String getPeriodLabel() {
+        return granularity.formatLabel(bucketStart);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Storage for sales, their line items, the income and revenue rollups derived from them,
+// and the stock they take (see Repositories for how the implementation is chosen).
+public interface SaleRepository {
+
+    // Save one paid basket and take its stock, all or nothing; returns the new sale id.
+    // Throws InsufficientStockException, saving nothing, if any product can't cover its decrement.
+    // saleUuid may be null for sales that didn't come through the sales journal.
+    long saveSale(String saleUuid, LocalDateTime saleTime, long totalCents, Collection<CartLine> lines,
+                  Map<String, Integer> stockDecrements) throws SQLException;
+
+    // Which of the given sale UUIDs are already saved
+    Set<String> findSavedSaleUuids(Collection<String> saleUuids) throws SQLException;
+
+    // Save journaled sales that are already paid for, all or nothing. Stock that can't cover its decrement
+    // is set to zero instead of rejecting the sales; those shortfalls are recorded and returned.
+    List<StockConflict> saveShippedSales(List<JournaledSale> sales, Map<String, Integer> stockDecrements) throws SQLException;
+
+    long loadTotalIncomeCents() throws SQLException;
+
+    long loadSaleCount() throws SQLException;
+
+    // Revenue buckets of one granularity whose start lies in [from, to), oldest first
+    List<RollupBucket> queryRollups(SalesRollups.Granularity granularity, LocalDateTime from, LocalDateTime to) throws SQLException;
+
+    // Recompute the revenue buckets from the stored sales; returns the number of months covered
+    int rebuildRollups() throws SQLException;
+
+    // Most recent stock conflicts first
+    List<StockConflict> loadRecentConflicts(int limit) throws SQLException;
+}
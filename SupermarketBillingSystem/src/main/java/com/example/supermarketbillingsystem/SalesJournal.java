@@ -0,0 +1,519 @@
+package com.example.supermarketbillingsystem;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+// Write-ahead journal of paid sales on local disk, so a payment never waits on (or is lost to) the database.
+// - record() appends the sale and returns once it is on disk. Appends from concurrent lanes are written by
+//   one writer thread and made durable together with a single fsync (group commit).
+// - A shipper thread reads the journal from the last checkpoint and commits the sales to MySQL in batches.
+//   Each sale carries a UUID stored in sales.sale_uuid, so a batch shipped twice (crash before the
+//   checkpoint was written) is only recorded once.
+// Record format: [int payload length][int CRC32 of payload][payload]. A torn record at the end of the file
+// (crash mid-write) fails its length or checksum and is cut off when the journal is opened.
+// A damaged record with intact records after it is not cut off: the shipper copies its bytes, up to the next
+// intact record, to sales.quarantine and ships on past it, counting it in Metrics (journal_corrupt_records).
+// Once everything is shipped the journal is truncated, so it only grows while the database is unreachable.
+public final class SalesJournal {
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("sales.journal.dir",
+            Paths.get(System.getProperty("user.home"), ".supermarket-billing", "journal").toString()));
+    private static final Path JOURNAL_FILE = DIRECTORY.resolve("sales.journal");
+    private static final Path CHECKPOINT_FILE = DIRECTORY.resolve("sales.checkpoint");
+    private static final Path QUARANTINE_FILE = DIRECTORY.resolve("sales.quarantine");
+
+    private static final long SHIP_INTERVAL_MS = Long.getLong("sales.journal.shipIntervalMs", 200);
+    private static final int SHIP_BATCH_SIZE = Integer.getInteger("sales.journal.shipBatchSize", 100);
+    private static final long WRITE_TIMEOUT_MS = Long.getLong("sales.journal.writeTimeoutMs", 10_000);
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private static final Object queueLock = new Object();  // Checking open and queueing a record happen together
+    private static final Object fileLock = new Object();   // Guards appends and truncation
+    private static final Object shipLock = new Object();   // One shipping pass at a time
+
+    private static final BlockingQueue<PendingRecord> pendingRecords = new LinkedBlockingQueue<>();
+
+    // Sales recorded by this process, by UUID, whose cart reservations are held until the shipper passes them
+    private static final Map<String, PendingRecord> heldReservations = new ConcurrentHashMap<>();
+
+    private static final AtomicBoolean shipQueued = new AtomicBoolean();
+
+    private static FileChannel channel;
+    private static FileLock processLock;
+    private static Thread writer;
+    private static ScheduledExecutorService shipper;
+    private static volatile boolean open;
+    private static volatile long durableSize;   // Everything below this offset has been forced to disk
+    private static volatile long checkpoint;    // Everything below this offset is in the database (written by the shipper)
+    private static long retryDelayMs;
+    private static long nextAttemptAt;
+    private static volatile int quarantinedRecords;
+    private static volatile ReadOnlyIntegerWrapper quarantinedProperty;  // Created on first use, only set on the FX thread
+
+    private SalesJournal() {
+    }
+
+    // Open the journal, cut off a torn tail, and start the writer and shipper threads
+    public static synchronized void open() throws IOException {
+        if (open) {
+            return;
+        }
+        Files.createDirectories(DIRECTORY);
+        channel = FileChannel.open(JOURNAL_FILE, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        processLock = channel.tryLock();
+        if (processLock == null) {
+            channel.close();
+            throw new IOException("Sales journal " + JOURNAL_FILE + " is in use by another instance");
+        }
+
+        checkpoint = readCheckpoint();
+        long validEnd = scanValidEnd(checkpoint);
+        if (validEnd < channel.size()) {
+            System.err.println("Sales journal: discarding " + (channel.size() - validEnd) + " bytes of incomplete record");
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        durableSize = validEnd;
+        if (validEnd > checkpoint) {
+            System.out.println("Sales journal: " + (validEnd - checkpoint) + " bytes of unshipped sales to replay");
+        }
+        if (Files.exists(QUARANTINE_FILE) && Files.size(QUARANTINE_FILE) > 0) {
+            System.err.println("Sales journal: " + QUARANTINE_FILE + " holds damaged records whose sales are not in the database");
+        }
+
+        open = true;
+        writer = new Thread(SalesJournal::writeLoop, "sales-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        shipper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-journal-shipper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shipper.scheduleWithFixedDelay(SalesJournal::shipQuietly, 0, SHIP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static boolean isOpen() {
+        return open;
+    }
+
+    // Journal bytes not yet in the database (0 when everything has been shipped)
+    public static long getPendingBytes() {
+        return open ? Math.max(0, durableSize - checkpoint) : 0;
+    }
+
+    // Damaged records moved to the quarantine file by this process
+    public static int getQuarantinedRecords() {
+        return quarantinedRecords;
+    }
+
+    public static Path getQuarantineFile() {
+        return QUARANTINE_FILE;
+    }
+
+    // Quarantined record count for binding UI, e.g. a warning banner (FX thread only)
+    public static ReadOnlyIntegerProperty quarantinedProperty() {
+        if (quarantinedProperty == null) {
+            quarantinedProperty = new ReadOnlyIntegerWrapper(quarantinedRecords);
+        }
+        return quarantinedProperty.getReadOnlyProperty();
+    }
+
+    // Append a paid sale and wait until it is durable; the cart's reservations stay held until it is shipped.
+    // Throws if the sale can't be made durable within the write timeout. A timed-out sale is skipped if the writer
+    // hasn't started on it, but one already being written may still land; callers that record the sale some other
+    // way keep its UUID, so the shipper then finds it saved and skips it.
+    public static void record(JournaledSale sale) throws IOException {
+        byte[] payload = sale.encode();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        PendingRecord pending = new PendingRecord(record, sale.getLines());
+        synchronized (queueLock) {
+            if (!open) {
+                throw new IOException("Sales journal is not open");
+            }
+            heldReservations.put(sale.getSaleUuid(), pending);
+            pendingRecords.add(pending);
+        }
+        try {
+            pending.done.get(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            heldReservations.remove(sale.getSaleUuid());
+            throw new IOException("Could not write the sale to the journal", e.getCause());
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            pending.done.cancel(false);
+            if (heldReservations.remove(sale.getSaleUuid()) == null) {
+                return;  // Written after all, and the shipper has already passed it and released its reservations
+            }
+            throw new IOException("Timed out waiting for the sales journal write", e);
+        }
+    }
+
+    // Writer thread: take whatever has queued up since the last fsync and make it durable in one go
+    private static void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>();
+        while (open || !pendingRecords.isEmpty()) {
+            try {
+                PendingRecord first = pendingRecords.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingRecords.drainTo(batch);
+                batch.removeIf(pending -> pending.done.isDone());  // Given up on by record()
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                writeBatch(batch);
+                for (PendingRecord pending : batch) {
+                    pending.done.complete(null);
+                }
+                wakeShipper();
+            } catch (IOException e) {
+                System.err.println("Sales journal write failed: " + e.getMessage());
+                for (PendingRecord pending : batch) {
+                    pending.done.completeExceptionally(e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static void writeBatch(List<PendingRecord> batch) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            buffers[i] = batch.get(i).record;
+        }
+        synchronized (fileLock) {
+            long start = channel.size();
+            channel.position(start);
+            try {
+                long remaining = 0;
+                for (ByteBuffer buffer : buffers) {
+                    remaining += buffer.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                channel.truncate(start);  // Don't leave part of a failed batch behind for the shipper
+                throw e;
+            }
+            long end = start;
+            for (PendingRecord pending : batch) {
+                end += pending.record.limit();
+                pending.end = end;  // Only once durable, so a failed batch is never taken for shipped
+            }
+            durableSize = channel.size();
+        }
+    }
+
+    private static void wakeShipper() {
+        if (!shipQueued.getAndSet(true)) {
+            shipper.execute(SalesJournal::shipQuietly);
+        }
+    }
+
+    // Ship now rather than after the retry delay (the database just came back)
+    public static void shipSoon() {
+        if (!open) {
+            return;
+        }
+        synchronized (shipLock) {
+            retryDelayMs = 0;
+            nextAttemptAt = 0;
+        }
+        wakeShipper();
+    }
+
+    private static void shipQuietly() {
+        shipQueued.set(false);
+        try {
+            shipPending();
+        } catch (IOException e) {
+            System.err.println("Sales journal read failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();  // Thrown out of a scheduled task it would cancel all later passes
+        }
+    }
+
+    // Ship everything durable since the checkpoint; on a database error back off and leave it for the next pass.
+    // Nothing is attempted while offline; ConnectivityMonitor calls shipSoon() when the database is back.
+    private static void shipPending() throws IOException {
+        synchronized (shipLock) {
+            if (!ConnectivityMonitor.isOnline() || System.currentTimeMillis() < nextAttemptAt) {
+                return;
+            }
+            try {
+                while (checkpoint < durableSize) {
+                    List<JournaledSale> sales = new ArrayList<>();
+                    long end = readBatch(checkpoint, durableSize, sales);
+                    if (sales.isEmpty()) {
+                        end = quarantine(checkpoint, durableSize);  // The record at the checkpoint is damaged
+                    } else {
+                        CheckoutService.commitJournaledSales(sales);
+                    }
+                    writeCheckpoint(end);
+                    checkpoint = end;
+                    releaseReservations(end);
+                }
+                retryDelayMs = 0;
+                truncateIfShipped();
+            } catch (SQLException e) {
+                ConnectivityMonitor.reportFailure(e);
+                retryDelayMs = Math.min(MAX_RETRY_DELAY_MS, Math.max(SHIP_INTERVAL_MS, retryDelayMs * 2));
+                nextAttemptAt = System.currentTimeMillis() + retryDelayMs;
+                System.err.println("Sales journal: database unavailable, " + (durableSize - checkpoint)
+                        + " bytes waiting, retrying in " + retryDelayMs + " ms (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    // Read up to one batch of records starting at offset; returns the offset after the last one read.
+    // Stops before a damaged record, so the sales ahead of it are shipped before it is quarantined.
+    private static long readBatch(long offset, long limit, List<JournaledSale> sales) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset < limit && sales.size() < SHIP_BATCH_SIZE) {
+            byte[] payload = readRecord(offset, limit, header);
+            JournaledSale sale = payload != null ? decode(payload) : null;
+            if (sale == null) {
+                break;
+            }
+            sales.add(sale);
+            offset += HEADER_BYTES + payload.length;
+        }
+        return offset;
+    }
+
+    // Null for a record whose checksum matches but whose sale can't be read back (e.g. an unknown version)
+    private static JournaledSale decode(byte[] payload) {
+        try {
+            return JournaledSale.decode(payload);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Sales journal: unreadable sale record: " + e);
+            return null;
+        }
+    }
+
+    // Append the damaged record at offset, up to the next intact record, to the quarantine file and force it
+    // to disk; returns where shipping resumes. Nothing is lost: the bytes can still be inspected and replayed by hand.
+    private static long quarantine(long offset, long limit) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        byte[] payload = readRecord(offset, limit, header);
+        long end = payload != null ? offset + HEADER_BYTES + payload.length : findNextRecord(offset + 1, limit, header);
+        try (FileChannel out = FileChannel.open(QUARANTINE_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long copied = 0;
+            while (copied < end - offset) {
+                copied += channel.transferTo(offset + copied, end - offset - copied, out);
+            }
+            out.force(true);
+        }
+
+        int count = ++quarantinedRecords;
+        Metrics.JOURNAL_CORRUPT_RECORDS.increment();
+        if (quarantinedProperty != null) {
+            Platform.runLater(() -> quarantinedProperty.set(count));
+        }
+        System.err.println("Sales journal: damaged record at offset " + offset + " (" + (end - offset)
+                + " bytes) moved to " + QUARANTINE_FILE + "; its sale is not in the database");
+        return end;
+    }
+
+    // The payload of the record at offset, or null if it is incomplete or fails its checksum
+    private static byte[] readRecord(long offset, long limit, ByteBuffer header) throws IOException {
+        if (offset + HEADER_BYTES > limit) {
+            return null;
+        }
+        header.clear();
+        readFully(header, offset);
+        int length = header.getInt(0);
+        int checksum = header.getInt(4);
+        if (length <= 0 || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > limit) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, offset + HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        return (int) crc.getValue() == checksum ? payload.array() : null;
+    }
+
+    private static void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of sales journal");
+            }
+        }
+    }
+
+    // Offset just past the last intact record, scanning from offset. Damage followed by intact records is
+    // skipped (the shipper quarantines it); only damage with nothing intact after it is a torn tail.
+    private static long scanValidEnd(long offset) throws IOException {
+        long size = channel.size();
+        long validEnd = offset;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset < size) {
+            byte[] payload = readRecord(offset, size, header);
+            if (payload != null) {
+                offset += HEADER_BYTES + payload.length;
+                validEnd = offset;
+            } else {
+                offset = findNextRecord(offset + 1, size, header);
+            }
+        }
+        return validEnd;
+    }
+
+    // First offset from offset on where an intact record starts, or limit if there is none. There are no sync
+    // markers, so every offset is tried; a false match needs a sane length and a matching CRC32.
+    private static long findNextRecord(long offset, long limit, ByteBuffer header) throws IOException {
+        for (; offset + HEADER_BYTES <= limit; offset++) {
+            if (readRecord(offset, limit, header) != null) {
+                return offset;
+            }
+        }
+        return limit;
+    }
+
+    // Hand back the cart reservations of this process's sales that the shipper has passed. Shipped sales' stock is now
+    // off the products table; a quarantined sale's never will be, so holding it would keep those units unsellable.
+    // Goes by journal offset rather than by decoded record, since a quarantined record may not decode at all.
+    private static void releaseReservations(long shippedTo) {
+        for (Map.Entry<String, PendingRecord> held : heldReservations.entrySet()) {
+            PendingRecord pending = held.getValue();
+            if (pending.end > 0 && pending.end <= shippedTo && heldReservations.remove(held.getKey(), pending)) {
+                for (CartLine line : pending.lines) {
+                    StockReservationService.release(line.getProductCode(), line.getQuantity());
+                }
+            }
+        }
+    }
+
+    // Everything is in the database: start the journal over.
+    // The checkpoint is reset first; a crash in between only replays sales the database already has.
+    private static void truncateIfShipped() throws IOException {
+        synchronized (fileLock) {
+            if (checkpoint == 0 || checkpoint != channel.size()) {
+                return;
+            }
+            writeCheckpoint(0);
+            checkpoint = 0;
+            channel.truncate(0);
+            channel.force(true);
+            durableSize = 0;
+        }
+    }
+
+    private static long readCheckpoint() throws IOException {
+        if (!Files.exists(CHECKPOINT_FILE)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(CHECKPOINT_FILE);
+        if (bytes.length != Long.BYTES) {
+            return 0;  // Replaying from the start is safe, sales already shipped are skipped
+        }
+        long offset = ByteBuffer.wrap(bytes).getLong();
+        return offset >= 0 && offset <= channel.size() ? offset : 0;
+    }
+
+    // Write to a temporary file, force it, then rename over the old checkpoint so it is never half-written
+    private static void writeCheckpoint(long offset) throws IOException {
+        Path temp = DIRECTORY.resolve("sales.checkpoint.tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(offset);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, CHECKPOINT_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Finish pending appends, make one last attempt to ship, and close the journal (application exit).
+    // Whatever can't be shipped now stays in the journal and is replayed on the next start.
+    // Records the writer didn't get to fail, so their callers record the sale some other way.
+    public static synchronized void shutdown() {
+        if (!open) {
+            return;
+        }
+        synchronized (queueLock) {
+            open = false;
+        }
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingRecord> unwritten = new ArrayList<>();
+        pendingRecords.drainTo(unwritten);
+        for (PendingRecord pending : unwritten) {
+            pending.done.completeExceptionally(new IOException("Sales journal closed before the sale was written"));
+        }
+        shipper.shutdownNow();
+        try {
+            synchronized (shipLock) {
+                nextAttemptAt = 0;
+            }
+            shipPending();
+            processLock.release();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Could not close the sales journal: " + e.getMessage());
+        }
+    }
+
+    private static final class PendingRecord {
+        private final ByteBuffer record;
+        private final List<CartLine> lines;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile long end;  // Journal offset just past the record once written, 0 before
+
+        private PendingRecord(ByteBuffer record, List<CartLine> lines) {
+            this.record = record;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.supermarketbillingsystem;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Hourly, daily and monthly revenue buckets (count, sum, min, max) maintained as sales are recorded,
+// so revenue over any range is read from a handful of pre-aggregated rows instead of the raw sales table.
+// Each bucket is spread over DatabaseSchema.SALES_ROLLUPS_SLOTS rows and summed on read, so concurrent lanes
+// don't all queue on the current hour's, day's and month's rows.
+public final class SalesRollups {
+
+    public enum Granularity {
+        HOUR("Hourly", "%Y-%m-%d %H:00:00", "yyyy-MM-dd HH:00"),
+        DAY("Daily", "%Y-%m-%d 00:00:00", "yyyy-MM-dd"),
+        MONTH("Monthly", "%Y-%m-01 00:00:00", "yyyy-MM");
+
+        private final String displayName;
+        private final String sqlBucketFormat;
+        private final DateTimeFormatter labelFormatter;
+
+        Granularity(String displayName, String sqlBucketFormat, String labelPattern) {
+            this.displayName = displayName;
+            this.sqlBucketFormat = sqlBucketFormat;
+            this.labelFormatter = DateTimeFormatter.ofPattern(labelPattern);
+        }
+
+        // Start of the bucket containing the given time
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            switch (this) {
+                case HOUR:
+                    return time.truncatedTo(ChronoUnit.HOURS);
+                case DAY:
+                    return time.truncatedTo(ChronoUnit.DAYS);
+                default:
+                    return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            }
+        }
+
+        String formatLabel(LocalDateTime bucketStart) {
+            return labelFormatter.format(bucketStart);
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private static final String MERGE_INTO_BUCKET = "ON DUPLICATE KEY UPDATE sale_count = sale_count + VALUES(sale_count), "
+            + "total_amount = total_amount + VALUES(total_amount), "
+            + "min_amount = LEAST(min_amount, VALUES(min_amount)), "
+            + "max_amount = GREATEST(max_amount, VALUES(max_amount))";
+
+    private SalesRollups() {
+    }
+
+    // Add one sale to its hour, day and month buckets, in one random slot; must run inside the sale's transaction
+    static void addSale(Connection conn, LocalDateTime saleTime, long amountCents) throws SQLException {
+        String query = "INSERT INTO sales_rollups (granularity, bucket_start, slot, sale_count, total_amount, min_amount, max_amount) "
+                + "VALUES (?, ?, ?, 1, ?, ?, ?), (?, ?, ?, 1, ?, ?, ?), (?, ?, ?, 1, ?, ?, ?) " + MERGE_INTO_BUCKET;
+        BigDecimal amount = Money.toDecimal(amountCents);
+        int slot = ThreadLocalRandom.current().nextInt(DatabaseSchema.SALES_ROLLUPS_SLOTS);
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            int index = 1;
+            for (Granularity granularity : Granularity.values()) {
+                stmt.setString(index++, granularity.name());
+                stmt.setTimestamp(index++, Timestamp.valueOf(granularity.bucketStart(saleTime)));
+                stmt.setInt(index++, slot);
+                stmt.setBigDecimal(index++, amount);
+                stmt.setBigDecimal(index++, amount);
+                stmt.setBigDecimal(index++, amount);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    // Add a batch of sales, summed per bucket first so each bucket is written once, in one random slot;
+    // must run inside the batch's transaction
+    static void addSales(Connection conn, List<JournaledSale> sales) throws SQLException {
+        Map<Granularity, Map<LocalDateTime, RollupBucket>> buckets = new EnumMap<>(Granularity.class);
+        for (Granularity granularity : Granularity.values()) {
+            Map<LocalDateTime, RollupBucket> byStart = new TreeMap<>();  // Rows locked in key order
+            for (JournaledSale sale : sales) {
+                long amountCents = sale.getTotalCents();
+                LocalDateTime bucketStart = granularity.bucketStart(sale.getSaleTime());
+                byStart.merge(bucketStart,
+                        new RollupBucket(granularity, bucketStart, 1, amountCents, amountCents, amountCents),
+                        (old, added) -> new RollupBucket(granularity, bucketStart,
+                                old.getSaleCount() + 1,
+                                old.getTotalCents() + amountCents,
+                                Math.min(old.getMinCents(), amountCents),
+                                Math.max(old.getMaxCents(), amountCents)));
+            }
+            buckets.put(granularity, byStart);
+        }
+
+        String query = "INSERT INTO sales_rollups (granularity, bucket_start, slot, sale_count, total_amount, min_amount, max_amount) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?) " + MERGE_INTO_BUCKET;
+        int slot = ThreadLocalRandom.current().nextInt(DatabaseSchema.SALES_ROLLUPS_SLOTS);
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (Map<LocalDateTime, RollupBucket> byStart : buckets.values()) {
+                for (RollupBucket bucket : byStart.values()) {
+                    stmt.setString(1, bucket.getGranularity().name());
+                    stmt.setTimestamp(2, Timestamp.valueOf(bucket.getBucketStart()));
+                    stmt.setInt(3, slot);
+                    stmt.setLong(4, bucket.getSaleCount());
+                    stmt.setBigDecimal(5, Money.toDecimal(bucket.getTotalCents()));
+                    stmt.setBigDecimal(6, Money.toDecimal(bucket.getMinCents()));
+                    stmt.setBigDecimal(7, Money.toDecimal(bucket.getMaxCents()));
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Buckets of one granularity whose start lies in [from, to), oldest first
+    public static List<RollupBucket> query(Granularity granularity, LocalDateTime from, LocalDateTime to) throws SQLException {
+        DatabaseSchema.ensureCreated();
+        List<RollupBucket> buckets = new ArrayList<>();
+        String query = "SELECT bucket_start, SUM(sale_count) AS sale_count, SUM(total_amount) AS total_amount, "
+                + "MIN(min_amount) AS min_amount, MAX(max_amount) AS max_amount FROM sales_rollups "
+                + "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ? "
+                + "GROUP BY bucket_start ORDER BY bucket_start";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, granularity.name());
+            stmt.setTimestamp(2, Timestamp.valueOf(granularity.bucketStart(from)));
+            stmt.setTimestamp(3, Timestamp.valueOf(to));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                buckets.add(new RollupBucket(
+                        granularity,
+                        rs.getTimestamp("bucket_start").toLocalDateTime(),
+                        rs.getLong("sale_count"),
+                        Money.fromDecimal(rs.getBigDecimal("total_amount")),
+                        Money.fromDecimal(rs.getBigDecimal("min_amount")),
+                        Money.fromDecimal(rs.getBigDecimal("max_amount"))
+                ));
+            }
+        }
+        return buckets;
+    }
+
+    // Rebuild the buckets from the raw sales table, one month of history per transaction.
+    // Rebuilt buckets replace whatever was stored in any slot, so the job can be re-run safely.
+    public static int backfill() throws SQLException {
+        LocalDateTime first;
+        LocalDateTime last;
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT MIN(sale_date), MAX(sale_date) FROM sales");
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            Timestamp min = rs.getTimestamp(1);
+            Timestamp max = rs.getTimestamp(2);
+            if (min == null || max == null) {
+                return 0;
+            }
+            first = Granularity.MONTH.bucketStart(min.toLocalDateTime());
+            last = max.toLocalDateTime();
+        }
+
+        int months = 0;
+        for (LocalDateTime monthStart = first; !monthStart.isAfter(last); monthStart = monthStart.plusMonths(1)) {
+            backfillRange(monthStart, monthStart.plusMonths(1));
+            months++;
+        }
+        System.out.println("Sales rollups rebuilt for " + months + " month(s) of history");
+        return months;
+    }
+
+    // The range's buckets are cleared from every slot and rebuilt into slot 0
+    private static void backfillRange(LocalDateTime from, LocalDateTime to) throws SQLException {
+        String delete = "DELETE FROM sales_rollups WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?";
+        String insert = "INSERT INTO sales_rollups (granularity, bucket_start, slot, sale_count, total_amount, min_amount, max_amount) "
+                + "SELECT ?, DATE_FORMAT(sale_date, ?) AS bucket, 0, COUNT(*), SUM(total_amount), MIN(total_amount), MAX(total_amount) "
+                + "FROM sales WHERE sale_date >= ? AND sale_date < ? GROUP BY bucket";
+
+        try (Connection conn = DatabaseUtil.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement deleteStmt = conn.prepareStatement(delete);
+                 PreparedStatement insertStmt = conn.prepareStatement(insert)) {
+                for (Granularity granularity : Granularity.values()) {
+                    deleteStmt.setString(1, granularity.name());
+                    deleteStmt.setTimestamp(2, Timestamp.valueOf(from));
+                    deleteStmt.setTimestamp(3, Timestamp.valueOf(to));
+                    deleteStmt.addBatch();
+
+                    insertStmt.setString(1, granularity.name());
+                    insertStmt.setString(2, granularity.sqlBucketFormat);
+                    insertStmt.setTimestamp(3, Timestamp.valueOf(from));
+                    insertStmt.setTimestamp(4, Timestamp.valueOf(to));
+                    insertStmt.addBatch();
+                }
+                deleteStmt.executeBatch();
+                insertStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
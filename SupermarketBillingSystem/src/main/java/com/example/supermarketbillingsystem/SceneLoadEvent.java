@@ -0,0 +1,21 @@
+package com.example.supermarketbillingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// ScreenLoader: loading one FXML screen, its controller's initialize() included
+@Name("com.example.supermarketbillingsystem.SceneLoad")
+@Label("Scene Load")
+@Category({"Supermarket Billing", "UI"})
+@StackTrace(false)
+final class SceneLoadEvent extends Event {
+
+    @Label("Screen")
+    String screen;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,41 @@
+package com.example.supermarketbillingsystem;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+
+// Loads the application's FXML screens and records how long each one takes (its controller's initialize()
+// included) in Metrics: screen_load for all screens and screen_load.<name> per screen.
+// Each load is also a SceneLoadEvent in flight recordings.
+public final class ScreenLoader {
+
+    private ScreenLoader() {
+    }
+
+    // Load a screen such as "billing.fxml" and return its loader, for getRoot() and getController()
+    public static FXMLLoader load(String fxml) throws IOException {
+        FXMLLoader loader = new FXMLLoader(ScreenLoader.class.getResource(fxml));
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.screen = fxml;
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            loader.load();
+        } catch (IOException | RuntimeException e) {
+            event.error = e.getMessage();
+            throw e;
+        } finally {
+            event.commit();
+        }
+        long elapsed = System.nanoTime() - start;
+        Metrics.SCREEN_LOAD.record(elapsed);
+        Metrics.histogram("screen_load." + fxml.replace(".fxml", "")).record(elapsed);
+        return loader;
+    }
+
+    // Load a screen whose controller needs no setup
+    public static Parent loadView(String fxml) throws IOException {
+        return load(fxml).getRoot();
+    }
+}
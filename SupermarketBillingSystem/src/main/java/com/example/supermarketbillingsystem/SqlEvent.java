@@ -0,0 +1,33 @@
+package com.example.supermarketbillingsystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One statement run on a pooled connection (see TracedStatementHandler).
+// A query lasts until its result set is closed, so slow fetches show up as well as slow execution.
+@Name("com.example.supermarketbillingsystem.Sql")
+@Label("SQL Statement")
+@Category({"Supermarket Billing", "Database"})
+@Description("A statement run through DatabaseUtil's connection pool, with its rows read or changed")
+final class SqlEvent extends Event {
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Operation")
+    @Description("query, update, batch or execute")
+    String operation;
+
+    @Label("Rows")
+    @Description("Rows read by a query, or rows changed by an update or batch")
+    long rows;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,45 @@
+package com.example.supermarketbillingsystem;
+
+import java.time.LocalDateTime;
+
+// A product that journaled (offline or delayed) sales sold more of than the products table had left
+public final class StockConflict {
+    private final String productCode;
+    private final String productName;
+    private final int requested;   // Units the shipped sales needed
+    private final int available;   // Units the products table had when they were shipped
+    private final LocalDateTime detectedAt;
+
+    public StockConflict(String productCode, String productName, int requested, int available, LocalDateTime detectedAt) {
+        this.productCode = productCode;
+        this.productName = productName;
+        this.requested = requested;
+        this.available = available;
+        this.detectedAt = detectedAt;
+    }
+
+    public String getProductCode() {
+        return productCode;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    // Units sold that the products table didn't have
+    public int getShortfall() {
+        return requested - available;
+    }
+
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Stock that went negative because sales were made from stale local stock (offline mode, or lanes whose
+// journaled sales reached the database late). Those sales are already paid for, so they are kept, the
+// product's stock is set to zero, and the shortfall is recorded here for a manager to reconcile.
+public final class StockConflicts {
+
+    private StockConflicts() {
+    }
+
+    // Read the current stock of the given products, locking their rows for the rest of the transaction.
+    // Products missing from the table count as 0 available.
+    static List<StockConflict> lockAndDescribe(Connection conn, Collection<String> productCodes,
+                                               Map<String, Integer> requestedByCode, Map<String, String> namesByCode) throws SQLException {
+        StringBuilder query = new StringBuilder("SELECT product_code, quantity FROM products WHERE product_code IN (");
+        int index = 0;
+        for (String ignored : productCodes) {
+            query.append(index++ == 0 ? "?" : ", ?");
+        }
+        query.append(") FOR UPDATE");
+
+        Map<String, Integer> availableByCode = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+            index = 1;
+            for (String productCode : productCodes) {
+                stmt.setString(index++, productCode);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    availableByCode.put(rs.getString("product_code"), Math.max(0, rs.getInt("quantity")));
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockConflict> conflicts = new ArrayList<>(productCodes.size());
+        for (String productCode : productCodes) {
+            conflicts.add(new StockConflict(productCode, namesByCode.get(productCode), requestedByCode.get(productCode),
+                    availableByCode.getOrDefault(productCode, 0), now));
+        }
+        return conflicts;
+    }
+
+    // Record the conflicts; must run inside the transaction that ships the sales
+    static void record(Connection conn, List<StockConflict> conflicts) throws SQLException {
+        String query = "INSERT INTO stock_conflicts (product_code, product_name, requested, available, shortfall, detected_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (StockConflict conflict : conflicts) {
+                stmt.setString(1, conflict.getProductCode());
+                stmt.setString(2, conflict.getProductName());
+                stmt.setInt(3, conflict.getRequested());
+                stmt.setInt(4, conflict.getAvailable());
+                stmt.setInt(5, conflict.getShortfall());
+                stmt.setTimestamp(6, Timestamp.valueOf(conflict.getDetectedAt()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Most recent conflicts first
+    public static List<StockConflict> loadRecent(int limit) throws SQLException {
+        DatabaseSchema.ensureCreated();
+        List<StockConflict> conflicts = new ArrayList<>();
+        String query = "SELECT product_code, product_name, requested, available, detected_at FROM stock_conflicts "
+                + "ORDER BY detected_at DESC, id DESC LIMIT ?";
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setInt(1, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                conflicts.add(new StockConflict(
+                        rs.getString("product_code"),
+                        rs.getString("product_name"),
+                        rs.getInt("requested"),
+                        rs.getInt("available"),
+                        rs.getTimestamp("detected_at").toLocalDateTime()
+                ));
+            }
+        }
+        return conflicts;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Stock held by open carts, and the conditional decrements that turn it into sold stock.
+// - Reservations are per-SKU counters updated with compare-and-set, so carts on this workstation never
+//   promise the same units twice and no lock is held while scanning.
+// - At checkout each decrement is one "UPDATE ... WHERE quantity >= ?" statement: the database only
+//   subtracts when enough stock is left, which also covers other workstations selling the same product.
+public final class StockReservationService {
+
+    private static final String DECREMENT_QUERY =
+            "UPDATE products SET quantity = quantity - ? WHERE product_code = ? AND quantity >= ?";
+
+    // Units reserved per ProductCatalog.key(code), so every spelling of a code shares one counter;
+    // entries are kept so a counter is never swapped out under a CAS
+    private static final Map<String, AtomicInteger> reservedByCode = new ConcurrentHashMap<>();
+
+    private StockReservationService() {
+    }
+
+    // Stock this workstation can sell: the products row plus any hot-SKU units it has already claimed
+    public static int getStockOnHand(CatalogItem item) {
+        return item.getQuantity() + HotSkuStock.getLocalUnits(item.getProductCode());
+    }
+
+    public static boolean tryReserve(CatalogItem item, int units) {
+        return tryReserve(item.getProductCode(), units, getStockOnHand(item));
+    }
+
+    // Reserve units if stockOnHand still covers them on top of every existing reservation
+    public static boolean tryReserve(String productCode, int units, int stockOnHand) {
+        if (units <= 0) {
+            throw new IllegalArgumentException("Units to reserve must be positive: " + units);
+        }
+        AtomicInteger reserved = reservedByCode.computeIfAbsent(ProductCatalog.key(productCode), code -> new AtomicInteger());
+        while (true) {
+            int current = reserved.get();
+            if ((long) current + units > stockOnHand) {  // long math: a huge request must not wrap around
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + units)) {
+                return true;
+            }
+        }
+    }
+
+    public static void release(String productCode, int units) {
+        AtomicInteger reserved = reservedByCode.get(ProductCatalog.key(productCode));
+        if (reserved != null) {
+            reserved.addAndGet(-units);
+        }
+    }
+
+    public static int getReserved(String productCode) {
+        AtomicInteger reserved = reservedByCode.get(ProductCatalog.key(productCode));
+        return reserved != null ? reserved.get() : 0;
+    }
+
+    // Units of a product that no cart has reserved yet
+    public static int getAvailable(CatalogItem item) {
+        return Math.max(0, getStockOnHand(item) - getReserved(item.getProductCode()));
+    }
+
+    // Subtract one product's stock if enough is left; a single round trip that reports success or failure
+    public static boolean tryDecrement(Connection conn, String productCode, int units) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(DECREMENT_QUERY)) {
+            stmt.setInt(1, units);
+            stmt.setString(2, productCode);
+            stmt.setInt(3, units);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    // Conditionally subtract every product's stock in one batch; returns the codes that didn't have enough.
+    // Callers run this inside their transaction and roll back if anything is returned.
+    public static List<String> decrementAll(Connection conn, Map<String, Integer> quantitiesByCode) throws SQLException {
+        List<String> insufficient = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(DECREMENT_QUERY)) {
+            for (Map.Entry<String, Integer> entry : quantitiesByCode.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setString(2, entry.getKey());
+                stmt.setInt(3, entry.getValue());
+                stmt.addBatch();
+            }
+            int[] updateCounts = stmt.executeBatch();  // Sent as a single round trip (rewriteBatchedStatements)
+
+            Iterator<String> codes = quantitiesByCode.keySet().iterator();
+            for (int updateCount : updateCounts) {
+                String code = codes.next();
+                if (updateCount == 0) {
+                    insufficient.add(code);
+                }
+            }
+        }
+        return insufficient;
+    }
+}
@@ -1,15 +1,16 @@
 package com.example.supermarketbillingsystem;
 
+import javafx.beans.property.SimpleStringProperty;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.event.ActionEvent;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
@@ -32,38 +33,103 @@ public class TotalIncomeController {
     @FXML
     private Label totalIncomeLabel;
 
+    @FXML
+    private ComboBox<SalesRollups.Granularity> granularityComboBox;
+
+    @FXML
+    private TableView<RollupBucket> rollupTable;
+
+    @FXML
+    private TableColumn<RollupBucket, String> periodColumn;
+
+    @FXML
+    private TableColumn<RollupBucket, String> saleCountColumn;
+
+    @FXML
+    private TableColumn<RollupBucket, String> revenueColumn;
+
+    @FXML
+    private TableColumn<RollupBucket, String> minSaleColumn;
+
+    @FXML
+    private TableColumn<RollupBucket, String> maxSaleColumn;
+
     // Method to update the total income label
     @FXML
     public void initialize() {
         System.out.println("Initializing Total Income controller...");
         updateTotalIncomeLabel();
+
+        periodColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getPeriodLabel()));
+        saleCountColumn.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().getSaleCount())));
+        revenueColumn.setCellValueFactory(cellData -> new SimpleStringProperty(Money.formatWithSymbol(cellData.getValue().getTotalCents())));
+        minSaleColumn.setCellValueFactory(cellData -> new SimpleStringProperty(Money.formatWithSymbol(cellData.getValue().getMinCents())));
+        maxSaleColumn.setCellValueFactory(cellData -> new SimpleStringProperty(Money.formatWithSymbol(cellData.getValue().getMaxCents())));
+
+        granularityComboBox.getItems().setAll(SalesRollups.Granularity.values());
+        granularityComboBox.setValue(SalesRollups.Granularity.DAY);
+        loadRollups();
+    }
+
+    @FXML
+    private void onGranularitySelected(ActionEvent event) {
+        loadRollups();
+    }
+
+    // Recompute the rollup buckets from the raw sales history
+    @FXML
+    private void rebuildRollups(ActionEvent event) {
+        rollupTable.setPlaceholder(new Label("Rebuilding..."));
+        rollupTable.getItems().clear();
+        DbExecutor.submit(() -> Repositories.sales().rebuildRollups(), months -> loadRollups(), error -> {
+            rollupTable.setPlaceholder(new Label("Rebuild failed"));
+            showError("Error rebuilding sales rollups: " + error.getMessage());
+        });
+    }
+
+    // Load the most recent buckets of the selected granularity off the FX thread
+    private void loadRollups() {
+        SalesRollups.Granularity granularity = granularityComboBox.getValue();
+        if (granularity == null) {
+            return;
+        }
+
+        LocalDateTime to = LocalDateTime.now().plusHours(1);
+        LocalDateTime from;
+        switch (granularity) {
+            case HOUR:
+                from = to.minusHours(48);
+                break;
+            case DAY:
+                from = to.minusDays(31);
+                break;
+            default:
+                from = to.minusMonths(12);
+                break;
+        }
+
+        rollupTable.setPlaceholder(new Label("Loading..."));
+        DbExecutor.submit(() -> Repositories.sales().queryRollups(granularity, from, to), buckets -> {
+            rollupTable.setPlaceholder(new Label("No sales in this period"));
+            rollupTable.getItems().setAll(buckets);
+        }, error -> {
+            rollupTable.setPlaceholder(new Label("Could not load revenue"));
+            showError("Error fetching revenue rollups: " + error.getMessage());
+        });
     }
 
     // Fixed: Method signature must match FXML - accept ActionEvent parameter
     @FXML
     public void refreshTotalIncome(ActionEvent event) {
         System.out.println("Refresh button clicked!");
-
-        // Add simple visual feedback by temporarily changing text
-        totalIncomeLabel.setText("Loading...");
-
-        // Update the label after a small delay
-        javafx.util.Duration delay = javafx.util.Duration.millis(200);
-        javafx.animation.AnimationTimer timer = new javafx.animation.AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                updateTotalIncomeLabel();
-                stop(); // Stop the timer after one cycle
-            }
-        };
-        timer.start();
+        showTotalIncome(IncomeAggregate::getTotalIncomeCents);  // The persisted totals include other lanes
     }
 
     @FXML
     private void goBackToDashboard(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/supermarketbillingsystem/dashboard.fxml"));
-            Parent dashboardView = loader.load();
+            FXMLLoader loader = ScreenLoader.load("dashboard.fxml");
+            Parent dashboardView = loader.getRoot();
 
             // Pass the same role and username back to dashboard
             DashboardController controller = loader.getController();
@@ -81,37 +147,23 @@ public class TotalIncomeController {
     }
 
 
-    // Fetch and update total income from the database
+    // Show the running total income; cheap, it sums the running totals rather than the sales
     private void updateTotalIncomeLabel() {
         System.out.println("Updating total income label...");
-        double totalIncome = getTotalIncomeFromDatabase();
-        DecimalFormat df = new DecimalFormat("0.00");
-        totalIncomeLabel.setText("$" + df.format(totalIncome));
+        showTotalIncome(IncomeAggregate::getTotalIncomeCents);
     }
 
-    // Fetch total income from the database
-    private double getTotalIncomeFromDatabase() {
-        double totalIncome = 0.0;
-        try (Connection conn = DatabaseUtil.connect()) {
-            System.out.println("Connecting to database...");
-            String query = "SELECT SUM(total_amount) AS total_income FROM sales";
-            System.out.println("Executing query: " + query);
-
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    totalIncome = rs.getDouble("total_income");
-                    System.out.println("Total income retrieved: " + totalIncome);
-                } else {
-                    System.out.println("No data found in sales table");
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            System.err.println("SQL Error: " + e.getMessage());
+    // Fetch total income off the FX thread and update the label when it arrives
+    private void showTotalIncome(Callable<Long> incomeSource) {
+        totalIncomeLabel.setText("Loading...");
+
+        DbExecutor.submit(incomeSource, totalIncomeCents -> {
+            totalIncomeLabel.setText(Money.formatWithSymbol(totalIncomeCents));
+        }, error -> {
+            System.err.println("SQL Error: " + error.getMessage());
+            totalIncomeLabel.setText("--");
             showError("Error fetching total income from the database.");
-        }
-        return totalIncome;
+        });
     }
 
     // Method to show an error message
@@ -0,0 +1,191 @@
+package com.example.supermarketbillingsystem;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Forwards calls to a statement and records a SqlEvent for every execution, with its SQL and row count.
+// ConnectionPool only wraps statements while a flight recording has SqlEvent enabled, so this costs
+// nothing otherwise. Query events end when the result set (or the statement) is closed and count the rows read.
+final class TracedStatementHandler implements InvocationHandler {
+
+    private final Statement statement;
+    private final String preparedSql;  // Null for a plain Statement, whose SQL comes with each call
+    private String batchSql;
+    private int batchSize;
+    private SqlEvent openQuery;
+    private long queryRows;
+
+    private TracedStatementHandler(Statement statement, String preparedSql) {
+        this.statement = statement;
+        this.preparedSql = preparedSql;
+    }
+
+    // True while a running recording wants SQL events
+    static boolean isTracing() {
+        return new SqlEvent().isEnabled();
+    }
+
+    // Wrap a statement as the interface it was created as (Statement, PreparedStatement or CallableStatement)
+    static Statement wrap(Statement statement, Class<?> type, String preparedSql) {
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new TracedStatementHandler(statement, preparedSql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "executeQuery":
+                return executeQuery(method, args);
+            case "executeUpdate":
+            case "executeLargeUpdate":
+                return execute(method, args, "update");
+            case "execute":
+                return execute(method, args, "execute");
+            case "executeBatch":
+            case "executeLargeBatch":
+                return execute(method, args, "batch");
+            case "addBatch":
+                batchSize++;
+                if (args != null && args.length == 1 && batchSql == null) {
+                    batchSql = (String) args[0];
+                }
+                break;
+            case "clearBatch":
+                batchSize = 0;
+                batchSql = null;
+                break;
+            case "close":
+                finishQuery();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        return forward(statement, method, args);
+    }
+
+    private Object executeQuery(Method method, Object[] args) throws Throwable {
+        finishQuery();  // Executing again closes the previous result set
+        SqlEvent event = start(args, "query");
+        ResultSet resultSet;
+        try {
+            resultSet = (ResultSet) forward(statement, method, args);
+        } catch (SQLException e) {
+            event.error = e.getMessage();
+            event.commit();
+            throw e;
+        }
+        openQuery = event;
+        queryRows = 0;
+        return Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (resultProxy, resultMethod, resultArgs) -> {
+                    switch (resultMethod.getName()) {
+                        case "next":
+                            Object hasRow = forward(resultSet, resultMethod, resultArgs);
+                            if (Boolean.TRUE.equals(hasRow)) {
+                                queryRows++;
+                            }
+                            return hasRow;
+                        case "close":
+                            finishQuery();
+                            break;
+                        case "getStatement":
+                            return statement;
+                        case "equals":
+                            return resultProxy == resultArgs[0];
+                        case "hashCode":
+                            return System.identityHashCode(resultProxy);
+                        default:
+                            break;
+                    }
+                    return forward(resultSet, resultMethod, resultArgs);
+                });
+    }
+
+    private Object execute(Method method, Object[] args, String operation) throws Throwable {
+        finishQuery();
+        SqlEvent event = start(args, operation);
+        event.batchSize = batchSize;
+        try {
+            Object result = forward(statement, method, args);
+            event.rows = countRows(result);
+            return result;
+        } catch (SQLException e) {
+            event.error = e.getMessage();
+            throw e;
+        } finally {
+            if ("batch".equals(operation)) {
+                batchSize = 0;
+                batchSql = null;
+            }
+            event.commit();
+        }
+    }
+
+    private SqlEvent start(Object[] args, String operation) {
+        SqlEvent event = new SqlEvent();
+        event.begin();
+        event.operation = operation;
+        if (args != null && args.length > 0 && args[0] instanceof String) {
+            event.sql = (String) args[0];
+        } else {
+            event.sql = preparedSql != null ? preparedSql : batchSql;
+        }
+        return event;
+    }
+
+    private void finishQuery() {
+        SqlEvent event = openQuery;
+        if (event != null) {
+            openQuery = null;
+            event.rows = queryRows;
+            event.commit();
+        }
+    }
+
+    // Rows changed: an update count, the sum of a batch's counts, or the update count after execute()
+    private long countRows(Object result) throws SQLException {
+        if (result instanceof Integer || result instanceof Long) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof int[]) {
+            long rows = 0;
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);  // SUCCESS_NO_INFO is -2
+            }
+            return rows;
+        }
+        if (result instanceof long[]) {
+            long rows = 0;
+            for (long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        if (Boolean.FALSE.equals(result)) {
+            return Math.max(0, statement.getUpdateCount());
+        }
+        return 0;
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.supermarketbillingsystem;
+
+import java.sql.SQLException;
+
+// Storage for user accounts (see Repositories for how the implementation is chosen)
+public interface UserRepository {
+
+    // The user's role if the credentials match, otherwise null
+    String findRole(String username, String password) throws SQLException;
+
+    // Record whether the user is signed in ("online" / "offline")
+    void updateStatus(String username, String status) throws SQLException;
+}
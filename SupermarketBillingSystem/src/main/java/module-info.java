@@ -5,6 +5,9 @@ module com.example.supermarketbillingsystem {
     requires java.sql;
     requires java.logging;
     requires java.desktop;
+    requires jdk.httpserver;
+    requires java.management;
+    requires jdk.jfr;
 
     opens com.example.supermarketbillingsystem to javafx.fxml;
 
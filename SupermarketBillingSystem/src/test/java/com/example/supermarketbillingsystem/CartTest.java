@@ -0,0 +1,164 @@
+package com.example.supermarketbillingsystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Repeat-scan merging, running totals and the stock reservations the cart holds.
+// Every test uses fresh product codes, since reservations are shared by the whole JVM.
+class CartTest {
+
+    @Test
+    void repeatScansMergeIntoOneLine() {
+        CatalogItem apple = item(350, 100);
+        Cart cart = new Cart();
+        List<String> events = record(cart);
+
+        assertTrue(cart.add(apple, 2));
+        assertTrue(cart.add(apple, 3));
+
+        assertEquals(1, cart.getLineCount());
+        assertEquals(5, cart.getQuantity(apple.getProductCode()));
+        assertEquals(5, cart.getUnitCount());
+        assertEquals(1750, cart.getSubtotalCents());
+        assertEquals(List.of("added", "totals", "updated", "totals"), events);
+    }
+
+    @Test
+    void totalsFollowEveryChange() {
+        CatalogItem apple = item(350, 100);
+        CatalogItem milk = item(160, 100);
+        Cart cart = new Cart();
+
+        cart.add(apple, 3);
+        cart.add(milk, 2);
+        assertEquals(1370, cart.getSubtotalCents());
+
+        cart.setDiscountBasisPoints(1000);
+        assertEquals(137, cart.getDiscountCents());
+        assertEquals(1233, cart.getTotalCents());
+
+        cart.setQuantity(apple, 1);
+        assertEquals(670, cart.getSubtotalCents());
+        assertEquals(67, cart.getDiscountCents());
+
+        cart.remove(milk.getProductCode());
+        assertEquals(350, cart.getSubtotalCents());
+        assertEquals(1, cart.getUnitCount());
+
+        cart.setQuantity(apple, 0);
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getSubtotalCents());
+        assertEquals(0, cart.getTotalCents());
+    }
+
+    @Test
+    void linesKeepTheirFirstScanOrder() {
+        CatalogItem first = item(100, 10);
+        CatalogItem second = item(200, 10);
+        Cart cart = new Cart();
+
+        cart.add(first, 1);
+        cart.add(second, 1);
+        cart.add(first, 1);
+
+        List<String> codes = new ArrayList<>();
+        cart.getLines().forEach(line -> codes.add(line.getProductCode()));
+        assertEquals(List.of(first.getProductCode(), second.getProductCode()), codes);
+    }
+
+    @Test
+    void everyUnitInTheCartIsReserved() {
+        CatalogItem apple = item(350, 10);
+        Cart cart = new Cart();
+
+        cart.add(apple, 4);
+        assertEquals(4, StockReservationService.getReserved(apple.getProductCode()));
+        cart.setQuantity(apple, 6);
+        assertEquals(6, StockReservationService.getReserved(apple.getProductCode()));
+        cart.setQuantity(apple, 1);
+        assertEquals(1, StockReservationService.getReserved(apple.getProductCode()));
+        cart.clear();
+        assertEquals(0, StockReservationService.getReserved(apple.getProductCode()));
+    }
+
+    @Test
+    void scansBeyondTheStockLeaveTheCartUnchanged() {
+        CatalogItem apple = item(350, 5);
+        Cart cart = new Cart();
+        Cart otherLane = new Cart();
+
+        assertTrue(cart.add(apple, 3));
+        assertFalse(otherLane.add(apple, 3), "only 2 units are left unreserved");
+        assertTrue(otherLane.isEmpty());
+        assertFalse(cart.setQuantity(apple, 6));
+
+        assertEquals(3, cart.getQuantity(apple.getProductCode()));
+        assertEquals(1050, cart.getSubtotalCents());
+        assertEquals(3, StockReservationService.getReserved(apple.getProductCode()));
+    }
+
+    @Test
+    void hugeQuantitiesAreRefusedInsteadOfOverflowing() {
+        CatalogItem expensive = item(Long.MAX_VALUE / 4, Integer.MAX_VALUE);
+        Cart cart = new Cart();
+
+        assertTrue(cart.add(expensive, 1));
+        assertFalse(cart.add(expensive, 10));
+
+        assertEquals(1, cart.getQuantity(expensive.getProductCode()));
+        assertEquals(Long.MAX_VALUE / 4, cart.getSubtotalCents());
+        assertEquals(1, StockReservationService.getReserved(expensive.getProductCode()));
+    }
+
+    @Test
+    void clearingAfterCheckoutKeepsTheReservations() {
+        CatalogItem apple = item(350, 10);
+        Cart cart = new Cart();
+
+        cart.add(apple, 4);
+        cart.clearAfterCheckout();
+
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getSubtotalCents());
+        assertEquals(4, StockReservationService.getReserved(apple.getProductCode()), "released once the sale is shipped");
+        StockReservationService.release(apple.getProductCode(), 4);
+    }
+
+    private static CatalogItem item(long priceCents, int stock) {
+        String code = "CART-" + UUID.randomUUID();
+        return new CatalogItem(code, "Item " + code, "Test", stock, priceCents);
+    }
+
+    private static List<String> record(Cart cart) {
+        List<String> events = new ArrayList<>();
+        cart.addListener(new Cart.Listener() {
+            @Override
+            public void lineAdded(CartLine line) {
+                events.add("added");
+            }
+
+            @Override
+            public void lineUpdated(CartLine line) {
+                events.add("updated");
+            }
+
+            @Override
+            public void lineRemoved(CartLine line) {
+                events.add("removed");
+            }
+
+            @Override
+            public void totalsChanged(Cart cart) {
+                events.add("totals");
+            }
+        });
+        return events;
+    }
+}
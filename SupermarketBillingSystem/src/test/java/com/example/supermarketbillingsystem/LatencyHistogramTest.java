@@ -0,0 +1,109 @@
+package com.example.supermarketbillingsystem;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bucket boundaries of the log-linear layout (exact below 64 ns, capped just under 2^40 ns) and the percentiles read from them
+class LatencyHistogramTest {
+
+    private static final long MAX_TRACKABLE_NANOS = (1L << 40) - 1;
+    private static final int LAST_BUCKET = LatencyHistogram.index(MAX_TRACKABLE_NANOS);
+
+    @Test
+    void valuesBelow64NanosHaveTheirOwnBucket() {
+        for (long nanos = 0; nanos < 64; nanos++) {
+            assertEquals(nanos, LatencyHistogram.index(nanos));
+            assertEquals(nanos, LatencyHistogram.lowerBound((int) nanos));
+        }
+    }
+
+    @Test
+    void bucketsWidenAt64Nanos() {
+        assertEquals(63, LatencyHistogram.index(63));
+        assertEquals(64, LatencyHistogram.index(64));
+        assertEquals(64, LatencyHistogram.index(65));     // 2 ns wide from here
+        assertEquals(65, LatencyHistogram.index(66));
+        assertEquals(64, LatencyHistogram.lowerBound(64));
+        assertEquals(66, LatencyHistogram.lowerBound(65));
+        assertEquals(126, LatencyHistogram.lowerBound(LatencyHistogram.index(127)));
+        assertEquals(128, LatencyHistogram.lowerBound(LatencyHistogram.index(128)));
+    }
+
+    @Test
+    void theLastBucketEndsJustBelow2To40() {
+        assertEquals(36 * 32 - 1, LAST_BUCKET);
+        assertEquals(LAST_BUCKET, LatencyHistogram.index((1L << 40) - (1L << 34)));
+        assertEquals(LAST_BUCKET - 1, LatencyHistogram.index((1L << 40) - (1L << 34) - 1));
+        assertEquals(63L << 34, LatencyHistogram.lowerBound(LAST_BUCKET));
+    }
+
+    @Test
+    void everyValueLiesInItsBucketWithin3Percent() {
+        for (int bit = 6; bit < 40; bit++) {
+            long power = 1L << bit;
+            for (long nanos : new long[] {power - 1, power, power + 1, power + power / 3, power + power / 2}) {
+                int index = LatencyHistogram.index(nanos);
+                long low = LatencyHistogram.lowerBound(index);
+                long nextLow = index < LAST_BUCKET ? LatencyHistogram.lowerBound(index + 1) : MAX_TRACKABLE_NANOS + 1;
+                assertTrue(low <= nanos && nanos < nextLow, nanos + " not in [" + low + ", " + nextLow + ")");
+                assertTrue(nanos - low <= nanos / 32, nanos + " reported as " + low);
+            }
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndIncreasing() {
+        for (int index = 1; index <= LAST_BUCKET; index++) {
+            long low = LatencyHistogram.lowerBound(index);
+            assertTrue(low > LatencyHistogram.lowerBound(index - 1));
+            assertEquals(index, LatencyHistogram.index(low));
+            assertEquals(index - 1, LatencyHistogram.index(low - 1));
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram("clamp");
+
+        histogram.record(-5);
+        histogram.record(1L << 40);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(MAX_TRACKABLE_NANOS, histogram.getMaxNanos());
+        assertEquals(0, histogram.percentileNanos(0.01));
+        assertEquals(63L << 34, histogram.percentileNanos(1.0));
+    }
+
+    @Test
+    void percentilesAreWithinTheBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram("percentiles");
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertWithin(500_000, histogram.percentileNanos(0.50));
+        assertWithin(990_000, histogram.percentileNanos(0.99));
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(0, new LatencyHistogram("idle").percentileNanos(0.99));
+    }
+
+    @Test
+    void percentilesFollowTheRecentWindows() {
+        LatencyHistogram histogram = new LatencyHistogram("window");
+        histogram.record(5_000_000);
+        histogram.rotateWindow();
+        histogram.rotateWindow();
+        histogram.record(1000);
+
+        assertEquals(1, histogram.getRecentCount());
+        assertWithin(1000, histogram.percentileNanos(0.99));
+        assertEquals(2, histogram.getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual <= expected && expected - actual <= expected / 32, expected + " reported as " + actual);
+    }
+}
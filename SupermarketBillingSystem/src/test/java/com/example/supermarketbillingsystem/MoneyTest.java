@@ -0,0 +1,86 @@
+package com.example.supermarketbillingsystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Parsing, half-up rounding and formatting of long-cent amounts and basis-point discounts
+class MoneyTest {
+
+    @Test
+    void parsesWholeAndFractionalAmounts() {
+        assertEquals(1200, Money.parse("12"));
+        assertEquals(1250, Money.parse("12.5"));
+        assertEquals(1250, Money.parse(" $12.50 "));
+        assertEquals(-399, Money.parse("-3.99"));
+        assertEquals(5, Money.parse(".05"));
+        assertEquals(1200, Money.parse("12."));
+    }
+
+    @Test
+    void roundsDigitsPastTheCentHalfUp() {
+        assertEquals(1234, Money.parse("12.344"));
+        assertEquals(1235, Money.parse("12.345"));
+        assertEquals(100, Money.parse("0.995"));
+        assertEquals(-1235, Money.parse("-12.345"));
+        assertEquals(1235, Money.parse("12.3450001"));
+    }
+
+    @Test
+    void rejectsMalformedAmounts() {
+        for (String text : new String[] {"", " ", "$", "-", ".", "1.2.3", "12a", "1,000", "1e3"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(text), text);
+        }
+        assertThrows(ArithmeticException.class, () -> Money.parse("999999999999999999999"));
+    }
+
+    @Test
+    void parsesPercentagesIntoBasisPoints() {
+        assertEquals(0, Money.parsePercent("0"));
+        assertEquals(1000, Money.parsePercent("10"));
+        assertEquals(1250, Money.parsePercent(" 12.5 "));
+        assertEquals(10_000, Money.parsePercent("100"));
+        assertThrows(NumberFormatException.class, () -> Money.parsePercent("100.01"));
+        assertThrows(NumberFormatException.class, () -> Money.parsePercent("-1"));
+        assertThrows(NumberFormatException.class, () -> Money.parsePercent("ten"));
+    }
+
+    @Test
+    void discountsRoundHalfUpToTheCent() {
+        assertEquals(125, Money.discountAmount(1250, 1000));
+        assertEquals(1, Money.discountAmount(5, 1000));     // 0.5 cent rounds up
+        assertEquals(0, Money.discountAmount(4, 1000));     // 0.4 cent rounds down
+        assertEquals(-1, Money.discountAmount(-5, 1000));   // Refunds round away from zero too
+        assertEquals(1125, Money.applyDiscount(1250, 1000));
+        assertEquals(0, Money.applyDiscount(1999, Money.FULL_PERCENT_BASIS_POINTS));
+    }
+
+    @Test
+    void lineTotalsFailRatherThanOverflow() {
+        assertEquals(1050, Money.times(350, 3));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void formatsAmountsAndPercentages() {
+        assertEquals("12.05", Money.format(1205));
+        assertEquals("0.00", Money.format(0));
+        assertEquals("-3.99", Money.format(-399));
+        assertEquals("$1234.50", Money.formatWithSymbol(123450));
+        assertEquals("-$0.07", Money.formatWithSymbol(-7));
+        assertEquals("12.5", Money.formatPercent(1250));
+        assertEquals("12.05", Money.formatPercent(1205));
+        assertEquals("10", Money.formatPercent(1000));
+    }
+
+    @Test
+    void convertsAtTheJdbcBoundary() {
+        assertEquals(1235, Money.fromDecimal(new BigDecimal("12.345")));
+        assertEquals(0, Money.fromDecimal(null));
+        assertEquals(new BigDecimal("12.05"), Money.toDecimal(1205));
+        assertEquals(-399, Money.fromDecimal(Money.toDecimal(-399)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.supermarketbillingsystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The Bloom filter may only ever err towards "might exist": a known code answered "no" would reject a real product
+class ProductCodeFilterTest {
+
+    static {
+        System.setProperty("storage", "memory");
+    }
+
+    @Test
+    void everyAddedCodeMightBeContained() {
+        List<String> codes = codes("SKU", 100_000);
+        ProductCodeFilter filter = ProductCodeFilter.of(codes);
+
+        for (String code : codes) {
+            assertTrue(filter.mightContain(code), code);
+        }
+    }
+
+    @Test
+    void codesAddedPastCapacityAreStillFound() {
+        ProductCodeFilter filter = new ProductCodeFilter(100);
+        List<String> codes = codes("P", 5_000);
+        codes.forEach(filter::add);
+
+        assertTrue(filter.isOverCapacity());
+        for (String code : codes) {
+            assertTrue(filter.mightContain(code), code);
+        }
+    }
+
+    @Test
+    void concurrentAddsLoseNoBits() throws Exception {
+        ProductCodeFilter filter = new ProductCodeFilter(80_000);
+        ExecutorService lanes = Executors.newFixedThreadPool(4);
+        List<Future<?>> adds = new ArrayList<>();
+        for (int lane = 0; lane < 4; lane++) {
+            List<String> laneCodes = codes("L" + lane + "-", 20_000);
+            adds.add(lanes.submit(() -> laneCodes.forEach(filter::add)));
+        }
+        for (Future<?> add : adds) {
+            add.get();
+        }
+        lanes.shutdown();
+
+        for (int lane = 0; lane < 4; lane++) {
+            for (String code : codes("L" + lane + "-", 20_000)) {
+                assertTrue(filter.mightContain(code), code);
+            }
+        }
+    }
+
+    @Test
+    void unknownCodesAreMostlyRejected() {
+        ProductCodeFilter filter = ProductCodeFilter.of(codes("SKU", 10_000));
+
+        int falsePositives = 0;
+        for (String code : codes("UNKNOWN", 10_000)) {
+            if (filter.mightContain(code)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, falsePositives + " false positives in 10000");  // About 1% expected
+    }
+
+    @Test
+    void anEmptyFilterRejectsEverything() {
+        ProductCodeFilter filter = new ProductCodeFilter(0);
+
+        assertFalse(filter.mightContain("P001"));
+        assertFalse(filter.mightContain(""));
+        assertFalse(filter.isOverCapacity());
+    }
+
+    @Test
+    void theCatalogFindsCodesTheWayTheDatabaseMatchesThem() throws Exception {
+        ProductCatalog.loadAll();
+
+        for (String spelling : new String[] {"P001", "p001", "P001 ", " p001"}) {
+            assertTrue(ProductCatalog.mightExist(spelling), spelling);
+            assertEquals("P001", ProductCatalog.get(spelling).getProductCode(), spelling);
+        }
+        assertFalse(ProductCatalog.mightExist("NOT-A-PRODUCT"));
+    }
+
+    private static List<String> codes(String prefix, int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(prefix + String.format("%07d", i));
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.supermarketbillingsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Prefix ranking, fuzzy matches for misspelled words, and keeping the index right as products change
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        index = new ProductSearchIndex();
+        index.rebuild(List.of(
+                item("P001", "Apple"),
+                item("P0010", "Apple Juice"),
+                item("P002", "Green Apple"),
+                item("P003", "Tomato"),
+                item("P004", "Butter"),
+                item("P005", "Cherry Tomato")));
+    }
+
+    @Test
+    void exactCodeRanksAboveLongerCodes() {
+        assertEquals(List.of("P001", "P0010"), index.search("p001", 5));
+        assertEquals(List.of("P0010"), index.search(" P0010 ", 5));
+    }
+
+    @Test
+    void nameStartRanksAboveALaterWord() {
+        // Apple and Apple Juice start with it (shorter name first), Green Apple only has it as a second word
+        assertEquals(List.of("P001", "P0010", "P002"), index.search("app", 5));
+        assertEquals(List.of("P003", "P005"), index.search("tom", 5));
+    }
+
+    @Test
+    void misspelledWordsFindTheClosestProducts() {
+        assertEquals("P003", index.search("tomatoe", 5).get(0));
+        assertEquals(List.of("P004"), index.search("buter", 5));
+        assertTrue(index.search("xyzzy", 5).isEmpty());
+    }
+
+    @Test
+    void resultsStopAtTheLimit() {
+        assertEquals(List.of("P001", "P0010"), index.search("app", 2));
+        assertTrue(index.search("app", 0).isEmpty());
+        assertTrue(index.search("  ", 5).isEmpty());
+    }
+
+    @Test
+    void removedProductsAreNoLongerFound() {
+        index.remove("P004");
+
+        assertTrue(index.search("butter", 5).isEmpty());
+        assertTrue(index.search("buter", 5).isEmpty(), "its words leave the fuzzy vocabulary too");
+        assertEquals(5, index.size());
+        index.remove("P004");  // Removing twice is harmless
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void wordsSharedWithOtherProductsStaySearchable() {
+        index.remove("P003");
+
+        assertEquals(List.of("P005"), index.search("tomato", 5));
+        assertEquals(List.of("P005"), index.search("tomatoe", 5));
+    }
+
+    @Test
+    void renamedProductsAreReindexed() {
+        index.add(item("P004", "Cheddar"));
+
+        assertTrue(index.search("butter", 5).isEmpty());
+        assertEquals("P004", index.search("ched", 5).get(0));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    void addedProductsAreFoundWithoutARebuild() {
+        index.add(item("P006", "Banana"));
+
+        assertEquals(List.of("P006"), index.search("ban", 5));
+        assertFalse(index.search("bananna", 5).isEmpty());
+    }
+
+    private static CatalogItem item(String code, String name) {
+        return new CatalogItem(code, name, "Test", 10, 100);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.supermarketbillingsystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Journal framing, replay after a restart, torn-tail truncation and quarantine of damaged records,
+// shipped to the in-memory storage. The journal reads its settings once, so they are set before it loads.
+class SalesJournalTest {
+
+    private static final Path DIRECTORY;
+
+    static {
+        try {
+            DIRECTORY = Files.createTempDirectory("sales-journal-test");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        System.setProperty("storage", "memory");
+        System.setProperty("sales.journal.dir", DIRECTORY.toString());
+        System.setProperty("sales.journal.shipIntervalMs", "20");
+    }
+
+    private static final Path JOURNAL_FILE = DIRECTORY.resolve("sales.journal");
+    private static final Path CHECKPOINT_FILE = DIRECTORY.resolve("sales.checkpoint");
+    private static final Path QUARANTINE_FILE = DIRECTORY.resolve("sales.quarantine");
+
+    @BeforeEach
+    void clearJournal() throws IOException {
+        SalesJournal.shutdown();
+        Files.deleteIfExists(JOURNAL_FILE);
+        Files.deleteIfExists(CHECKPOINT_FILE);
+        Files.deleteIfExists(QUARANTINE_FILE);
+    }
+
+    @AfterEach
+    void closeJournal() {
+        SalesJournal.shutdown();
+    }
+
+    @Test
+    void recordedSalesAreShippedAndTheJournalStartsOver() throws IOException {
+        SalesJournal.open();
+        List<JournaledSale> sales = Arrays.asList(sale(350), sale(1200), sale(99));
+        for (JournaledSale sale : sales) {
+            SalesJournal.record(sale);
+        }
+
+        awaitShipped(sales);
+        await(() -> SalesJournal.getPendingBytes() == 0 && size(JOURNAL_FILE) == 0);
+        assertFalse(Files.exists(QUARANTINE_FILE));
+    }
+
+    @Test
+    void framesRoundTripThroughTheJournalFile() throws IOException {
+        JournaledSale sale = sale(4599);
+        write(JOURNAL_FILE, frame(sale));
+
+        SalesJournal.open();
+
+        awaitShipped(Collections.singletonList(sale));
+        JournaledSale decoded = JournaledSale.decode(sale.encode());
+        assertEquals(sale.getSaleUuid(), decoded.getSaleUuid());
+        assertEquals(sale.getSaleTime(), decoded.getSaleTime());
+        assertEquals(sale.getTotalCents(), decoded.getTotalCents());
+        assertEquals(1, decoded.getLines().size());
+        assertEquals("P001", decoded.getLines().get(0).getProductCode());
+        assertEquals(2, decoded.getLines().get(0).getQuantity());
+    }
+
+    @Test
+    void replayStartsAtTheCheckpoint() throws IOException {
+        JournaledSale shipped = sale(100);
+        JournaledSale pending = sale(200);
+        byte[] first = frame(shipped);
+        write(JOURNAL_FILE, first, frame(pending));
+        write(CHECKPOINT_FILE, ByteBuffer.allocate(Long.BYTES).putLong(first.length).array());
+
+        SalesJournal.open();
+
+        awaitShipped(Collections.singletonList(pending));
+        assertTrue(saved(Collections.singletonList(shipped)).isEmpty(), "records before the checkpoint are not replayed");
+    }
+
+    @Test
+    void tornTailIsCutOffWithoutQuarantine() throws IOException {
+        JournaledSale first = sale(100);
+        JournaledSale second = sale(200);
+        byte[] torn = frame(sale(300));
+        write(JOURNAL_FILE, frame(first), frame(second), Arrays.copyOf(torn, torn.length / 2));
+        long corruptBefore = Metrics.JOURNAL_CORRUPT_RECORDS.getCount();
+
+        SalesJournal.open();
+
+        awaitShipped(Arrays.asList(first, second));
+        await(() -> size(JOURNAL_FILE) == 0);
+        assertFalse(Files.exists(QUARANTINE_FILE));
+        assertEquals(corruptBefore, Metrics.JOURNAL_CORRUPT_RECORDS.getCount());
+    }
+
+    @Test
+    void damagedPayloadIsQuarantinedAndLaterSalesStillShip() throws IOException {
+        JournaledSale before = sale(100);
+        JournaledSale after = sale(300);
+        byte[] damaged = frame(sale(200));
+        damaged[damaged.length - 3] ^= 0x5a;
+        write(JOURNAL_FILE, frame(before), damaged, frame(after));
+        int quarantinedBefore = SalesJournal.getQuarantinedRecords();
+
+        SalesJournal.open();
+
+        awaitShipped(Arrays.asList(before, after));
+        assertArrayEquals(damaged, Files.readAllBytes(QUARANTINE_FILE));
+        assertEquals(quarantinedBefore + 1, SalesJournal.getQuarantinedRecords());
+    }
+
+    @Test
+    void damagedLengthIsSkippedUpToTheNextIntactRecord() throws IOException {
+        JournaledSale after = sale(300);
+        byte[] damaged = frame(sale(200));
+        ByteBuffer.wrap(damaged).putInt(0, Integer.MAX_VALUE);
+        write(JOURNAL_FILE, damaged, frame(after));
+
+        SalesJournal.open();
+
+        awaitShipped(Collections.singletonList(after));
+        assertArrayEquals(damaged, Files.readAllBytes(QUARANTINE_FILE));
+    }
+
+    @Test
+    void unreadableSaleWithAValidChecksumIsQuarantined() throws IOException {
+        JournaledSale after = sale(300);
+        byte[] unknownVersion = sale(200).encode();
+        unknownVersion[0] = 99;
+        byte[] unreadable = frame(unknownVersion);
+        write(JOURNAL_FILE, unreadable, frame(after));
+
+        SalesJournal.open();
+
+        awaitShipped(Collections.singletonList(after));
+        assertArrayEquals(unreadable, Files.readAllBytes(QUARANTINE_FILE));
+    }
+
+    @Test
+    void reservationsAreHeldUntilTheShipperPassesTheSale() throws IOException {
+        String code = "P008";
+        int reservedBefore = StockReservationService.getReserved(code);
+        JournaledSale sale = new JournaledSale(UUID.randomUUID().toString(), LocalDateTime.now(), 700,
+                Collections.singletonList(new CartLine(code, "Item", "Test", 350, 2)));
+        assertTrue(StockReservationService.tryReserve(code, 2, Integer.MAX_VALUE));
+
+        SalesJournal.open();
+        SalesJournal.record(sale);
+
+        awaitShipped(Collections.singletonList(sale));
+        await(() -> StockReservationService.getReserved(code) == reservedBefore);
+    }
+
+    @Test
+    void recordingAfterShutdownFailsInsteadOfWaiting() throws IOException {
+        SalesJournal.open();
+        SalesJournal.shutdown();
+
+        JournaledSale sale = sale(100);
+        assertThrows(IOException.class, () -> SalesJournal.record(sale));
+        assertTrue(saved(Collections.singletonList(sale)).isEmpty());
+    }
+
+    private static JournaledSale sale(long totalCents) {
+        List<CartLine> lines = Collections.singletonList(new CartLine("P001", "Apple", "Fruit", totalCents / 2, 2));
+        return new JournaledSale(UUID.randomUUID().toString(), LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS),
+                totalCents, lines);
+    }
+
+    private static byte[] frame(JournaledSale sale) {
+        return frame(sale.encode());
+    }
+
+    // [int payload length][int CRC32 of payload][payload], as SalesJournal writes it
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(8 + payload.length).putInt(payload.length).putInt((int) crc.getValue()).put(payload).array();
+    }
+
+    private static void write(Path file, byte[]... chunks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            bytes.write(chunk);
+        }
+        Files.write(file, bytes.toByteArray());
+    }
+
+    private static Set<String> saved(List<JournaledSale> sales) {
+        try {
+            return Repositories.sales().findSavedSaleUuids(sales.stream().map(JournaledSale::getSaleUuid).toList());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitShipped(List<JournaledSale> sales) {
+        await(() -> saved(sales).size() == sales.size());
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the sales journal");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.supermarketbillingsystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reservations never promise more than the stock on hand, whatever the quantities or the number of lanes.
+// Every test uses a fresh product code, since reservations are shared by the whole JVM.
+class StockReservationServiceTest {
+
+    @Test
+    void reservesUpToTheStockOnHand() {
+        String code = freshCode();
+
+        assertTrue(StockReservationService.tryReserve(code, 6, 10));
+        assertTrue(StockReservationService.tryReserve(code, 4, 10));
+        assertFalse(StockReservationService.tryReserve(code, 1, 10));
+        assertEquals(10, StockReservationService.getReserved(code));
+    }
+
+    @Test
+    void releasedUnitsCanBeReservedAgain() {
+        String code = freshCode();
+        StockReservationService.tryReserve(code, 10, 10);
+
+        StockReservationService.release(code, 3);
+
+        assertEquals(7, StockReservationService.getReserved(code));
+        assertTrue(StockReservationService.tryReserve(code, 3, 10));
+        assertFalse(StockReservationService.tryReserve(code, 1, 10));
+    }
+
+    @Test
+    void releasingAnUnknownCodeIsHarmless() {
+        String code = freshCode();
+
+        StockReservationService.release(code, 5);
+
+        assertEquals(0, StockReservationService.getReserved(code));
+    }
+
+    @Test
+    void availableStockExcludesReservations() {
+        CatalogItem item = new CatalogItem(freshCode(), "Item", "Test", 10, 100);
+
+        StockReservationService.tryReserve(item, 4);
+
+        assertEquals(6, StockReservationService.getAvailable(item));
+        assertFalse(StockReservationService.tryReserve(item, 7));
+        assertEquals(6, StockReservationService.getAvailable(item));
+    }
+
+    @Test
+    void spellingsOfOneCodeShareOneCounter() {
+        String code = freshCode();
+
+        assertTrue(StockReservationService.tryReserve(code, 6, 10));
+        assertFalse(StockReservationService.tryReserve(code.toLowerCase() + " ", 6, 10));
+        StockReservationService.release(code.toLowerCase(), 6);
+        assertEquals(0, StockReservationService.getReserved(code));
+    }
+
+    // Regression: current + units used to wrap around int, so a huge request looked like it fit
+    @Test
+    void hugeRequestsDoNotWrapAround() {
+        String code = freshCode();
+        assertTrue(StockReservationService.tryReserve(code, 5, Integer.MAX_VALUE));
+
+        assertFalse(StockReservationService.tryReserve(code, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertFalse(StockReservationService.tryReserve(code, Integer.MAX_VALUE - 4, Integer.MAX_VALUE));
+        assertTrue(StockReservationService.tryReserve(code, Integer.MAX_VALUE - 5, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, StockReservationService.getReserved(code));
+    }
+
+    @Test
+    void nonPositiveRequestsAreRejected() {
+        String code = freshCode();
+
+        assertThrows(IllegalArgumentException.class, () -> StockReservationService.tryReserve(code, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> StockReservationService.tryReserve(code, -5, 10));
+        assertEquals(0, StockReservationService.getReserved(code));
+    }
+
+    @Test
+    void concurrentLanesNeverOversell() throws Exception {
+        String code = freshCode();
+        int lanes = 8;
+        int stock = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(lanes);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int lane = 0; lane < lanes; lane++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int reserved = 0;
+                for (int i = 0; i < 500; i++) {
+                    if (StockReservationService.tryReserve(code, 1, stock)) {
+                        reserved++;
+                    }
+                }
+                return reserved;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+
+        assertEquals(stock, total);
+        assertEquals(stock, StockReservationService.getReserved(code));
+    }
+
+    private static String freshCode() {
+        return "RES-" + UUID.randomUUID().toString().toUpperCase();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+import java.util.Random;
+
+// Basket size distribution from a spec such as "geometric:12" (mean 12, many small baskets and a long tail),
+// "uniform:1-40" or "fixed:20"
+final class BasketSizes {
+
+    private static final int MAX_BASKET = 500;
+
+    private final String kind;
+    private final int a;
+    private final int b;
+
+    private BasketSizes(String kind, int a, int b) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    static BasketSizes parse(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Basket spec must be kind:value, e.g. geometric:12, got " + spec);
+        }
+        switch (parts[0]) {
+            case "geometric":
+            case "fixed":
+                return new BasketSizes(parts[0], Integer.parseInt(parts[1]), 0);
+            case "uniform":
+                String[] range = parts[1].split("-", 2);
+                return new BasketSizes(parts[0], Integer.parseInt(range[0]), Integer.parseInt(range[1]));
+            default:
+                throw new IllegalArgumentException("Unknown basket distribution " + parts[0]);
+        }
+    }
+
+    int next(Random random) {
+        switch (kind) {
+            case "fixed":
+                return a;
+            case "uniform":
+                return a + random.nextInt(b - a + 1);
+            default:
+                // Geometric on 1, 2, ... with the given mean
+                double p = 1.0 / Math.max(1, a);
+                int size = 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - Math.min(p, 0.999999)));
+                return Math.min(size, MAX_BASKET);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + (kind.equals("uniform") ? a + "-" + b : String.valueOf(a));
+    }
+}
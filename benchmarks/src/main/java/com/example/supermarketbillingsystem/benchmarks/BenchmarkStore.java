@@ -0,0 +1,41 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+import com.example.supermarketbillingsystem.CatalogItem;
+import com.example.supermarketbillingsystem.InMemoryProductRepository;
+import com.example.supermarketbillingsystem.InMemorySaleRepository;
+import com.example.supermarketbillingsystem.InMemoryUserRepository;
+import com.example.supermarketbillingsystem.ProductCatalog;
+import com.example.supermarketbillingsystem.Repositories;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// In-memory stand-in for MySQL: installs the in-memory repositories with generated products
+// (SKU0000001, ... with effectively unlimited stock) and loads them into the product catalog
+final class BenchmarkStore {
+
+    private BenchmarkStore() {
+    }
+
+    static void install(int products) throws SQLException {
+        InMemoryProductRepository productRepository = new InMemoryProductRepository(products);
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        Repositories.install(productRepository, new InMemorySaleRepository(productRepository),
+                userRepository, userRepository, false);
+        ProductCatalog.loadAll();
+    }
+
+    static String code(int index) {
+        return String.format("SKU%07d", index + 1);
+    }
+
+    // The first count generated products, as the catalog serves them
+    static List<CatalogItem> items(int count) {
+        List<CatalogItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(ProductCatalog.getCached(code(i)));
+        }
+        return items;
+    }
+}
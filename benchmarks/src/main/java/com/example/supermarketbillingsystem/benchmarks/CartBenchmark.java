@@ -0,0 +1,63 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+import com.example.supermarketbillingsystem.Cart;
+import com.example.supermarketbillingsystem.CatalogItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Scanning a whole basket into a cart: one line per product, and repeat scans merging into one line.
+// Each invocation also clears the cart, which hands the reservations back.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dstorage=memory")
+@State(Scope.Thread)
+public class CartBenchmark {
+
+    @Param({"10", "100"})
+    public int basketSize;
+
+    private List<CatalogItem> items;
+    private final Cart cart = new Cart();
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkStore.install(basketSize);
+        items = BenchmarkStore.items(basketSize);
+    }
+
+    @Benchmark
+    public long addDistinctLines() {
+        for (CatalogItem item : items) {
+            cart.add(item, 1);
+        }
+        long total = cart.getTotalCents();
+        cart.clear();
+        return total;
+    }
+
+    @Benchmark
+    public long mergeRepeatScans() {
+        CatalogItem item = items.get(0);
+        for (int i = 0; i < basketSize; i++) {
+            cart.add(item, 1);
+        }
+        long total = cart.getTotalCents();
+        cart.clear();
+        return total;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+import com.example.supermarketbillingsystem.Cart;
+import com.example.supermarketbillingsystem.CatalogItem;
+import com.example.supermarketbillingsystem.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The billing screen's total after each edit (BillingController.updateTotal): the cart adjusts its totals
+// by the change in one line, compared with summing every table row's Product.getTotalPriceCents.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dstorage=memory")
+@State(Scope.Thread)
+public class CartTotalsBenchmark {
+
+    @Param({"10", "100"})
+    public int basketSize;
+
+    private final Cart cart = new Cart();
+    private final List<Product> rows = new ArrayList<>();
+    private CatalogItem editedItem;
+    private int edits;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkStore.install(basketSize);
+        for (CatalogItem item : BenchmarkStore.items(basketSize)) {
+            cart.add(item, 2);
+            rows.add(item.toProduct(2));
+        }
+        editedItem = BenchmarkStore.items(1).get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cart.clear();
+    }
+
+    // Quantity edit on one line, then the discounted total
+    @Benchmark
+    public long editQuantityIncremental() {
+        cart.setQuantity(editedItem, (edits++ & 1) == 0 ? 3 : 2);
+        return cart.getTotalCents();
+    }
+
+    // Discount edit, then the discounted total
+    @Benchmark
+    public long editDiscountIncremental() {
+        cart.setDiscountBasisPoints((edits++ & 1) == 0 ? 1000 : 1250);
+        return cart.getTotalCents();
+    }
+
+    // Recomputing from every row after a quantity edit, as the screen did before the cart kept totals
+    @Benchmark
+    public long editQuantityRecomputeRows() {
+        rows.get(0).setQuantity((edits++ & 1) == 0 ? 3 : 2);
+        long total = 0;
+        for (Product row : rows) {
+            total += row.getTotalPriceCents();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long productRowTotal() {
+        return rows.get(0).getTotalPriceCents();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+// Latency histogram for one stage on one lane (single writer, merged after the run).
+// Log-linear buckets: exact below 64 ns, then 32 buckets per power of two, so any percentile
+// is reported within about 3% of the true value in constant memory.
+final class LatencyRecorder {
+
+    private static final int SUB_BUCKETS = 32;
+    private static final int BUCKETS = SUB_BUCKETS * 60;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long errors;
+    private long maxNanos;
+
+    void record(long nanos) {
+        counts[index(Math.max(0, nanos))]++;
+        count++;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    void recordError() {
+        errors++;
+    }
+
+    void add(LatencyRecorder other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        errors += other.errors;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    long getMaxNanos() {
+        return maxNanos;
+    }
+
+    // Smallest recorded value with at least the given fraction of values at or below it (bucket lower bound)
+    long percentileNanos(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(lowerBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    private static int index(long nanos) {
+        if (nanos < 2 * SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - 5;  // Keeps the top 6 bits: 32..63
+        return SUB_BUCKETS * shift + (int) (nanos >>> shift);
+    }
+
+    private static long lowerBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+import com.example.supermarketbillingsystem.BillingException;
+import com.example.supermarketbillingsystem.BillingSession;
+import com.example.supermarketbillingsystem.CartLine;
+import com.example.supermarketbillingsystem.DatabaseSchema;
+import com.example.supermarketbillingsystem.DatabaseUtil;
+import com.example.supermarketbillingsystem.InsufficientStockException;
+import com.example.supermarketbillingsystem.PaymentMethod;
+import com.example.supermarketbillingsystem.ProductCatalog;
+import com.example.supermarketbillingsystem.Repositories;
+import com.example.supermarketbillingsystem.SalesJournal;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless multi-lane load test of the billing flow: N lanes, each on its own thread, scan baskets
+// (with quantity edits and discounts) and pay for them through BillingSession, against the configured storage
+// (-Dstorage=jdbc for MySQL, -Dstorage=memory for the application alone). Reports throughput,
+// p50/p99/p999 latency per stage and, with MySQL, InnoDB row lock waits during the run.
+//
+// java -Dload.lanes=16 -cp target/benchmarks.jar com.example.supermarketbillingsystem.benchmarks.LoadGenerator
+//   -Dload.lanes=8               simulated lanes (threads)
+//   -Dload.durationSec=60        measured run time, after -Dload.warmupSec=10
+//   -Dload.basket=geometric:12   basket sizes: geometric:<mean>, uniform:<min>-<max> or fixed:<n>
+//   -Dload.skew=1.0              Zipf exponent of product popularity (0 = uniform)
+//   -Dload.products=0            draw from the first N products only (0 = whole catalog)
+//   -Dload.scanPauseMs=0         cashier time between scans (0 = as fast as possible)
+//   -Dload.editRate=0.1          share of baskets with a quantity edit; -Dload.discountRate=0.2 with a discount
+//   -Dload.journal=true          pay through the sales journal (as the lanes do) or commit each sale directly
+//   -Dload.seed=42
+public final class LoadGenerator {
+
+    private static final int LANES = Integer.getInteger("load.lanes", 8);
+    private static final long DURATION_SEC = Long.getLong("load.durationSec", 60);
+    private static final long WARMUP_SEC = Long.getLong("load.warmupSec", 10);
+    private static final BasketSizes BASKETS = BasketSizes.parse(System.getProperty("load.basket", "geometric:12"));
+    private static final double SKEW = Double.parseDouble(System.getProperty("load.skew", "1.0"));
+    private static final int PRODUCT_LIMIT = Integer.getInteger("load.products", 0);
+    private static final long SCAN_PAUSE_MS = Long.getLong("load.scanPauseMs", 0);
+    private static final double EDIT_RATE = Double.parseDouble(System.getProperty("load.editRate", "0.1"));
+    private static final double DISCOUNT_RATE = Double.parseDouble(System.getProperty("load.discountRate", "0.2"));
+    private static final boolean USE_JOURNAL = Boolean.parseBoolean(System.getProperty("load.journal", "true"));
+    private static final long SEED = Long.getLong("load.seed", 42);
+
+    private static final String[] STAGES = {"scan", "quantity", "discount", "pay", "basket"};
+    private static final int SCAN = 0;
+    private static final int QUANTITY = 1;
+    private static final int DISCOUNT = 2;
+    private static final int PAY = 3;
+    private static final int BASKET = 4;
+
+    // One lane's counters; only its own thread writes them
+    private static final class LaneStats {
+        final LatencyRecorder[] stages = new LatencyRecorder[STAGES.length];
+        long baskets;
+        long lines;
+        long outOfStock;
+
+        LaneStats() {
+            for (int i = 0; i < stages.length; i++) {
+                stages[i] = new LatencyRecorder();
+            }
+        }
+    }
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> codes = prepare();
+        ZipfSampler popularity = new ZipfSampler(codes.size(), SKEW);
+        System.out.println("Load: " + LANES + " lanes, " + WARMUP_SEC + " s warm-up + " + DURATION_SEC + " s, baskets "
+                + BASKETS + ", skew " + SKEW + " over " + codes.size() + " products, storage "
+                + (Repositories.usesDatabase() ? "jdbc" : "memory") + (SalesJournal.isOpen() ? " via sales journal" : ""));
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + TimeUnit.SECONDS.toNanos(WARMUP_SEC);
+        long endNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(DURATION_SEC);
+        AtomicLong laneErrors = new AtomicLong();
+        LaneStats[] stats = new LaneStats[LANES];
+        CountDownLatch done = new CountDownLatch(LANES);
+        Map<String, Long> locksBefore = null;
+
+        for (int lane = 0; lane < LANES; lane++) {
+            LaneStats laneStats = new LaneStats();
+            stats[lane] = laneStats;
+            Random random = new Random(SEED + lane);
+            Thread thread = new Thread(() -> {
+                try {
+                    runLane(codes, popularity, random, laneStats, measureFromNanos, endNanos);
+                } catch (RuntimeException e) {
+                    laneErrors.incrementAndGet();
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-lane-" + (lane + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(Math.max(0, measureFromNanos - System.nanoTime())));
+        locksBefore = readLockStatus();
+        done.await();
+        Map<String, Long> locksAfter = readLockStatus();
+
+        report(stats, locksBefore, locksAfter, laneErrors.get());
+
+        long pending = SalesJournal.getPendingBytes();
+        if (SalesJournal.isOpen()) {
+            System.out.println("Shipping the journal (" + pending + " bytes pending)...");
+            SalesJournal.shutdown();
+        }
+        if (Repositories.usesDatabase()) {
+            System.out.println(DatabaseUtil.getConnectionPool());  // Pool statistics
+            DatabaseUtil.shutdown();
+        }
+        System.exit(0);
+    }
+
+    // Same startup as a lane: storage, schema, journal and the product catalog; returns the product codes by popularity
+    private static List<String> prepare() throws SQLException {
+        if (Repositories.usesDatabase()) {
+            DatabaseUtil.getConnectionPool().warmUp();
+            DatabaseSchema.ensureCreated();
+            if (USE_JOURNAL) {
+                try {
+                    SalesJournal.open();
+                } catch (IOException e) {
+                    System.err.println("Could not open the sales journal, committing sales directly: " + e.getMessage());
+                }
+            }
+        }
+        ProductCatalog.loadAll();
+
+        List<String> codes = new ArrayList<>(Repositories.products().loadAll().keySet());
+        Collections.sort(codes);
+        Collections.shuffle(codes, new Random(SEED));  // Popularity rank -> product, stable for a seed
+        if (PRODUCT_LIMIT > 0 && PRODUCT_LIMIT < codes.size()) {
+            codes = new ArrayList<>(codes.subList(0, PRODUCT_LIMIT));
+        }
+        if (codes.isEmpty()) {
+            throw new IllegalStateException("The catalog has no products to sell");
+        }
+        return codes;
+    }
+
+    private static void runLane(List<String> codes, ZipfSampler popularity, Random random, LaneStats stats,
+                                long measureFromNanos, long endNanos) {
+        BillingSession session = new BillingSession();
+        while (System.nanoTime() < endNanos) {
+            long basketStart = System.nanoTime();
+            boolean measured = basketStart >= measureFromNanos;
+
+            int size = BASKETS.next(random);
+            for (int i = 0; i < size; i++) {
+                pause();
+                String code = codes.get(popularity.next(random));
+                long t0 = System.nanoTime();
+                BillingSession.ScanResult result = session.scan(code, 1);
+                long t1 = System.nanoTime();
+                if (measured) {
+                    stats.stages[SCAN].record(t1 - t0);
+                    if (!result.isAdded()) {
+                        stats.outOfStock++;
+                    }
+                }
+            }
+
+            List<CartLine> lines = session.getCart().snapshotLines();
+            if (lines.isEmpty()) {
+                continue;
+            }
+            if (random.nextDouble() < EDIT_RATE) {
+                pause();
+                CartLine line = lines.get(random.nextInt(lines.size()));
+                long t0 = System.nanoTime();
+                BillingSession.ScanResult result = session.setQuantity(
+                        ProductCatalog.get(line.getProductCode()), line.getQuantity() + 1 + random.nextInt(3));
+                long t1 = System.nanoTime();
+                if (measured) {
+                    stats.stages[QUANTITY].record(t1 - t0);
+                    if (!result.isAdded()) {
+                        stats.outOfStock++;
+                    }
+                }
+            }
+            if (random.nextDouble() < DISCOUNT_RATE) {
+                long t0 = System.nanoTime();
+                session.setDiscount(String.valueOf(5 * (1 + random.nextInt(4))));
+                long t1 = System.nanoTime();
+                if (measured) {
+                    stats.stages[DISCOUNT].record(t1 - t0);
+                }
+            }
+
+            pause();
+            boolean cash = random.nextBoolean();
+            long total = session.getTotalCents();
+            long t0 = System.nanoTime();
+            boolean paid = false;
+            try {
+                session.checkout(cash ? PaymentMethod.CASH : PaymentMethod.CARD, cash ? roundUp(total) : 0);
+                paid = true;
+            } catch (InsufficientStockException e) {
+                session.abandon();
+                if (measured) {
+                    stats.outOfStock++;
+                }
+            } catch (BillingException | SQLException e) {
+                session.abandon();
+                if (measured) {
+                    stats.stages[PAY].recordError();
+                }
+            }
+            long t1 = System.nanoTime();
+            if (measured && paid) {
+                stats.stages[PAY].record(t1 - t0);
+                stats.stages[BASKET].record(t1 - basketStart);
+                stats.baskets++;
+                stats.lines += lines.size();
+            }
+        }
+        session.abandon();
+    }
+
+    // Cash handed over: the total rounded up to the next 10.00
+    private static long roundUp(long totalCents) {
+        return (totalCents / 1000 + 1) * 1000;
+    }
+
+    private static void pause() {
+        if (SCAN_PAUSE_MS > 0) {
+            try {
+                Thread.sleep(SCAN_PAUSE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // InnoDB row lock counters (cumulative since server start), or null without MySQL
+    private static Map<String, Long> readLockStatus() {
+        if (!Repositories.usesDatabase()) {
+            return null;
+        }
+        Map<String, Long> status = new LinkedHashMap<>();
+        try (Connection conn = DatabaseUtil.connect()) {
+            PreparedStatement stmt = conn.prepareStatement("SHOW GLOBAL STATUS LIKE 'Innodb_row_lock%'");
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                status.put(rs.getString(1), rs.getLong(2));
+            }
+            PreparedStatement deadlocks = conn.prepareStatement(
+                    "SELECT COUNT FROM information_schema.INNODB_METRICS WHERE NAME = 'lock_deadlocks'");
+            ResultSet deadlockRs = deadlocks.executeQuery();
+            if (deadlockRs.next()) {
+                status.put("lock_deadlocks", deadlockRs.getLong(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not read InnoDB lock status: " + e.getMessage());
+            return null;
+        }
+        return status;
+    }
+
+    private static void report(LaneStats[] stats, Map<String, Long> locksBefore, Map<String, Long> locksAfter, long laneErrors) {
+        LatencyRecorder[] merged = new LatencyRecorder[STAGES.length];
+        long baskets = 0;
+        long lines = 0;
+        long outOfStock = 0;
+        for (int i = 0; i < STAGES.length; i++) {
+            merged[i] = new LatencyRecorder();
+        }
+        for (LaneStats lane : stats) {
+            for (int i = 0; i < STAGES.length; i++) {
+                merged[i].add(lane.stages[i]);
+            }
+            baskets += lane.baskets;
+            lines += lane.lines;
+            outOfStock += lane.outOfStock;
+        }
+
+        System.out.println();
+        System.out.printf("Throughput: %.1f baskets/s, %.1f scans/s, %.1f lines/basket (%d baskets in %d s)%n",
+                baskets / (double) DURATION_SEC, merged[SCAN].getCount() / (double) DURATION_SEC,
+                baskets == 0 ? 0.0 : lines / (double) baskets, baskets, DURATION_SEC);
+        System.out.println("Out of stock: " + outOfStock + ", failed payments: " + merged[PAY].getErrors()
+                + (laneErrors > 0 ? ", crashed lanes: " + laneErrors : ""));
+        System.out.println();
+        System.out.printf("%-9s %10s %8s %10s %10s %10s %10s%n", "stage", "count", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int i = 0; i < STAGES.length; i++) {
+            LatencyRecorder recorder = merged[i];
+            System.out.printf("%-9s %10d %8d %10.3f %10.3f %10.3f %10.3f%n", STAGES[i], recorder.getCount(), recorder.getErrors(),
+                    millis(recorder.percentileNanos(0.50)), millis(recorder.percentileNanos(0.99)),
+                    millis(recorder.percentileNanos(0.999)), millis(recorder.getMaxNanos()));
+        }
+
+        System.out.println();
+        if (locksBefore == null || locksAfter == null) {
+            System.out.println("DB lock waits: n/a (no MySQL)");
+            return;
+        }
+        long waits = delta(locksBefore, locksAfter, "Innodb_row_lock_waits");
+        long waitMs = delta(locksBefore, locksAfter, "Innodb_row_lock_time");
+        System.out.printf("DB lock waits: %d row lock waits, %d ms waited (avg %.2f ms), max wait since server start %d ms, "
+                        + "deadlocks %d%n", waits, waitMs, waits == 0 ? 0.0 : waitMs / (double) waits,
+                locksAfter.getOrDefault("Innodb_row_lock_time_max", 0L),
+                delta(locksBefore, locksAfter, "lock_deadlocks"));
+    }
+
+    private static long delta(Map<String, Long> before, Map<String, Long> after, String name) {
+        return after.getOrDefault(name, 0L) - before.getOrDefault(name, 0L);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
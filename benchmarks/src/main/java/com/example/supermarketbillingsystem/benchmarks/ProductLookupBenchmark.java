@@ -0,0 +1,79 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+import com.example.supermarketbillingsystem.BillingSession;
+import com.example.supermarketbillingsystem.CatalogItem;
+import com.example.supermarketbillingsystem.DatabaseUtil;
+import com.example.supermarketbillingsystem.ProductCatalog;
+import com.example.supermarketbillingsystem.Repositories;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Product lookups by scanned code against the in-memory store: catalog hits through each entry point,
+// mis-scans rejected by the product code filter, and the store itself
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dstorage=memory")
+@State(Scope.Thread)
+public class ProductLookupBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private String[] codes;
+    private String[] unknownCodes;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkStore.install(catalogSize);
+        codes = new String[1024];
+        unknownCodes = new String[1024];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = BenchmarkStore.code((int) ((i * 2654435761L) % catalogSize));  // Spread over the catalog
+            unknownCodes[i] = String.format("XX%07d", i);
+        }
+    }
+
+    private String nextCode() {
+        return codes[next++ & (codes.length - 1)];
+    }
+
+    @Benchmark
+    public CatalogItem catalogGet() {
+        return ProductCatalog.get(nextCode());
+    }
+
+    @Benchmark
+    public CatalogItem databaseUtilGetProductByCode() {
+        return DatabaseUtil.getProductByCode(nextCode());
+    }
+
+    @Benchmark
+    public CatalogItem billingSessionFindProduct() {
+        return BillingSession.findProduct(nextCode());
+    }
+
+    @Benchmark
+    public CatalogItem unknownCodeRejected() {
+        return ProductCatalog.get(unknownCodes[next++ & (unknownCodes.length - 1)]);
+    }
+
+    @Benchmark
+    public CatalogItem storeFindByCode() throws SQLException {
+        return Repositories.products().findByCode(nextCode());
+    }
+}
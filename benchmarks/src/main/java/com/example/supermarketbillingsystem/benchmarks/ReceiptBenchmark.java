@@ -0,0 +1,62 @@
+package com.example.supermarketbillingsystem.benchmarks;
+
+import com.example.supermarketbillingsystem.Cart;
+import com.example.supermarketbillingsystem.CatalogItem;
+import com.example.supermarketbillingsystem.PaymentMethod;
+import com.example.supermarketbillingsystem.Receipt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Rendering the receipt text of a paid basket (what PaymentController showed as generateReceipt)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dstorage=memory")
+@State(Scope.Thread)
+public class ReceiptBenchmark {
+
+    @Param({"5", "50"})
+    public int lineCount;
+
+    private Receipt cashReceipt;
+    private Receipt cardReceipt;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkStore.install(lineCount);
+        Cart cart = new Cart();
+        for (CatalogItem item : BenchmarkStore.items(lineCount)) {
+            cart.add(item, 3);
+        }
+        cart.setDiscountBasisPoints(1250);
+        long total = cart.getTotalCents();
+        cashReceipt = new Receipt("3f1c2a9e-8d4b-4c6e-9a7f-0b5d2e1c4a8f", cart.snapshotLines(), cart.getSubtotalCents(),
+                cart.getDiscountBasisPoints(), total, PaymentMethod.CASH, total + 1234);
+        cardReceipt = new Receipt("#42", cart.snapshotLines(), cart.getSubtotalCents(), 0, cart.getSubtotalCents(),
+                PaymentMethod.CARD, cart.getSubtotalCents());
+        cart.clear();
+    }
+
+    @Benchmark
+    public String formatCashWithDiscount() {
+        return cashReceipt.format();
+    }
+
+    @Benchmark
+    public String formatCard() {
+        return cardReceipt.format();
+    }
+}
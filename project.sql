@@ -13,8 +13,66 @@ CREATE TABLE products (
     name VARCHAR(255) NOT NULL,
     category VARCHAR(255),
     price DECIMAL(10, 2) NOT NULL,
-    quantity INT NOT NULL
+    quantity INT NOT NULL,
+    product_code VARCHAR(64) NOT NULL,
+    -- Used for barcode lookups and for paging the product list in product_code order;
+    -- unique because each stock decrement must hit exactly one row
+    UNIQUE INDEX uq_products_product_code (product_code)
 );
+-- Running income totals, updated in the same transaction as each sale.
+-- Spread over 16 slots so concurrent lanes don't all lock one row; the total is SUM(total_amount).
+-- The application creates this table and seeds it from the sales table on first use.
+CREATE TABLE IF NOT EXISTS sales_totals (
+    slot TINYINT PRIMARY KEY,
+    total_amount DECIMAL(15, 2) NOT NULL,
+    sale_count BIGINT NOT NULL
+);
+
+-- Pre-aggregated revenue per hour, day and month (granularity = 'HOUR', 'DAY' or 'MONTH'),
+-- updated with each sale and rebuilt from the sales table when first created.
+-- Like sales_totals, each bucket is spread over 16 slots; a bucket is the SUM (MIN, MAX) over its slots.
+CREATE TABLE IF NOT EXISTS sales_rollups (
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    slot TINYINT NOT NULL DEFAULT 0,
+    sale_count BIGINT NOT NULL,
+    total_amount DECIMAL(15, 2) NOT NULL,
+    min_amount DECIMAL(12, 2) NOT NULL,
+    max_amount DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, slot)
+);
+
+-- One row per product on each sale, written in the same transaction as the sale row.
+-- line_total is before the basket discount; sales.total_amount holds the discounted total.
+CREATE TABLE IF NOT EXISTS sale_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sale_id BIGINT NOT NULL,
+    product_code VARCHAR(64) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    line_total DECIMAL(12, 2) NOT NULL,
+    INDEX idx_sale_items_sale (sale_id),
+    INDEX idx_sale_items_product (product_code)
+);
+
+-- Sales shipped from the local sales journal carry a UUID, so a sale shipped twice is stored once.
+-- The application adds this column to an existing sales table on first use:
+-- ALTER TABLE sales ADD COLUMN sale_uuid CHAR(36) NULL, ADD UNIQUE INDEX uq_sales_uuid (sale_uuid);
+
+-- Products that journaled sales (e.g. made offline from stale stock) sold more of than was left.
+-- The sales are kept, the product's stock is set to 0, and the shortfall is recorded here for reconciliation.
+CREATE TABLE IF NOT EXISTS stock_conflicts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_code VARCHAR(64) NOT NULL,
+    product_name VARCHAR(255),
+    requested INT NOT NULL,
+    available INT NOT NULL,
+    shortfall INT NOT NULL,
+    detected_at DATETIME NOT NULL,
+    INDEX idx_stock_conflicts_detected (detected_at)
+);
+
 -- Sample Users for authentication
 INSERT INTO users (username, password, role) 
 VALUES 
@@ -22,16 +80,16 @@ VALUES
     ('cashier', 'cashierpassword', 'cashier'); -- Regular user
 
 -- Sample Products for the inventory
-INSERT INTO products (name, category, price, quantity) 
+INSERT INTO products (product_code, name, category, price, quantity) 
 VALUES 
-    ('Apple', 'Fruits', 3.50, 100),
-    ('Banana', 'Fruits', 2.00, 150),
-    ('Carrot', 'Vegetables', 1.20, 200),
-    ('Tomato', 'Vegetables', 2.50, 120),
-    ('Milk', 'Dairy', 1.60, 80),
-    ('Cheese', 'Dairy', 5.00, 50),
-    ('Rice', 'Grains', 1.80, 200),
-    ('Flour', 'Grains', 2.30, 180);
+    ('P001', 'Apple', 'Fruits', 3.50, 100),
+    ('P002', 'Banana', 'Fruits', 2.00, 150),
+    ('P003', 'Carrot', 'Vegetables', 1.20, 200),
+    ('P004', 'Tomato', 'Vegetables', 2.50, 120),
+    ('P005', 'Milk', 'Dairy', 1.60, 80),
+    ('P006', 'Cheese', 'Dairy', 5.00, 50),
+    ('P007', 'Rice', 'Grains', 1.80, 200),
+    ('P008', 'Flour', 'Grains', 2.30, 180);
     
     SELECT * FROM users;
 